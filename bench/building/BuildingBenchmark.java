@@ -0,0 +1,196 @@
+package building;
+
+import building.enums.ElevatorEngine;
+import building.enums.RequestStatus;
+import building.enums.ScaleMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scanerzus.Request;
+
+/**
+ * Times the hot paths of a building for every fleet size in floors x
+ * elevators x backlog, where backlog is the number of requests kept waiting
+ * in the queues.  bench/run.sh runs it with the gc profiler and diffs the
+ * scores against bench/baseline/BuildingBenchmark.csv.
+ * The building is run with random traffic before it is measured, so the
+ * cars are spread over the floors with requests on board.
+ * step and distributeRequests top the queues up to the backlog before each
+ * call, so every call sees the same depth.  Adding requests grows the
+ * queues, so addRequest and tryAddRequest run short iterations, each on a
+ * fresh building; their bytes per call include the queues growing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BuildingBenchmark {
+  private static final int TRAFFIC = 4096;
+
+  @Param({"10", "256"})
+  int floors;
+
+  @Param({"7", "1000"})
+  int elevators;
+
+  @Param({"0", "1024"})
+  int backlog;
+
+  Building building;
+  BuildingReport report;
+  int[] startFloors;
+  int[] endFloors;
+  Request[] requests;
+  int next;
+
+  /**
+   * Makes the traffic, and a running building with the backlog waiting.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    startFloors = new int[TRAFFIC];
+    endFloors = new int[TRAFFIC];
+    requests = new Request[TRAFFIC];
+    for (int i = 0; i < TRAFFIC; i++) {
+      int start = random.nextInt(floors);
+      int end = random.nextInt(floors - 1);
+      startFloors[i] = start;
+      endFloors[i] = end < start ? end : end + 1;
+      requests[i] = new Request(startFloors[i], endFloors[i]);
+    }
+    building = this.runningBuilding();
+    report = building.getElevatorSystemStatus();
+  }
+
+  /**
+   * Makes a new running building, so the add benchmarks start each
+   * iteration from the same depth of queue.
+   */
+  @Setup(Level.Iteration)
+  public void setUpIteration() {
+    building = this.runningBuilding();
+  }
+
+  private Building runningBuilding() {
+    Building running = new Building(floors, elevators, 10, ElevatorEngine.object,
+        ScaleMode.highScale);
+    running.startElevatorSystem();
+    for (int tick = 0; tick < 500; tick++) {
+      running.tryAddRequest(startFloors[next], endFloors[next]);
+      next = (next + 1) % TRAFFIC;
+      running.step();
+    }
+    this.topUp(running);
+    return running;
+  }
+
+  private void topUp(Building target) {
+    while (target.getUpRequestCount() + target.getDownRequestCount() < backlog) {
+      target.tryAddRequest(startFloors[next], endFloors[next]);
+      next = (next + 1) % TRAFFIC;
+    }
+  }
+
+  /**
+   * Steps the building once with the backlog waiting.
+   *
+   * @return the tick, so the work is not eliminated.
+   */
+  @Benchmark
+  public long step() {
+    this.topUp(building);
+    building.step();
+    return building.getCurrentTick();
+  }
+
+  /**
+   * The state distributeRequests() is timed on: the building is stepped so
+   * the cars move on and free up room, then the queues are topped up.
+   */
+  @State(Scope.Thread)
+  public static class Distribution {
+    @Setup(Level.Invocation)
+    public void prepare(BuildingBenchmark benchmark) {
+      benchmark.building.step();
+      benchmark.topUp(benchmark.building);
+    }
+  }
+
+  /**
+   * Hands the backlog to the elevators.  The setup steps the building
+   * before every call, which JMH times apart from the call; at the smaller
+   * sizes the call is short enough that the timer itself is a good part of
+   * the score.
+   *
+   * @param distribution steps and tops up the building before each call
+   * @return the requests left waiting, so the work is not eliminated.
+   */
+  @Benchmark
+  public int distributeRequests(Distribution distribution) {
+    building.distributeRequests();
+    return building.getUpRequestCount() + building.getDownRequestCount();
+  }
+
+  /**
+   * Adds a request with addRequest(), which checks a Request.
+   *
+   * @return the requests waiting, so the work is not eliminated.
+   */
+  @Benchmark
+  @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 10, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  public int addRequest() {
+    building.addRequest(requests[next]);
+    next = (next + 1) % TRAFFIC;
+    return building.getUpRequestCount();
+  }
+
+  /**
+   * Adds a request with tryAddRequest(), which takes the floors and
+   * allocates nothing but the room the queues grow by.
+   *
+   * @return the status, so the work is not eliminated.
+   */
+  @Benchmark
+  @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  @Measurement(iterations = 10, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+  public RequestStatus tryAddRequest() {
+    RequestStatus status = building.tryAddRequest(startFloors[next], endFloors[next]);
+    next = (next + 1) % TRAFFIC;
+    return status;
+  }
+
+  /**
+   * Makes a report of the building.
+   *
+   * @return the report.
+   */
+  @Benchmark
+  public BuildingReport getElevatorSystemStatus() {
+    return building.getElevatorSystemStatus();
+  }
+
+  /**
+   * Renders the report made in the setup as text.
+   *
+   * @return the text.
+   */
+  @Benchmark
+  public String reportToString() {
+    return report.toString();
+  }
+}
@@ -0,0 +1,171 @@
+package building;
+
+import building.enums.ElevatorEngine;
+import building.enums.ScaleMode;
+import elevator.ElevatorReport;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scanerzus.Request;
+
+/**
+ * Compares the ways of rendering a building report as text: the String.format
+ * rendering that toString() used to do, toString() now, and appendTo() into
+ * a builder that is kept from one call to the next, the way BuildingView
+ * does.  bench/run.sh runs it with the gc profiler, so gc.alloc.rate.norm
+ * shows the bytes allocated per report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReportRenderingBenchmark {
+  @Param({"10", "256"})
+  int floors;
+
+  @Param({"7", "100"})
+  int elevators;
+
+  BuildingReport report;
+  StringBuilder buffer;
+
+  /**
+   * Runs a building for a while so the report has moving cars, open doors
+   * and waiting requests, and checks both renderings give the same text.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    Building building = new Building(floors, elevators, 10, ElevatorEngine.object,
+        ScaleMode.highScale);
+    building.startElevatorSystem();
+    Random random = new Random(42);
+    for (int tick = 0; tick < 500; tick++) {
+      int start = random.nextInt(floors);
+      int end = random.nextInt(floors);
+      if (start != end) {
+        building.addRequest(new Request(start, end));
+      }
+      building.step();
+    }
+    report = building.getElevatorSystemStatus();
+    buffer = new StringBuilder();
+    if (!LegacyFormat.of(report).equals(report.toString())) {
+      throw new IllegalStateException("appendTo does not match the old format");
+    }
+  }
+
+  /**
+   * Renders the report the way toString() did before appendTo().
+   *
+   * @return the text, so the work is not eliminated.
+   */
+  @Benchmark
+  public String legacyFormat() {
+    return LegacyFormat.of(report);
+  }
+
+  /**
+   * Renders the report with toString(), a new builder each time.
+   *
+   * @return the text, so the work is not eliminated.
+   */
+  @Benchmark
+  public String toStringReport() {
+    return report.toString();
+  }
+
+  /**
+   * Renders the report into the same builder each time.
+   *
+   * @return the builder, so the work is not eliminated.
+   */
+  @Benchmark
+  public StringBuilder appendToReusedBuilder() {
+    buffer.setLength(0);
+    return report.appendTo(buffer);
+  }
+
+  /**
+   * The String.format rendering of a report, kept here as the baseline.
+   */
+  static final class LegacyFormat {
+    private LegacyFormat() {
+    }
+
+    static String of(BuildingReport report) {
+      StringBuilder sb = new StringBuilder();
+      sb.append("-".repeat(62)).append("\n");
+      sb.append(centreString("Floors: " + report.getNumFloors()
+          + ", Elevators: " + report.getNumElevators()
+          + ", Capacity: " + report.getElevatorCapacity(), 60));
+      sb.append("\n");
+      sb.append(centreString("Elevator System: " + report.getSystemStatus(), 60));
+      sb.append("\n").append("-".repeat(62)).append("\n");
+      sb.append("*Requests: \n");
+      sb.append("Up: ").append(requests(report.getUpRequests()));
+      sb.append("\nDown: ").append(requests(report.getDownRequests()));
+      sb.append("\n").append("-".repeat(62));
+      sb.append("\n*Elevator Status: \n");
+      for (int i = 0; i < report.getNumElevators(); i++) {
+        ElevatorReport elevator = report.getElevatorReport(i);
+        sb.append("Elevator " + elevator.getElevatorId() + ": ");
+        sb.append(elevator(elevator));
+        sb.append("\n");
+      }
+      return sb.toString();
+    }
+
+    private static String requests(List<Request> requests) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < requests.size(); i++) {
+        sb.append(i == 0 ? "" : ", ").append(requests.get(i).toString());
+      }
+      return sb.toString();
+    }
+
+    private static String elevator(ElevatorReport report) {
+      if (report.isOutOfService() && report.getCurrentFloor() == 0) {
+        return String.format("Out of Service[Floor %d]", report.getCurrentFloor());
+      }
+      if (report.getEndWaitTimer() > 0) {
+        return String.format("Waiting[Floor %d, Time %d]", report.getCurrentFloor(),
+            report.getEndWaitTimer());
+      }
+      StringBuilder sb = new StringBuilder();
+      sb.append(String.format("[%d|%s|", report.getCurrentFloor(), report.getDirection()));
+      if (report.isDoorClosed()) {
+        sb.append("C  ]<");
+      } else {
+        sb.append(String.format("O %d]<", report.getDoorOpenTimer()));
+      }
+      for (int i = 0; i < report.getFloorRequestSet().getNumberOfFloors(); i++) {
+        if (report.getFloorRequestSet().contains(i)) {
+          sb.append(String.format(" %2d", i));
+        } else {
+          sb.append(" --");
+        }
+      }
+      return sb.append(">").toString();
+    }
+
+    private static String centreString(String s, int width) {
+      int leftPadding = (width - 2 - s.length()) / 2;
+      int rightPadding = width - leftPadding - s.length();
+      return "*" + " ".repeat(leftPadding) + s + " ".repeat(rightPadding) + "*";
+    }
+  }
+}
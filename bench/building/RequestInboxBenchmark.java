@@ -0,0 +1,120 @@
+package building;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * Measures how many requests scanner threads can push through the
+ * RequestInbox of a building while the simulation thread drains it.
+ * The number of producer threads is set with -t; bench/run.sh runs it with
+ * 1, 4, 16 and 64 producers.  The score counts every offer; the accepted and
+ * rejected counters split it into requests that went in and offers refused
+ * because the inbox was full.  A refused offer is not retried, a producer
+ * that spun on a full inbox could starve on a machine with fewer cores than
+ * threads and never finish its iteration.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestInboxBenchmark {
+
+  /**
+   * The inbox shared by every producer, and the consumer thread that drains it
+   * the way Building.step() does.
+   */
+  @State(Scope.Benchmark)
+  public static class Inbox {
+    RequestInbox inbox;
+    Thread consumer;
+    volatile boolean running;
+    final AtomicLong drained = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+      inbox = new RequestInbox(4096);
+      running = true;
+      consumer = new Thread(() -> {
+        long count = 0;
+        while (running) {
+          if (inbox.poll() == RequestInbox.EMPTY) {
+            Thread.onSpinWait();
+          } else {
+            count++;
+          }
+        }
+        drained.addAndGet(count);
+      }, "inbox-consumer");
+      consumer.setDaemon(true);
+      consumer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+      running = false;
+      consumer.join();
+    }
+  }
+
+  /**
+   * The floors a producer cycles through, and its counts of accepted and
+   * refused offers.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Producer {
+    int startFloor;
+    int endFloor;
+    public long accepted;
+    public long rejected;
+
+    @Setup(Level.Trial)
+    public void setUp(ThreadParams threads) {
+      startFloor = threads.getThreadIndex() % 30;
+      endFloor = (startFloor + 1) % 30;
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      accepted = 0;
+      rejected = 0;
+    }
+  }
+
+  /**
+   * Offers one request.
+   *
+   * @param inbox    the shared inbox
+   * @param producer the floors and counters of this producer
+   * @return true if the request was accepted, so the work is not eliminated.
+   */
+  @Benchmark
+  public boolean offer(Inbox inbox, Producer producer) {
+    boolean accepted = inbox.inbox.offer(producer.startFloor, producer.endFloor);
+    if (accepted) {
+      producer.accepted++;
+    } else {
+      producer.rejected++;
+    }
+    producer.endFloor = producer.endFloor == 29 ? 0 : producer.endFloor + 1;
+    if (producer.endFloor == producer.startFloor) {
+      producer.endFloor = producer.endFloor == 29 ? 0 : producer.endFloor + 1;
+    }
+    return accepted;
+  }
+}
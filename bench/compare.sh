@@ -0,0 +1,42 @@
+#!/bin/sh
+# Compares two JMH result files written with -rf csv, row by row.
+# Rows are matched on the benchmark, its secondary metric and its params,
+# and each score is printed with the baseline score and new/baseline.
+# Only the scores and gc.alloc.rate.norm are compared; the other gc
+# counters depend on the length of the run.
+# Usage: bench/compare.sh baseline.csv new.csv
+set -e
+if [ $# -ne 2 ]; then
+  echo "Usage: bench/compare.sh baseline.csv new.csv" >&2
+  exit 2
+fi
+awk -F, '
+  function key(   k, i) {
+    k = $1
+    for (i = 8; i <= NF; i++) {
+      k = k " " $i
+    }
+    return k
+  }
+  FNR == 1 {
+    if (NR != FNR) {
+      printf "%-70s %14s %14s %6s %s\n", "Benchmark and params", "Baseline", "New", "Ratio", "Unit"
+    }
+    next
+  }
+  { gsub(/"/, "") }
+  $1 ~ /:/ && $1 !~ /gc\.alloc\.rate\.norm$/ { next }
+  NR == FNR { base[key()] = $5; next }
+  {
+    k = key()
+    name = k
+    sub(/^[^.]*\./, "", name)
+    if (!(k in base)) {
+      printf "%-70s %14s %14.3f %6s %s\n", name, "-", $5, "new", $7
+    } else if (base[k] == 0) {
+      printf "%-70s %14.3f %14.3f %6s %s\n", name, 0, $5, $5 == 0 ? "1.00" : "-", $7
+    } else {
+      printf "%-70s %14.3f %14.3f %6.2f %s\n", name, base[k], $5, $5 / base[k], $7
+    }
+  }
+' "$1" "$2"
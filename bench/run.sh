@@ -0,0 +1,42 @@
+#!/bin/sh
+# Compiles the sources and the JMH benchmarks and runs them.
+# There is no build file, so the JMH jars are taken from $JMH_LIB:
+#   jmh-core, jmh-generator-annprocess, jopt-simple and commons-math3.
+# Usage: JMH_LIB=/path/to/jars bench/run.sh [benchmark regex] [extra JMH options]
+# BuildingBenchmark results are written to $OUT/BuildingBenchmark.csv and
+# compared with bench/baseline/BuildingBenchmark.csv; with UPDATE_BASELINE=1
+# they replace the baseline instead.
+set -e
+cd "$(dirname "$0")/.."
+: "${JMH_LIB:?set JMH_LIB to the directory holding the JMH jars}"
+CP=$(ls "$JMH_LIB"/*.jar | tr '\n' ':')
+OUT=${OUT:-/tmp/elevator-bench}
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -nowarn -cp "$CP" -d "$OUT" $(find src bench -name "*.java")
+PATTERN=${1:-.}
+[ $# -gt 0 ] && shift
+
+run() {
+  java -cp "$OUT:$CP" org.openjdk.jmh.Main "$@"
+}
+
+if [ "$PATTERN" = "." ] || echo "RequestInboxBenchmark" | grep -q "$PATTERN"; then
+  for threads in 1 4 16 64; do
+    run RequestInboxBenchmark -t "$threads" "$@"
+  done
+fi
+
+if [ "$PATTERN" = "." ] || echo "ReportRenderingBenchmark" | grep -q "$PATTERN"; then
+  run ReportRenderingBenchmark -prof gc "$@"
+fi
+
+if [ "$PATTERN" = "." ] || echo "BuildingBenchmark" | grep -q "$PATTERN"; then
+  run BuildingBenchmark -prof gc -rf csv -rff "$OUT/BuildingBenchmark.csv" "$@"
+  if [ "${UPDATE_BASELINE:-0}" = 1 ]; then
+    mkdir -p bench/baseline
+    cp "$OUT/BuildingBenchmark.csv" bench/baseline/BuildingBenchmark.csv
+  else
+    bench/compare.sh bench/baseline/BuildingBenchmark.csv "$OUT/BuildingBenchmark.csv"
+  fi
+fi
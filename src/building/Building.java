@@ -1,12 +1,21 @@
 package building;
 
+import building.enums.Direction;
+import building.enums.ElevatorEngine;
 import building.enums.ElevatorSystemStatus;
+import building.enums.MotionMode;
+import building.enums.RequestStatus;
+import building.enums.ScaleMode;
+import building.enums.StepPhase;
 import elevator.Elevator;
+import elevator.ElevatorFleet;
 import elevator.ElevatorInterface;
 import elevator.ElevatorReport;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import scanerzus.Request;
+import scanerzus.RequestBuffer;
 
 
 /**
@@ -20,10 +29,124 @@ public class Building implements BuildingInterface {
   private final int numberOfFloors;
   private final int numberOfElevators;
   private final int elevatorCapacity;
-  private ElevatorSystemStatus systemStatus;
-  private List<Request> upRequests;
-  private List<Request> downRequests;
-  private final Elevator[] elevators;
+  private final ScaleMode scale;
+  /**
+   * Volatile because scanner threads read it in submitRequest().
+   */
+  private volatile ElevatorSystemStatus systemStatus;
+  private final RequestQueue upRequests;
+  private final RequestQueue downRequests;
+  private final ElevatorInterface[] elevators;
+
+  /**
+   * The buffer the requests for one elevator are drained into, reused on every
+   * dispatch so distributing requests does not allocate.
+   */
+  private final RequestBuffer dispatchBuffer;
+
+  /**
+   * Decides which elevator takes each pending request.
+   */
+  private DispatchStrategy dispatchStrategy;
+
+  /**
+   * How many requests per waiting elevator a strategy is shown at once, as a
+   * multiple of the elevator capacity, so it has some choice of requests.
+   */
+  private static final int DISPATCH_WINDOW = 2;
+
+  /**
+   * Scratch space for distributeRequests(), reused on every dispatch:
+   * the elevators that can take requests, the requests shown to the
+   * strategy, the elevator chosen for each, and a list of the requests
+   * of each elevator threaded through nextAssigned.
+   */
+  private final ElevatorInterface[] dispatchCars;
+  private final RequestBuffer dispatchWindow;
+  private int[] assignment;
+  private int[] nextAssigned;
+  private final int[] firstAssigned;
+
+  /**
+   * The id given to the next request added as a Request object.
+   */
+  private long nextRequestId;
+
+  /**
+   * The largest number of up and down requests that can wait to be distributed.
+   */
+  private int maxPendingRequests = Integer.MAX_VALUE;
+
+  /**
+   * The number of requests that can wait in the inbox between two steps.
+   */
+  private static final int INBOX_CAPACITY = 4096;
+
+  /**
+   * Requests submitted by scanner threads, moved into the up and down
+   * queues at the start of each step.
+   */
+  private final RequestInbox inbox;
+
+  /**
+   * The fleet that holds the state of the elevators,
+   * or null when each elevator is its own Elevator object.
+   */
+  private final ElevatorFleet fleet;
+
+  /**
+   * The smallest number of elevators that is worth handing to a worker thread.
+   */
+  private static final int MIN_ELEVATORS_PER_TASK = 64;
+
+  /**
+   * The pool used to step the elevators in parallel, or null when the
+   * elevators are stepped serially on the calling thread.
+   */
+  private ForkJoinPool stepPool;
+  private int stepThreshold;
+
+  /**
+   * The number of steps the building has taken.
+   */
+  private long currentTick;
+
+  /**
+   * The latest snapshot of the building, published at the end of each tick
+   * while publishing is on.
+   * Volatile so a reader on another thread sees a whole snapshot without a lock.
+   */
+  private volatile BuildingReport snapshot;
+  private boolean publishingSnapshots;
+
+  /**
+   * Unmodifiable copies of the pending requests, shared by every report
+   * until the queue changes, and the modification count they were made at.
+   */
+  private List<Request> upRequestsCopy = List.of();
+  private List<Request> downRequestsCopy = List.of();
+  private int upRequestsCopyCount = -1;
+  private int downRequestsCopyCount = -1;
+
+  /**
+   * Receives the changes to the building each tick, and the encoder that
+   * writes them, or null when no one is listening.
+   */
+  private DeltaListener deltaListener;
+  private DeltaEncoder deltaEncoder;
+
+  /**
+   * Follows each passenger from arrival to drop-off and keeps the wait,
+   * ride and journey histograms.
+   */
+  private final JourneyTracker journeys;
+
+  /**
+   * The step timings and gauges for JMX, made when first asked for, and
+   * whether step() times its phases.
+   */
+  private BuildingMetrics metrics;
+  private boolean timingSteps;
 
   /**
    * The constructor for the building.
@@ -40,23 +163,97 @@ public class Building implements BuildingInterface {
    *                                  or elevatorCapacity is out of range
    */
   public Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity) {
-    if (numberOfFloors < 3 || numberOfFloors > 30) {
-      throw new IllegalArgumentException("numberOfFloors must be between 2 and 30");
+    this(numberOfFloors, numberOfElevators, elevatorCapacity, ElevatorEngine.object);
+  }
+
+  /**
+   * The constructor for the building with a choice of elevator engine.
+   * With ElevatorEngine.fleet the elevators are kept in one ElevatorFleet
+   * and stepped in a single loop; they behave exactly like Elevator objects.
+   *
+   * @param numberOfFloors    the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   * @param elevatorCapacity  the capacity of the elevators in the building.
+   * @param engine            how the state of the elevators is kept.
+   * @throws IllegalArgumentException if the numberOfFloors, numberOfElevators
+   *                                  or elevatorCapacity is out of range,
+   *                                  or if the engine is null
+   */
+  public Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity,
+                  ElevatorEngine engine) {
+    this(numberOfFloors, numberOfElevators, elevatorCapacity, engine, ScaleMode.standard);
+  }
+
+  /**
+   * The constructor for the building with a choice of elevator engine and size limits.
+   * ScaleMode.highScale allows up to 256 floors and an elevator capacity of
+   * up to 80.  The floor requests of each elevator are packed into words and
+   * reports copy those words rather than a value per floor, so the cost of a
+   * step does not grow with the number of floors.  With the fleet engine a
+   * 256-floor building with 1000 elevators is expected to step in under
+   * 50 microseconds on a single core (see the README).
+   *
+   * @param numberOfFloors    the number of floors in the building.
+   *                          must be greater than 2
+   *                          must be at most scale.getMaxFloors()
+   * @param numberOfElevators the number of elevators in the building.
+   *                          must be greater than 0
+   * @param elevatorCapacity  the capacity of the elevators in the building.
+   *                          must be greater than 3
+   *                          must be at most scale.getMaxCapacity()
+   * @param engine            how the state of the elevators is kept.
+   * @param scale             the size limits of the building.
+   * @throws IllegalArgumentException if the numberOfFloors, numberOfElevators
+   *                                  or elevatorCapacity is out of range,
+   *                                  or if the engine or scale is null
+   */
+  public Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity,
+                  ElevatorEngine engine, ScaleMode scale) {
+    if (engine == null) {
+      throw new IllegalArgumentException("engine cannot be null");
+    }
+    if (scale == null) {
+      throw new IllegalArgumentException("scale cannot be null");
+    }
+    if (numberOfFloors < 3 || numberOfFloors > scale.getMaxFloors()) {
+      throw new IllegalArgumentException("numberOfFloors must be between 2 and "
+          + scale.getMaxFloors());
     }
     if (numberOfElevators < 1) {
       throw new IllegalArgumentException("numberOfElevators must be greater than 0");
     }
-    if (elevatorCapacity < 4 || elevatorCapacity > 20) {
-      throw new IllegalArgumentException("elevatorCapacity must be between 3 and 20");
+    if (elevatorCapacity < 4 || elevatorCapacity > scale.getMaxCapacity()) {
+      throw new IllegalArgumentException("elevatorCapacity must be between 3 and "
+          + scale.getMaxCapacity());
     }
 
     this.numberOfFloors = numberOfFloors;
     this.numberOfElevators = numberOfElevators;
     this.elevatorCapacity = elevatorCapacity;
+    this.scale = scale;
     this.systemStatus = ElevatorSystemStatus.outOfService;
-    this.upRequests = new ArrayList<>();
-    this.downRequests = new ArrayList<>();
-    this.elevators = initializeElevators(numberOfElevators);
+    this.upRequests = new RequestQueue();
+    this.downRequests = new RequestQueue();
+    this.dispatchBuffer = new RequestBuffer(elevatorCapacity);
+    this.dispatchStrategy = new TerminalDispatch();
+    this.dispatchCars = new ElevatorInterface[numberOfElevators];
+    this.dispatchWindow = new RequestBuffer();
+    this.assignment = new int[0];
+    this.nextAssigned = new int[0];
+    this.firstAssigned = new int[numberOfElevators];
+    this.inbox = new RequestInbox(INBOX_CAPACITY);
+    this.journeys = new JourneyTracker(numberOfElevators, elevatorCapacity);
+    if (engine == ElevatorEngine.fleet) {
+      this.fleet = new ElevatorFleet(numberOfElevators, numberOfFloors, elevatorCapacity, scale);
+      this.elevators = new ElevatorInterface[numberOfElevators];
+      for (int i = 0; i < numberOfElevators; i++) {
+        this.elevators[i] = fleet.view(i);
+      }
+    } else {
+      this.fleet = null;
+      this.elevators = initializeElevators(numberOfElevators);
+    }
+    this.publish();
   }
 
   /**
@@ -65,39 +262,326 @@ public class Building implements BuildingInterface {
    * @param numberOfElevators the number of elevators in the building
    * @return an array of elevators
    */
-  private Elevator[] initializeElevators(int numberOfElevators) {
-    Elevator[] elevators = new Elevator[numberOfElevators];
+  private ElevatorInterface[] initializeElevators(int numberOfElevators) {
+    ElevatorInterface[] elevators = new ElevatorInterface[numberOfElevators];
     for (int i = 0; i < numberOfElevators; i++) {
-      elevators[i] = new Elevator(numberOfFloors, elevatorCapacity);
+      elevators[i] = new Elevator(numberOfFloors, elevatorCapacity, i, scale);
     }
     return elevators;
   }
 
+  /**
+   * Sets how many threads are used to step the elevators.
+   * With a parallelism of 1 the elevators are stepped serially on the
+   * calling thread, which is the default.  With a higher parallelism the
+   * elevators are split across a ForkJoinPool and step() returns once every
+   * elevator has been stepped, so each tick gives the same result as the
+   * serial path.
+   *
+   * @param parallelism the number of threads used to step the elevators.
+   *                    must be greater than 0
+   * @throws IllegalArgumentException if parallelism is less than 1
+   */
+  public void setStepParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be greater than 0");
+    }
+    if (stepPool != null) {
+      stepPool.shutdown();
+      stepPool = null;
+    }
+    if (parallelism > 1) {
+      stepPool = new ForkJoinPool(parallelism);
+      stepThreshold = Math.max(MIN_ELEVATORS_PER_TASK,
+          numberOfElevators / (parallelism * 4));
+    }
+  }
+
+  /**
+   * Returns the number of threads used to step the elevators.
+   *
+   * @return the step parallelism, 1 if the elevators are stepped serially.
+   */
+  public int getStepParallelism() {
+    return stepPool == null ? 1 : stepPool.getParallelism();
+  }
+
   @Override
   public boolean addRequest(Request request) throws IllegalArgumentException {
     if (request == null) {
       throw new IllegalArgumentException("Request cannot be null");
     }
 
-    if (request.getStartFloor() < 0
-        || request.getStartFloor() >= numberOfFloors
-        || request.getEndFloor() < 0
-        || request.getEndFloor() >= numberOfFloors
-        || request.getStartFloor() == request.getEndFloor()) {
+    RequestStatus status = this.tryAddRequest(request.getStartFloor(), request.getEndFloor());
+    if (status != RequestStatus.accepted) {
+      throw new IllegalArgumentException(rejectionMessage(status));
+    }
+    return true;
+  }
+
+  /**
+   * Adds a request to the building without throwing.
+   * This does the same checks as addRequest(), in the same order, but says
+   * what went wrong with a RequestStatus instead of an exception, and does
+   * not allocate.
+   *
+   * @param startFloor the start floor of the request.
+   * @param endFloor   the end floor of the request.
+   * @return RequestStatus.accepted if the request was added, otherwise
+   *         badFloor, sameFloor, notAccepting or queueFull.
+   */
+  public RequestStatus tryAddRequest(int startFloor, int endFloor) {
+    RequestStatus status = this.checkFloors(startFloor, endFloor);
+    if (status != RequestStatus.accepted) {
+      return status;
+    }
+    if (!this.isAcceptingRequests()) {
+      return RequestStatus.notAccepting;
+    }
+    if (this.isQueueFull()) {
+      return RequestStatus.queueFull;
+    }
+    this.enqueue(startFloor, endFloor, currentTick, nextRequestId++);
+    return RequestStatus.accepted;
+  }
+
+  /**
+   * Returns the message addRequest() throws for a rejected request.
+   *
+   * @param status why the request was rejected.
+   * @return the message.
+   */
+  static String rejectionMessage(RequestStatus status) {
+    switch (status) {
+      case notAccepting:
+        return "Building is not accepting requests";
+      case queueFull:
+        return "Building has too many pending requests";
+      case nullRequest:
+        return "Request cannot be null";
+      default:
+        return "Illegal request";
+    }
+  }
+
+  /**
+   * Sets the largest number of requests that can wait to be distributed.
+   * Once that many up and down requests are waiting, tryAddRequest() returns
+   * RequestStatus.queueFull, addRequest() throws, and submitted requests stay
+   * in the inbox until there is room.  By default there is no limit.
+   *
+   * @param maxPendingRequests the largest number of pending requests.
+   *                           must be greater than 0
+   * @throws IllegalArgumentException if maxPendingRequests is less than 1
+   */
+  public void setMaxPendingRequests(int maxPendingRequests) {
+    if (maxPendingRequests < 1) {
+      throw new IllegalArgumentException("maxPendingRequests must be greater than 0");
+    }
+    this.maxPendingRequests = maxPendingRequests;
+  }
+
+  /**
+   * Returns the largest number of requests that can wait to be distributed.
+   *
+   * @return the limit, Integer.MAX_VALUE if there is none.
+   */
+  public int getMaxPendingRequests() {
+    return maxPendingRequests;
+  }
+
+  private boolean isQueueFull() {
+    return upRequests.size() + downRequests.size() >= maxPendingRequests;
+  }
+
+  /**
+   * Adds a batch of requests to the building.
+   * The status of the building is checked once and each request is checked
+   * as it is added; an illegal request is skipped and recorded in the result
+   * rather than throwing, so one bad entry does not stop the rest of the batch.
+   * If the building is not accepting requests, none are added.
+   *
+   * @param requests The requests to be added, in order.
+   * @return the number of requests added and the reason for each one that was not.
+   * @throws IllegalArgumentException if the collection itself is null.
+   */
+  public RequestBatchResult addRequests(Collection<Request> requests)
+      throws IllegalArgumentException {
+    if (requests == null) {
+      throw new IllegalArgumentException("Requests cannot be null");
+    }
+    if (!this.isAcceptingRequests()) {
+      return RequestBatchResult.allRejected(requests.size(), RequestStatus.notAccepting);
+    }
+    RequestBatchResult result = RequestBatchResult.forBatch(requests.size());
+    int index = 0;
+    for (Request request : requests) {
+      this.addToBatch(result, index++, request);
+    }
+    return result;
+  }
+
+  /**
+   * Adds a batch of requests to the building, the same as addRequests(Collection).
+   *
+   * @param requests The requests to be added, in order.
+   * @return the number of requests added and the reason for each one that was not.
+   * @throws IllegalArgumentException if the array itself is null.
+   */
+  public RequestBatchResult addRequests(Request[] requests) throws IllegalArgumentException {
+    if (requests == null) {
+      throw new IllegalArgumentException("Requests cannot be null");
+    }
+    if (!this.isAcceptingRequests()) {
+      return RequestBatchResult.allRejected(requests.length, RequestStatus.notAccepting);
+    }
+    RequestBatchResult result = RequestBatchResult.forBatch(requests.length);
+    for (int i = 0; i < requests.length; i++) {
+      this.addToBatch(result, i, requests[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Adds every request in a buffer to the building, keeping the arrival tick
+   * and id of each request as they are in the buffer.
+   * Like addRequests(Collection), illegal requests are skipped and recorded
+   * in the result.  The buffer is not kept, so it can be cleared and reused
+   * straight away.
+   *
+   * @param requests The requests to be added.
+   * @return the number of requests added and the reason for each one that was not.
+   * @throws IllegalArgumentException if the buffer itself is null.
+   */
+  @Override
+  public RequestBatchResult addRequests(RequestBuffer requests) throws IllegalArgumentException {
+    if (requests == null) {
+      throw new IllegalArgumentException("Requests cannot be null");
+    }
+    if (!this.isAcceptingRequests()) {
+      return RequestBatchResult.allRejected(requests.size(), RequestStatus.notAccepting);
+    }
+    RequestBatchResult result = RequestBatchResult.forBatch(requests.size());
+    for (int i = 0; i < requests.size(); i++) {
+      int startFloor = requests.getStartFloor(i);
+      int endFloor = requests.getEndFloor(i);
+      RequestStatus status = this.checkFloors(startFloor, endFloor);
+      if (status == RequestStatus.accepted && this.isQueueFull()) {
+        status = RequestStatus.queueFull;
+      }
+      if (status == RequestStatus.accepted) {
+        this.enqueue(startFloor, endFloor, requests.getArrivalTick(i), requests.getId(i));
+        result.accept();
+      } else {
+        result.reject(i, status);
+      }
+    }
+    return result;
+  }
+
+  private void addToBatch(RequestBatchResult result, int index, Request request) {
+    if (request == null) {
+      result.reject(index, RequestStatus.nullRequest);
+      return;
+    }
+    RequestStatus status = this.checkFloors(request.getStartFloor(), request.getEndFloor());
+    if (status == RequestStatus.accepted && this.isQueueFull()) {
+      status = RequestStatus.queueFull;
+    }
+    if (status == RequestStatus.accepted) {
+      this.enqueue(request.getStartFloor(), request.getEndFloor(), currentTick, nextRequestId++);
+      result.accept();
+    } else {
+      result.reject(index, status);
+    }
+  }
+
+  /**
+   * Submits a request from any thread.
+   * Unlike addRequest(), which must be called from the thread that steps the
+   * building, any number of scanner threads can call this at the same time.
+   * The request goes into a lock-free inbox and is added to the up or down
+   * requests at the start of the next step(), before the requests are
+   * distributed.  Until then it does not show in getElevatorSystemStatus().
+   * A request still in the inbox when the system stops is dropped.
+   *
+   * @param startFloor the start floor of the request.
+   * @param endFloor   the end floor of the request.
+   * @return true if the request was submitted, false if the inbox is full.
+   * @throws IllegalArgumentException if the request is illegal or the building
+   *                                  is not accepting requests.
+   */
+  public boolean submitRequest(int startFloor, int endFloor) throws IllegalArgumentException {
+    if (!this.isLegalRequest(startFloor, endFloor)) {
       throw new IllegalArgumentException("Illegal request");
     }
+    this.checkAcceptingRequests();
+    return inbox.offer(startFloor, endFloor);
+  }
 
-    if (systemStatus == ElevatorSystemStatus.stopping
-        || systemStatus == ElevatorSystemStatus.outOfService) {
+  /**
+   * Moves the submitted requests from the inbox to the up and down requests,
+   * leaving them in the inbox once the pending requests reach the limit.
+   */
+  private void drainInbox() {
+    long entry;
+    while (!this.isQueueFull() && (entry = inbox.poll()) != RequestInbox.EMPTY) {
+      this.enqueue(RequestInbox.startFloor(entry), RequestInbox.endFloor(entry),
+          currentTick, nextRequestId++);
+    }
+  }
+
+  /**
+   * Drops the submitted requests that are still in the inbox.
+   */
+  private void discardInbox() {
+    while (inbox.poll() != RequestInbox.EMPTY) {
+      // dropped, the building is not accepting requests
+    }
+  }
+
+  private boolean isLegalRequest(int startFloor, int endFloor) {
+    return this.checkFloors(startFloor, endFloor) == RequestStatus.accepted;
+  }
+
+  /**
+   * Checks the floors of a request.
+   *
+   * @param startFloor the start floor of the request.
+   * @param endFloor   the end floor of the request.
+   * @return RequestStatus.accepted if the floors are legal, otherwise
+   *         RequestStatus.badFloor or RequestStatus.sameFloor.
+   */
+  private RequestStatus checkFloors(int startFloor, int endFloor) {
+    if (startFloor < 0 || startFloor >= numberOfFloors
+        || endFloor < 0 || endFloor >= numberOfFloors) {
+      return RequestStatus.badFloor;
+    }
+    if (startFloor == endFloor) {
+      return RequestStatus.sameFloor;
+    }
+    return RequestStatus.accepted;
+  }
+
+  private boolean isAcceptingRequests() {
+    return systemStatus == ElevatorSystemStatus.running;
+  }
+
+  private void checkAcceptingRequests() throws IllegalArgumentException {
+    if (!this.isAcceptingRequests()) {
       throw new IllegalArgumentException("Building is not accepting requests");
     }
+  }
 
-    if (request.getStartFloor() < request.getEndFloor()) {
-      upRequests.add(request);
+  private void enqueue(int startFloor, int endFloor, long arrivalTick, long id) {
+    if (startFloor < endFloor) {
+      upRequests.add(startFloor, endFloor, arrivalTick, id);
     } else {
-      downRequests.add(request);
+      downRequests.add(startFloor, endFloor, arrivalTick, id);
+    }
+    if (deltaEncoder != null) {
+      deltaEncoder.requestAdded(startFloor, endFloor, id);
     }
-    return true;
   }
 
   /*
@@ -147,30 +631,224 @@ public class Building implements BuildingInterface {
   @Override
   public void distributeRequests() {
     if (!this.upRequests.isEmpty() || !this.downRequests.isEmpty()) {
-      for (Elevator elevator : elevators) {
-        if (elevator.isTakingRequests()) {
-          List requestsToProcess;
-          if (elevator.getCurrentFloor() == 0) {
-            requestsToProcess = this.getRequests(this.upRequests);
-            elevator.processRequests(requestsToProcess);
-          } else if (elevator.getCurrentFloor() == this.numberOfFloors - 1) {
-            requestsToProcess = this.getRequests(this.downRequests);
-            elevator.processRequests(requestsToProcess);
-          }
+      this.dispatch(Direction.UP, this.upRequests, 0);
+      this.dispatch(Direction.DOWN, this.downRequests, this.numberOfFloors - 1);
+    }
+  }
+
+  /**
+   * Hands the pending requests going one way to the elevators that can take
+   * them, as chosen by the dispatch strategy.  An elevator waiting at the
+   * terminal floor takes its requests with processRequests(); an elevator
+   * already on a run that way takes them one at a time with assignRequest().
+   * Requests the strategy does not assign, or that an elevator on a run
+   * turns down, go back to the front of the queue in their original order.
+   *
+   * @param direction the way the requests go
+   * @param requests  the pending requests going that way
+   * @param terminal  the floor an elevator waits at to take these requests
+   * @throws IllegalStateException if the strategy assigns a request to an
+   *                               elevator that does not exist or that is full.
+   */
+  private void dispatch(Direction direction, RequestQueue requests, int terminal) {
+    if (requests.isEmpty()) {
+      return;
+    }
+    int carCount = 0;
+    for (ElevatorInterface elevator : elevators) {
+      if (elevator.isTakingRequests()
+          ? elevator.getCurrentFloor() == terminal
+          : elevator.getDirection() == direction
+          && elevator.getAssignedRequestCount() < elevatorCapacity) {
+        dispatchCars[carCount++] = elevator;
+      }
+    }
+    if (carCount == 0) {
+      return;
+    }
+
+    dispatchWindow.clear();
+    long window = (long) carCount * elevatorCapacity * DISPATCH_WINDOW;
+    requests.drainTo(dispatchWindow, (int) Math.min(window, requests.size()));
+    int size = dispatchWindow.size();
+    if (assignment.length < size) {
+      assignment = new int[size];
+      nextAssigned = new int[size];
+    }
+    for (int i = 0; i < size; i++) {
+      assignment[i] = -1;
+    }
+    dispatchStrategy.assign(direction, dispatchWindow, dispatchCars, carCount,
+        elevatorCapacity, currentTick, assignment);
+
+    // thread each elevator's requests into a list, oldest first.
+    for (int car = 0; car < carCount; car++) {
+      firstAssigned[car] = -1;
+    }
+    for (int i = size - 1; i >= 0; i--) {
+      int car = assignment[i];
+      if (car < -1 || car >= carCount) {
+        throw new IllegalStateException("Dispatch strategy chose elevator " + car
+            + " of " + carCount);
+      } else if (car != -1) {
+        nextAssigned[i] = firstAssigned[car];
+        firstAssigned[car] = i;
+      }
+    }
+    for (int car = 0; car < carCount; car++) {
+      if (firstAssigned[car] != -1) {
+        this.handOver(dispatchCars[car], firstAssigned[car]);
+      }
+    }
+
+    // put the requests that were not taken back, newest first so the order is kept.
+    for (int i = size - 1; i >= 0; i--) {
+      if (assignment[i] == -1) {
+        requests.addFirst(dispatchWindow.getStartFloor(i), dispatchWindow.getEndFloor(i),
+            dispatchWindow.getArrivalTick(i), dispatchWindow.getId(i));
+      }
+    }
+    if (deltaEncoder != null) {
+      for (int i = 0; i < size; i++) {
+        if (assignment[i] != -1) {
+          deltaEncoder.requestRemoved(dispatchWindow.getStartFloor(i),
+              dispatchWindow.getEndFloor(i), dispatchCars[assignment[i]].getElevatorId(),
+              dispatchWindow.getId(i));
         }
       }
+    }
+  }
+
+  /**
+   * Gives an elevator the requests of the dispatch window threaded from first.
+   * A request an elevator on a run turns down is marked unassigned again.
+   *
+   * @param elevator the elevator chosen by the strategy
+   * @param first    the index in the window of its oldest request
+   * @throws IllegalStateException if the requests do not fit in the elevator.
+   */
+  private void handOver(ElevatorInterface elevator, int first) {
+    int room = elevatorCapacity - elevator.getAssignedRequestCount();
+    dispatchBuffer.clear();
+    for (int i = first; i != -1; i = nextAssigned[i]) {
+      dispatchBuffer.add(dispatchWindow.getStartFloor(i), dispatchWindow.getEndFloor(i),
+          dispatchWindow.getArrivalTick(i), dispatchWindow.getId(i));
+    }
+    if (dispatchBuffer.size() > room) {
+      throw new IllegalStateException("Dispatch strategy gave an elevator "
+          + dispatchBuffer.size() + " requests");
+    }
+    int car = elevator.getElevatorId();
+    if (elevator.isTakingRequests()) {
+      elevator.processRequests(dispatchBuffer);
+      journeys.clear(car);
+      for (int i = 0; i < dispatchBuffer.size(); i++) {
+        journeys.assigned(car, dispatchBuffer.getStartFloor(i), dispatchBuffer.getEndFloor(i),
+            dispatchBuffer.getArrivalTick(i));
+      }
+      return;
+    }
+    for (int i = first; i != -1; i = nextAssigned[i]) {
+      int startFloor = dispatchWindow.getStartFloor(i);
+      boolean boardsNow = !elevator.isDoorClosed() && elevator.getCurrentFloor() == startFloor;
+      if (!elevator.assignRequest(startFloor, dispatchWindow.getEndFloor(i))) {
+        assignment[i] = -1;
+        continue;
+      }
+      journeys.assigned(car, startFloor, dispatchWindow.getEndFloor(i),
+          dispatchWindow.getArrivalTick(i));
+      if (boardsNow) {
+        journeys.boardedLast(car, currentTick);
+      }
+    }
+  }
+
+  /**
+   * Lets the journey tracker know if an elevator opened its door at a stop
+   * on the step just taken.
+   *
+   * @param car the index of the elevator
+   */
+  void trackStop(int car) {
+    ElevatorInterface elevator = elevators[car];
+    if (!elevator.isDoorClosed() && !elevator.isOutOfService()
+        && elevator.getDoorOpenTimer() == elevator.getDoorOpenTime()) {
+      journeys.stopped(car, elevator.getCurrentFloor(), elevator.getMaxOccupancy(),
+          currentTick);
+    }
+  }
+
+  /**
+   * Sets how pending requests are handed to the elevators.
+   * The default is TerminalDispatch, the original behaviour.
+   *
+   * @param strategy the dispatch strategy.
+   * @throws IllegalArgumentException if the strategy is null
+   */
+  public void setDispatchStrategy(DispatchStrategy strategy) {
+    if (strategy == null) {
+      throw new IllegalArgumentException("strategy cannot be null");
+    }
+    this.dispatchStrategy = strategy;
+  }
+
+  /**
+   * Returns how pending requests are handed to the elevators.
+   *
+   * @return the dispatch strategy.
+   */
+  public DispatchStrategy getDispatchStrategy() {
+    return dispatchStrategy;
+  }
 
+  /**
+   * Sets how every elevator sweeps the building.
+   *
+   * @param mode the motion mode.
+   * @throws IllegalArgumentException if mode is null
+   */
+  public void setMotionMode(MotionMode mode) throws IllegalArgumentException {
+    for (int i = 0; i < numberOfElevators; i++) {
+      this.setMotionMode(i, mode);
     }
   }
 
-  private List<Request> getRequests(List<Request> requests) {
-    List<Request> requestsToReturn = new ArrayList();
+  /**
+   * Sets how one elevator sweeps the building.
+   *
+   * @param elevator the id of the elevator, 0 to numberOfElevators - 1
+   * @param mode     the motion mode.
+   * @throws IllegalArgumentException if the elevator does not exist or mode is null
+   */
+  public void setMotionMode(int elevator, MotionMode mode) throws IllegalArgumentException {
+    if (elevator < 0 || elevator >= numberOfElevators) {
+      throw new IllegalArgumentException("elevator must be between 0 and "
+          + (numberOfElevators - 1));
+    }
+    elevators[elevator].setMotionMode(mode);
+  }
 
-    while (!requests.isEmpty() && requestsToReturn.size() < this.elevatorCapacity) {
-      requestsToReturn.add(requests.remove(0));
+  /**
+   * Returns how one elevator sweeps the building.
+   *
+   * @param elevator the id of the elevator, 0 to numberOfElevators - 1
+   * @return the motion mode of the elevator.
+   * @throws IllegalArgumentException if the elevator does not exist
+   */
+  public MotionMode getMotionMode(int elevator) throws IllegalArgumentException {
+    if (elevator < 0 || elevator >= numberOfElevators) {
+      throw new IllegalArgumentException("elevator must be between 0 and "
+          + (numberOfElevators - 1));
     }
+    return elevators[elevator].getMotionMode();
+  }
 
-    return requestsToReturn;
+  @Override
+  public RequestBatchResult distributeRequests(RequestBuffer requests)
+      throws IllegalArgumentException {
+    RequestBatchResult result = this.addRequests(requests);
+    this.distributeRequests();
+    return result;
   }
 
   @Override
@@ -179,10 +857,13 @@ public class Building implements BuildingInterface {
       throw new IllegalArgumentException("Building is stopping");
     }
     if (systemStatus == ElevatorSystemStatus.outOfService) {
+      this.discardInbox();
       systemStatus = ElevatorSystemStatus.running;
       for (ElevatorInterface elevator : elevators) {
         elevator.start();
       }
+      journeys.clearAll();
+      this.publish();
       return true;
     }
     return false;
@@ -194,25 +875,34 @@ public class Building implements BuildingInterface {
       systemStatus = ElevatorSystemStatus.stopping;
       this.upRequests.clear();
       this.downRequests.clear();
+      if (deltaEncoder != null) {
+        deltaEncoder.queueCleared(Direction.UP);
+        deltaEncoder.queueCleared(Direction.DOWN);
+      }
+      this.discardInbox();
       for (ElevatorInterface elevator : elevators) {
         elevator.takeOutOfService();
       }
+      journeys.clearAll();
+      this.publish();
     }
   }
 
   @Override
   public void step() {
+    long started = timingSteps ? System.nanoTime() : 0;
+    long lap = started;
     if (systemStatus == ElevatorSystemStatus.running) {
+      this.drainInbox();
+      lap = this.lap(StepPhase.ingest, lap);
       this.distributeRequests();
-      for (ElevatorInterface elevator : elevators) {
-        elevator.step();
-      }
+      lap = this.lap(StepPhase.dispatch, lap);
+      this.stepElevators();
+      lap = this.lap(StepPhase.move, lap);
     }
 
     if (systemStatus == ElevatorSystemStatus.stopping) {
-      for (ElevatorInterface elevator : elevators) {
-        elevator.step();
-      }
+      this.stepElevators();
       boolean allStopped = true;
       for (ElevatorInterface elevator : elevators) {
         if (elevator.getCurrentFloor() != 0) {
@@ -222,7 +912,311 @@ public class Building implements BuildingInterface {
       if (allStopped) {
         systemStatus = ElevatorSystemStatus.outOfService;
       }
+      lap = this.lap(StepPhase.move, lap);
+      this.discardInbox();
+      lap = this.lap(StepPhase.ingest, lap);
+    }
+    currentTick++;
+    this.publish();
+    if (timingSteps) {
+      metrics.recordStep(this.lap(StepPhase.publish, lap) - started);
+    }
+  }
+
+  /**
+   * Records the time of a phase of step() while steps are timed.
+   *
+   * @param phase the phase that just ended
+   * @param since the time the phase started, from System.nanoTime()
+   * @return the time now, which the next phase starts at.
+   */
+  private long lap(StepPhase phase, long since) {
+    if (!timingSteps) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    metrics.record(phase, now - since);
+    return now;
+  }
+
+  /**
+   * Moves the elevators by a number of steps.
+   * The building is only stepped tick by tick while requests are waiting to
+   * be distributed or while the system is stopping.  The rest of the time no
+   * request can reach an elevator, so each elevator follows a fixed path:
+   * stretches of travel and waiting are applied in one skipTicks() call, and
+   * once every elevator is idle whole round trips of getIdlePeriod() steps
+   * are skipped at once.
+   *
+   * @param ticks the number of steps, must not be negative.
+   * @throws IllegalArgumentException if ticks is negative.
+   */
+  @Override
+  public void advance(long ticks) throws IllegalArgumentException {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("ticks must not be negative");
+    }
+    long remaining = ticks;
+    while (remaining > 0) {
+      if (systemStatus == ElevatorSystemStatus.outOfService) {
+        currentTick += remaining;
+        break;
+      }
+      if (systemStatus == ElevatorSystemStatus.running && !this.hasPendingRequests()
+          && this.allElevatorsIdle()) {
+        long wholePeriods = remaining - remaining % elevators[0].getIdlePeriod();
+        currentTick += wholePeriods;
+        remaining -= wholePeriods;
+        if (remaining == 0) {
+          break;
+        }
+      }
+      remaining -= this.advanceToNextEvent(remaining);
+    }
+    this.publish();
+  }
+
+  @Override
+  public long advanceUntilIdle() {
+    long start = currentTick;
+    while (systemStatus == ElevatorSystemStatus.stopping
+        || (systemStatus == ElevatorSystemStatus.running
+        && (this.hasPendingRequests() || !this.allElevatorsIdle()))) {
+      this.advanceToNextEvent(Long.MAX_VALUE);
+    }
+    this.publish();
+    return currentTick - start;
+  }
+
+  /**
+   * Returns the number of passengers the elevators have taken to their floor.
+   *
+   * @return the number of passengers delivered.
+   */
+  public long getDeliveredCount() {
+    long total = 0;
+    for (ElevatorInterface elevator : elevators) {
+      total += elevator.getDeliveredCount();
+    }
+    return total;
+  }
+
+  /**
+   * Returns the histogram of the ticks passengers wait, from their request
+   * arriving to their elevator opening its door at their floor.  The
+   * histogram is live: it keeps counting as the building runs.
+   *
+   * @return the wait histogram.
+   */
+  public LatencyHistogram getWaitTimes() {
+    return journeys.waitTimes;
+  }
+
+  /**
+   * Returns the histogram of the ticks passengers ride, from their
+   * elevator opening its door at their start floor to it opening its door
+   * at their end floor.
+   *
+   * @return the ride histogram.
+   */
+  public LatencyHistogram getRideTimes() {
+    return journeys.rideTimes;
+  }
+
+  /**
+   * Returns the histogram of the ticks of whole journeys, from the request
+   * arriving to the passenger getting off: the wait plus the ride.
+   *
+   * @return the journey histogram.
+   */
+  public LatencyHistogram getJourneyTimes() {
+    return journeys.journeyTimes;
+  }
+
+  /**
+   * Returns the metrics of the building: the step timings, the queue depths
+   * and the elevator states, ready to register with JMX.  The metrics are
+   * made the first time they are asked for.
+   *
+   * @return the metrics.
+   */
+  public BuildingMetrics getMetrics() {
+    if (metrics == null) {
+      metrics = new BuildingMetrics(this);
+    }
+    return metrics;
+  }
+
+  /**
+   * Sets whether step() times its phases into the metrics.
+   * Timing is off by default: it reads the clock five times a step, which
+   * is nothing next to a large building but a good part of a small one.
+   * The queue depths and elevator states of the metrics are live either way.
+   *
+   * @param timing true to time every step.
+   */
+  public void setStepTiming(boolean timing) {
+    this.getMetrics();
+    this.timingSteps = timing;
+  }
+
+  /**
+   * Returns the number of up requests waiting to be distributed, without
+   * making a report.
+   *
+   * @return the depth of the up queue.
+   */
+  public int getUpRequestCount() {
+    return upRequests.size();
+  }
+
+  /**
+   * Returns the number of down requests waiting to be distributed, without
+   * making a report.
+   *
+   * @return the depth of the down queue.
+   */
+  public int getDownRequestCount() {
+    return downRequests.size();
+  }
+
+  /**
+   * Returns the number of steps the building has taken, counting the steps
+   * taken through advance().
+   *
+   * @return the current tick of the building.
+   */
+  public long getCurrentTick() {
+    return currentTick;
+  }
+
+  /**
+   * Sets the current tick, for EventDrivenSimulation which moves the
+   * elevators without calling step().
+   *
+   * @param tick the current tick of the building.
+   */
+  void setCurrentTick(long tick) {
+    currentTick = tick;
+  }
+
+  /**
+   * Moves the elevators up to their next event, at most limit steps.
+   * If requests are waiting or the system is stopping the building is
+   * stepped once.
+   *
+   * @param limit the largest number of steps to take, greater than 0.
+   * @return the number of steps taken.
+   */
+  private long advanceToNextEvent(long limit) {
+    if (systemStatus != ElevatorSystemStatus.running || this.hasPendingRequests()) {
+      this.step();
+      return 1;
+    }
+    int quiet = Integer.MAX_VALUE;
+    for (ElevatorInterface elevator : elevators) {
+      quiet = Math.min(quiet, elevator.ticksUntilNextEvent());
+    }
+    if (quiet == 0) {
+      this.step();
+      return 1;
+    }
+    int ticks = (int) Math.min(quiet, limit);
+    for (ElevatorInterface elevator : elevators) {
+      elevator.skipTicks(ticks);
+    }
+    currentTick += ticks;
+    return ticks;
+  }
+
+  /**
+   * Are all the elevators idle: no stops left and the door closed.
+   *
+   * @return true if every elevator is idle.
+   */
+  private boolean allElevatorsIdle() {
+    for (ElevatorInterface elevator : elevators) {
+      if (!elevator.isDoorClosed() || !elevator.getFloorRequestSet().isEmpty()) {
+        return false;
+      }
     }
+    return true;
+  }
+
+  /**
+   * Steps every elevator once, either serially or on the step pool, and
+   * lets the journey tracker know about each elevator that stopped.
+   */
+  private void stepElevators() {
+    boolean tracking = !journeys.isEmpty();
+    if (stepPool == null || numberOfElevators <= stepThreshold) {
+      if (fleet != null) {
+        fleet.stepAll();
+      } else {
+        // each elevator is checked for a stop while it is still in the cache.
+        for (int car = 0; car < numberOfElevators; car++) {
+          elevators[car].step();
+          if (tracking) {
+            this.trackStop(car);
+          }
+        }
+        return;
+      }
+    } else {
+      stepPool.invoke(new ElevatorStepTask(elevators, fleet, 0, numberOfElevators, stepThreshold));
+    }
+    if (tracking) {
+      for (int car = 0; car < numberOfElevators; car++) {
+        this.trackStop(car);
+      }
+    }
+  }
+
+  /**
+   * Returns the size limits of the building.
+   *
+   * @return the scale mode of the building.
+   */
+  public ScaleMode getScaleMode() {
+    return scale;
+  }
+
+  /**
+   * Returns how the state of the elevators is kept.
+   *
+   * @return the elevator engine of the building.
+   */
+  public ElevatorEngine getElevatorEngine() {
+    return fleet == null ? ElevatorEngine.object : ElevatorEngine.fleet;
+  }
+
+  /**
+   * Returns the elevators of the building, for the simulation engines
+   * in this package.
+   *
+   * @return the elevators of the building.
+   */
+  ElevatorInterface[] getElevators() {
+    return elevators;
+  }
+
+  /**
+   * Returns the status of the elevator system without building a report.
+   *
+   * @return the status of the elevator system.
+   */
+  ElevatorSystemStatus getSystemStatus() {
+    return systemStatus;
+  }
+
+  /**
+   * Is there any request waiting to be distributed.
+   *
+   * @return true if there are pending up or down requests, or submitted
+   *         requests that have not been added yet.
+   */
+  boolean hasPendingRequests() {
+    return !upRequests.isEmpty() || !downRequests.isEmpty() || !inbox.isEmpty();
   }
 
   @Override
@@ -232,8 +1226,84 @@ public class Building implements BuildingInterface {
       elevatorReports[i] = elevators[i].getElevatorStatus();
     }
 
-    return new BuildingReport(numberOfFloors, numberOfElevators,
-        elevatorCapacity, elevatorReports, upRequests, downRequests, systemStatus);
+    if (upRequestsCopyCount != upRequests.modificationCount()) {
+      upRequestsCopy = List.copyOf(upRequests);
+      upRequestsCopyCount = upRequests.modificationCount();
+    }
+    if (downRequestsCopyCount != downRequests.modificationCount()) {
+      downRequestsCopy = List.copyOf(downRequests);
+      downRequestsCopyCount = downRequests.modificationCount();
+    }
+    return new BuildingReport(numberOfFloors, numberOfElevators, elevatorCapacity,
+        elevatorReports, upRequestsCopy, downRequestsCopy, systemStatus, currentTick);
+  }
+
+  /**
+   * Returns the snapshot of the building published at the end of the last tick,
+   * or when the building was made if publishing has never been turned on.
+   * The snapshot is immutable and is swapped in whole, so any thread can read
+   * it without a lock while the building steps; reading it does not copy.
+   * Requests added since the last tick are not in it yet.
+   * The version of the snapshot is the tick it describes.
+   *
+   * @return the latest snapshot of the building.
+   */
+  public BuildingReport getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Sets whether a snapshot is published at the end of each tick.
+   * Publishing is off by default: a report of every elevator is made each
+   * tick, which costs about as much as the step itself in a large building.
+   * A view that reads snapshots turns it on.
+   * Turning it back on publishes a snapshot straight away.
+   *
+   * @param publishing true to publish a snapshot every tick.
+   */
+  public void setSnapshotPublishing(boolean publishing) {
+    this.publishingSnapshots = publishing;
+    if (publishing) {
+      snapshot = this.getElevatorSystemStatus();
+    }
+  }
+
+  /**
+   * Sets the listener that receives the changes to the building each tick,
+   * as fixed-size records described in DeltaRecords.  The listener is called
+   * straight away with a delta that describes every elevator and every
+   * request already waiting, then at the end of every tick with what
+   * changed since.
+   *
+   * @param listener the listener, or null to stop sending deltas.
+   */
+  public void setDeltaListener(DeltaListener listener) {
+    this.deltaListener = listener;
+    this.deltaEncoder = listener == null ? null
+        : new DeltaEncoder(numberOfElevators, numberOfFloors);
+    if (listener != null) {
+      for (RequestQueue queue : new RequestQueue[] {upRequests, downRequests}) {
+        for (int i = 0; i < queue.size(); i++) {
+          deltaEncoder.requestAdded(queue.getStartFloor(i), queue.getEndFloor(i),
+              queue.getId(i));
+        }
+      }
+      deltaEncoder.emit(currentTick, elevators, listener);
+    }
+  }
+
+  /**
+   * Publishes the building as it is now: a snapshot if publishing is on,
+   * and a delta if there is a listener.
+   * The request lists of the last snapshot are reused unless a queue changed.
+   */
+  private void publish() {
+    if (publishingSnapshots || snapshot == null) {
+      snapshot = this.getElevatorSystemStatus();
+    }
+    if (deltaEncoder != null) {
+      deltaEncoder.emit(currentTick, elevators, deltaListener);
+    }
   }
 }
 
@@ -1,6 +1,6 @@
 package building;
 
-import scanerzus.Request;
+import building.enums.RequestStatus;
 
 /**
  * Implementation of the controller component in the MVC architecture of
@@ -20,6 +20,7 @@ public class BuildingController implements BuildingControllerInterface {
   public BuildingController(BuildingViewInterface view, Building model) {
     this.view = view;
     this.model = model;
+    model.setSnapshotPublishing(true);
     view.addFeatures(this);
   }
 
@@ -43,18 +44,16 @@ public class BuildingController implements BuildingControllerInterface {
   @Override
   public void stepElevatorSystem() {
     model.step();
-    view.showBuildingStatus(model.getElevatorSystemStatus());
+    view.showBuildingStatus(model.getSnapshot());
   }
 
   @Override
   public void makeRequest(int startFloor, int endFloor) {
-    try {
-      model.addRequest(new Request(startFloor, endFloor));
-      view.showBuildingStatus(model.getElevatorSystemStatus());
-    } catch (IllegalArgumentException e) {
-      view.showErrorMessage(e.getMessage());
-      view.showBuildingStatus(model.getElevatorSystemStatus());
+    RequestStatus status = model.tryAddRequest(startFloor, endFloor);
+    if (status != RequestStatus.accepted) {
+      view.showErrorMessage(Building.rejectionMessage(status));
     }
+    view.showBuildingStatus(model.getElevatorSystemStatus());
   }
 
   @Override
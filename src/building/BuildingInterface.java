@@ -1,6 +1,7 @@
 package building;
 
 import scanerzus.Request;
+import scanerzus.RequestBuffer;
 
 /**
  * This interface is used to represent a building.
@@ -10,6 +11,7 @@ import scanerzus.Request;
  * The building can stop the elevator system.
  * The building can take an elevator out of service.
  * The building can move the elevators by one step.
+ * The building can move the elevators by many steps at once.
  * The building can return a BuildingReport object.
  */
 public interface BuildingInterface {
@@ -24,11 +26,32 @@ public interface BuildingInterface {
    */
   boolean addRequest(Request request) throws IllegalArgumentException;
 
+  /**
+   * Adds every request in a buffer to the building.
+   * Illegal requests are skipped rather than throwing, and the result says
+   * which ones they were and why.  The buffer is not kept, so it can be
+   * cleared and reused straight away.
+   *
+   * @param requests The requests to be added.
+   * @return the number of requests added and the reason for each one that was not.
+   * @throws IllegalArgumentException if the buffer is null.
+   */
+  RequestBatchResult addRequests(RequestBuffer requests) throws IllegalArgumentException;
+
   /**
    * Distributes the requests to the elevators.
    */
   void distributeRequests();
 
+  /**
+   * Adds the requests in a buffer and then distributes the requests to the elevators.
+   *
+   * @param requests The requests to be added.
+   * @return the result of adding the requests.
+   * @throws IllegalArgumentException if the buffer is null.
+   */
+  RequestBatchResult distributeRequests(RequestBuffer requests) throws IllegalArgumentException;
+
   /**
    * Starts the elevator system.
    * If ElevatorSystemStatus.running this method has no effect.
@@ -59,6 +82,23 @@ public interface BuildingInterface {
    */
   void step();
 
+  /**
+   * Moves the elevators by a number of steps.
+   * The result is the same as calling step() that many times.
+   *
+   * @param ticks the number of steps, must not be negative.
+   * @throws IllegalArgumentException if ticks is negative.
+   */
+  void advance(long ticks) throws IllegalArgumentException;
+
+  /**
+   * Moves the elevators until every request has been delivered, or until the
+   * system is out of service if it is stopping.
+   *
+   * @return the number of steps taken.
+   */
+  long advanceUntilIdle();
+
   /**
    * Returns a BuildingReport object that contains all the status of the building.
    *
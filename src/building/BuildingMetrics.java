@@ -0,0 +1,289 @@
+package building;
+
+import building.enums.Direction;
+import building.enums.StepPhase;
+import elevator.ElevatorInterface;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * The step timings of a building, with its queue depths and a count of its
+ * elevators in each state, for a JMX client to watch while the building
+ * runs.  While timing is on, Building.step() reads System.nanoTime() at
+ * the end of each phase and adds the time of the phase to a LongAdder and
+ * a LatencyHistogram, so the thread that steps never takes a lock.
+ * The queue depths and elevator states are read from the building when
+ * they are asked for, without a lock, so they can be a tick out of date.
+ */
+public class BuildingMetrics implements BuildingMetricsMBean {
+  private static final int PHASES = StepPhase.values().length;
+
+  private final Building building;
+  private final LongAdder[] phaseTotals = new LongAdder[PHASES];
+  private final LatencyHistogram[] phaseTimes = new LatencyHistogram[PHASES];
+  private final LongAdder stepTotal = new LongAdder();
+  private final LatencyHistogram stepTimes = new LatencyHistogram();
+  private ObjectName name;
+
+  /**
+   * The constructor for the metrics of a building.
+   *
+   * @param building the building
+   */
+  BuildingMetrics(Building building) {
+    this.building = building;
+    for (int i = 0; i < PHASES; i++) {
+      phaseTotals[i] = new LongAdder();
+      phaseTimes[i] = new LatencyHistogram();
+    }
+  }
+
+  /**
+   * Records the time of a phase of a step.
+   *
+   * @param phase the phase
+   * @param nanos the time it took
+   */
+  void record(StepPhase phase, long nanos) {
+    phaseTotals[phase.ordinal()].add(nanos);
+    phaseTimes[phase.ordinal()].record(nanos);
+  }
+
+  /**
+   * Records the time of a whole step.
+   *
+   * @param nanos the time it took
+   */
+  void recordStep(long nanos) {
+    stepTotal.add(nanos);
+    stepTimes.record(nanos);
+  }
+
+  /**
+   * Returns the times of a phase, or of the whole step for null.
+   *
+   * @param phase the phase, or null for the whole step
+   * @return the histogram of the times in nanoseconds.
+   */
+  public LatencyHistogram getTimes(StepPhase phase) {
+    return phase == null ? stepTimes : phaseTimes[phase.ordinal()];
+  }
+
+  /**
+   * Returns the time spent in a phase, or in the whole step for null.
+   *
+   * @param phase the phase, or null for the whole step
+   * @return the total in nanoseconds.
+   */
+  public long getTotalNanos(StepPhase phase) {
+    return phase == null ? stepTotal.sum() : phaseTotals[phase.ordinal()].sum();
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server, under the name
+   * building:type=BuildingMetrics,name=the given name.
+   *
+   * @param label the name property, to tell buildings apart
+   * @return the object name registered.
+   * @throws IllegalArgumentException if the label does not make a legal name.
+   * @throws IllegalStateException    if the metrics are already registered,
+   *                                  or the server refuses them.
+   */
+  public synchronized ObjectName register(String label) {
+    if (name != null) {
+      throw new IllegalStateException("metrics are already registered as " + name);
+    }
+    ObjectName objectName;
+    try {
+      objectName = new ObjectName("building:type=BuildingMetrics,name="
+          + ObjectName.quote(label));
+    } catch (MalformedObjectNameException | NullPointerException e) {
+      throw new IllegalArgumentException("illegal metrics name: " + label, e);
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+    } catch (JMException e) {
+      throw new IllegalStateException("cannot register " + objectName, e);
+    }
+    name = objectName;
+    return objectName;
+  }
+
+  /**
+   * Takes the metrics off the platform MBean server, if they are registered.
+   */
+  public synchronized void unregister() {
+    if (name == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+    } catch (JMException e) {
+      throw new IllegalStateException("cannot unregister " + name, e);
+    } finally {
+      name = null;
+    }
+  }
+
+  @Override
+  public long getStepCount() {
+    return stepTimes.getCount();
+  }
+
+  @Override
+  public long getStepTotalNanos() {
+    return stepTotal.sum();
+  }
+
+  @Override
+  public long getStepP50Nanos() {
+    return stepTimes.getValueAtPercentile(50);
+  }
+
+  @Override
+  public long getStepP99Nanos() {
+    return stepTimes.getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getStepMaxNanos() {
+    return stepTimes.getMax();
+  }
+
+  @Override
+  public long getIngestTotalNanos() {
+    return this.getTotalNanos(StepPhase.ingest);
+  }
+
+  @Override
+  public long getIngestP99Nanos() {
+    return this.getTimes(StepPhase.ingest).getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getIngestMaxNanos() {
+    return this.getTimes(StepPhase.ingest).getMax();
+  }
+
+  @Override
+  public long getDispatchTotalNanos() {
+    return this.getTotalNanos(StepPhase.dispatch);
+  }
+
+  @Override
+  public long getDispatchP99Nanos() {
+    return this.getTimes(StepPhase.dispatch).getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getDispatchMaxNanos() {
+    return this.getTimes(StepPhase.dispatch).getMax();
+  }
+
+  @Override
+  public long getMoveTotalNanos() {
+    return this.getTotalNanos(StepPhase.move);
+  }
+
+  @Override
+  public long getMoveP99Nanos() {
+    return this.getTimes(StepPhase.move).getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getMoveMaxNanos() {
+    return this.getTimes(StepPhase.move).getMax();
+  }
+
+  @Override
+  public long getPublishTotalNanos() {
+    return this.getTotalNanos(StepPhase.publish);
+  }
+
+  @Override
+  public long getPublishP99Nanos() {
+    return this.getTimes(StepPhase.publish).getValueAtPercentile(99);
+  }
+
+  @Override
+  public long getPublishMaxNanos() {
+    return this.getTimes(StepPhase.publish).getMax();
+  }
+
+  @Override
+  public int getUpQueueDepth() {
+    return building.getUpRequestCount();
+  }
+
+  @Override
+  public int getDownQueueDepth() {
+    return building.getDownRequestCount();
+  }
+
+  @Override
+  public int getMovingUpCount() {
+    return this.countElevators(Direction.UP);
+  }
+
+  @Override
+  public int getMovingDownCount() {
+    return this.countElevators(Direction.DOWN);
+  }
+
+  @Override
+  public int getDoorOpenCount() {
+    int count = 0;
+    for (ElevatorInterface elevator : building.getElevators()) {
+      if (!elevator.isOutOfService() && !elevator.isDoorClosed()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public int getIdleCount() {
+    return this.countElevators(Direction.STOPPED);
+  }
+
+  @Override
+  public int getOutOfServiceCount() {
+    int count = 0;
+    for (ElevatorInterface elevator : building.getElevators()) {
+      if (elevator.isOutOfService()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Counts the elevators in service with the door closed going a direction.
+   *
+   * @param direction the direction
+   * @return the number of elevators.
+   */
+  private int countElevators(Direction direction) {
+    int count = 0;
+    for (ElevatorInterface elevator : building.getElevators()) {
+      if (!elevator.isOutOfService() && elevator.isDoorClosed()
+          && elevator.getDirection() == direction) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void reset() {
+    for (int i = 0; i < PHASES; i++) {
+      phaseTotals[i].reset();
+      phaseTimes[i].reset();
+    }
+    stepTotal.reset();
+    stepTimes.reset();
+  }
+}
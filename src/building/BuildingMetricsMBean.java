@@ -0,0 +1,184 @@
+package building;
+
+/**
+ * The management interface of BuildingMetrics, as seen by jconsole or any
+ * other JMX client.  Times are in nanoseconds of wall clock, over the steps
+ * timed since the metrics were made or last reset.  A phase only counts the
+ * steps it ran in: a stopping building moves its elevators but dispatches
+ * nothing, and one out of service only publishes.
+ */
+public interface BuildingMetricsMBean {
+
+  /**
+   * Returns the number of steps timed.
+   *
+   * @return the number of steps.
+   */
+  long getStepCount();
+
+  /**
+   * Returns the time spent in timed steps.
+   *
+   * @return the total in nanoseconds.
+   */
+  long getStepTotalNanos();
+
+  /**
+   * Returns the median time of a step.
+   *
+   * @return the median in nanoseconds.
+   */
+  long getStepP50Nanos();
+
+  /**
+   * Returns the 99th percentile time of a step.
+   *
+   * @return the 99th percentile in nanoseconds.
+   */
+  long getStepP99Nanos();
+
+  /**
+   * Returns the longest step.
+   *
+   * @return the longest in nanoseconds.
+   */
+  long getStepMaxNanos();
+
+  /**
+   * Returns the time spent moving submitted requests into the queues.
+   *
+   * @return the total in nanoseconds.
+   */
+  long getIngestTotalNanos();
+
+  /**
+   * Returns the 99th percentile time of moving submitted requests.
+   *
+   * @return the 99th percentile in nanoseconds.
+   */
+  long getIngestP99Nanos();
+
+  /**
+   * Returns the longest time moving submitted requests.
+   *
+   * @return the longest in nanoseconds.
+   */
+  long getIngestMaxNanos();
+
+  /**
+   * Returns the time spent handing requests to the elevators.
+   *
+   * @return the total in nanoseconds.
+   */
+  long getDispatchTotalNanos();
+
+  /**
+   * Returns the 99th percentile time of handing requests to the elevators.
+   *
+   * @return the 99th percentile in nanoseconds.
+   */
+  long getDispatchP99Nanos();
+
+  /**
+   * Returns the longest time handing requests to the elevators.
+   *
+   * @return the longest in nanoseconds.
+   */
+  long getDispatchMaxNanos();
+
+  /**
+   * Returns the time spent stepping the elevators.
+   *
+   * @return the total in nanoseconds.
+   */
+  long getMoveTotalNanos();
+
+  /**
+   * Returns the 99th percentile time of stepping the elevators.
+   *
+   * @return the 99th percentile in nanoseconds.
+   */
+  long getMoveP99Nanos();
+
+  /**
+   * Returns the longest time stepping the elevators.
+   *
+   * @return the longest in nanoseconds.
+   */
+  long getMoveMaxNanos();
+
+  /**
+   * Returns the time spent publishing snapshots and deltas.
+   *
+   * @return the total in nanoseconds.
+   */
+  long getPublishTotalNanos();
+
+  /**
+   * Returns the 99th percentile time of publishing.
+   *
+   * @return the 99th percentile in nanoseconds.
+   */
+  long getPublishP99Nanos();
+
+  /**
+   * Returns the longest time publishing.
+   *
+   * @return the longest in nanoseconds.
+   */
+  long getPublishMaxNanos();
+
+  /**
+   * Returns the number of up requests waiting to be distributed.
+   *
+   * @return the depth of the up queue.
+   */
+  int getUpQueueDepth();
+
+  /**
+   * Returns the number of down requests waiting to be distributed.
+   *
+   * @return the depth of the down queue.
+   */
+  int getDownQueueDepth();
+
+  /**
+   * Returns the number of elevators in service moving up with the door closed.
+   *
+   * @return the number of elevators.
+   */
+  int getMovingUpCount();
+
+  /**
+   * Returns the number of elevators in service moving down with the door closed.
+   *
+   * @return the number of elevators.
+   */
+  int getMovingDownCount();
+
+  /**
+   * Returns the number of elevators in service with the door open.
+   *
+   * @return the number of elevators.
+   */
+  int getDoorOpenCount();
+
+  /**
+   * Returns the number of elevators in service standing still with the door closed.
+   *
+   * @return the number of elevators.
+   */
+  int getIdleCount();
+
+  /**
+   * Returns the number of elevators out of service.
+   *
+   * @return the number of elevators.
+   */
+  int getOutOfServiceCount();
+
+  /**
+   * Forgets the step times recorded so far.
+   */
+  void reset();
+}
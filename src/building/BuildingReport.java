@@ -2,26 +2,33 @@ package building;
 
 import building.enums.ElevatorSystemStatus;
 import elevator.ElevatorReport;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import scanerzus.Request;
 
 
 /**
  * This is the reporting class for the building.
+ * A report is immutable: it keeps its own copy of the elevator reports and
+ * unmodifiable copies of the request lists, so it can be read on any thread
+ * while the building moves on.
  */
 public class BuildingReport {
-  int numFloors;
-  int numElevators;
+  private final int numFloors;
+  private final int numElevators;
 
-  int elevatorCapacity;
+  private final int elevatorCapacity;
 
-  ElevatorReport[] elevatorReports;
+  private final ElevatorReport[] elevatorReports;
 
-  List<Request> upRequests;
+  private final List<Request> upRequests;
 
-  List<Request> downRequests;
+  private final List<Request> downRequests;
 
-  ElevatorSystemStatus systemStatus;
+  private final ElevatorSystemStatus systemStatus;
+
+  private final long version;
 
   /**
    * This constructor is used to create a new BuildingReport object.
@@ -41,13 +48,40 @@ public class BuildingReport {
                         List<Request> upRequests,
                         List<Request> downRequests,
                         ElevatorSystemStatus systemStatus) {
+    this(numFloors, numElevators, elevatorCapacity, elevatorsReports, upRequests,
+        downRequests, systemStatus, 0);
+  }
+
+  /**
+   * This constructor is used to create a new BuildingReport object with a version.
+   * The lists are copied unless they are already unmodifiable lists made by
+   * List.of() or List.copyOf(), which are shared.
+   *
+   * @param numFloors        The number of floors in the building.
+   * @param numElevators     The number of elevators in the building.
+   * @param elevatorCapacity The capacity of the elevators.
+   * @param elevatorsReports The status of the elevators.
+   * @param upRequests       The up requests for the elevators.
+   * @param downRequests     The down requests for the elevators.
+   * @param systemStatus     The status of the elevator system.
+   * @param version          The tick of the building the report describes.
+   */
+  public BuildingReport(int numFloors,
+                        int numElevators,
+                        int elevatorCapacity,
+                        ElevatorReport[] elevatorsReports,
+                        List<Request> upRequests,
+                        List<Request> downRequests,
+                        ElevatorSystemStatus systemStatus,
+                        long version) {
     this.numFloors = numFloors;
     this.numElevators = numElevators;
     this.elevatorCapacity = elevatorCapacity;
-    this.elevatorReports = elevatorsReports;
-    this.upRequests = upRequests;
-    this.downRequests = downRequests;
+    this.elevatorReports = elevatorsReports.clone();
+    this.upRequests = List.copyOf(upRequests);
+    this.downRequests = List.copyOf(downRequests);
     this.systemStatus = systemStatus;
+    this.version = version;
   }
 
   /**
@@ -80,10 +114,20 @@ public class BuildingReport {
   /**
    * This method is used to get the status of the elevators.
    *
-   * @return the status of the elevators.
+   * @return a new array with the status of the elevators.
    */
   public ElevatorReport[] getElevatorReports() {
-    return this.elevatorReports;
+    return this.elevatorReports.clone();
+  }
+
+  /**
+   * This method is used to get the status of one elevator without copying the array.
+   *
+   * @param index the index of the elevator, 0 to getNumElevators() - 1
+   * @return the status of the elevator.
+   */
+  public ElevatorReport getElevatorReport(int index) {
+    return this.elevatorReports[index];
   }
 
   /**
@@ -113,10 +157,14 @@ public class BuildingReport {
     return this.systemStatus;
   }
 
-  private String centreString(String s, int width) {
-    int leftPadding = (width - 2 - s.length()) / 2;
-    int rightPadding = width - leftPadding - s.length();
-    return "*" + " ".repeat(leftPadding) + s + " ".repeat(rightPadding) + "*";
+  /**
+   * This method is used to get the version of the report: the tick of the
+   * building it describes.  A later snapshot has a larger version.
+   *
+   * @return the version of the report.
+   */
+  public long getVersion() {
+    return this.version;
   }
 
   /**
@@ -126,71 +174,123 @@ public class BuildingReport {
    */
   @Override
   public String toString() {
-    StringBuilder sb = new StringBuilder();
-    for (int i = 0; i < 62; i++) {
-      sb.append("-");
-    }
-    sb.append("\n");
-    sb.append(this.centreString("Floors: " + numFloors
-        + ", Elevators: " + numElevators
-        + ", Capacity: " + elevatorCapacity, 60));
-    sb.append("\n");
-    sb.append(this.centreString("Elevator System: " + systemStatus, 60));
-    sb.append("\n");
-    for (int i = 0; i < 62; i++) {
-      sb.append("-");
-    }
-    sb.append("\n");
-    sb.append("*Requests: \n");
-    sb.append("Up: ");
-    for (Request request : upRequests) {
-      sb.append(request.toString());
-      sb.append(", ");
+    return this.appendTo(new StringBuilder()).toString();
+  }
+
+  /**
+   * Appends the status of the elevator system to a builder, the same
+   * characters as toString().  No strings are made along the way, so a
+   * caller that keeps its builder can render a report every tick without
+   * allocating.
+   *
+   * @param sb the builder to append to.
+   * @return the builder.
+   */
+  public StringBuilder appendTo(StringBuilder sb) {
+    try {
+      this.render(sb);
+    } catch (IOException e) {
+      // a StringBuilder does not throw
+      throw new UncheckedIOException(e);
     }
+    return sb;
+  }
 
-    // Find the index of the last character in the string
-    int i = sb.length() - 1;
+  /**
+   * Appends the status of the elevator system to any Appendable, such as a
+   * Writer, the same characters as toString().
+   *
+   * @param out the Appendable to append to.
+   * @return the Appendable.
+   * @throws IOException if the Appendable throws it.
+   */
+  public Appendable appendTo(Appendable out) throws IOException {
+    this.render(out);
+    return out;
+  }
 
-    // Find the index of the first non-whitespace character before the comma
-    while (i >= 0 && sb.charAt(i) == ' ') {
-      i--;
+  private void render(Appendable out) throws IOException {
+    appendLine(out);
+    out.append('\n');
+    int length = "Floors: , Elevators: , Capacity: ".length() + digits(numFloors)
+        + digits(numElevators) + digits(elevatorCapacity);
+    int rightPadding = startCentred(out, length, 60);
+    out.append("Floors: ");
+    ElevatorReport.appendNumber(out, numFloors);
+    out.append(", Elevators: ");
+    ElevatorReport.appendNumber(out, numElevators);
+    out.append(", Capacity: ");
+    ElevatorReport.appendNumber(out, elevatorCapacity);
+    endCentred(out, rightPadding);
+    out.append('\n');
+    String status = systemStatus.toString();
+    rightPadding = startCentred(out, "Elevator System: ".length() + status.length(), 60);
+    out.append("Elevator System: ").append(status);
+    endCentred(out, rightPadding);
+    out.append('\n');
+    appendLine(out);
+    out.append("\n*Requests: \nUp: ");
+    appendRequests(out, upRequests);
+    out.append("\nDown: ");
+    appendRequests(out, downRequests);
+    out.append('\n');
+    appendLine(out);
+    out.append("\n*Elevator Status: \n");
+    for (ElevatorReport elevatorReport : elevatorReports) {
+      out.append("Elevator ");
+      ElevatorReport.appendNumber(out, elevatorReport.getElevatorId());
+      out.append(": ");
+      elevatorReport.appendTo(out);
+      out.append('\n');
     }
+  }
 
-    // Check if the character before the comma is a comma
-    if (i >= 0 && sb.charAt(i) == ',') {
-      // Delete the comma and any whitespace characters after it
-      sb.delete(i, sb.length());
+  private static void appendLine(Appendable out) throws IOException {
+    for (int i = 0; i < 62; i++) {
+      out.append('-');
     }
+  }
 
-    sb.append("\nDown: ");
-    for (Request request : downRequests) {
-      sb.append(request.toString());
-      sb.append(", ");
+  private static void appendRequests(Appendable out, List<Request> requests)
+      throws IOException {
+    for (int i = 0; i < requests.size(); i++) {
+      if (i > 0) {
+        out.append(", ");
+      }
+      Request request = requests.get(i);
+      ElevatorReport.appendNumber(out, request.getStartFloor());
+      out.append("->");
+      ElevatorReport.appendNumber(out, request.getEndFloor());
     }
-    // Find the index of the last character in the string
-    int j = sb.length() - 1;
+  }
 
-    // Find the index of the first non-whitespace character before the comma
-    while (j >= 0 && sb.charAt(j) == ' ') {
-      j--;
-    }
+  /**
+   * Appends the star and left padding that centre a string of the given
+   * length in width characters, and returns the right padding to append after it.
+   */
+  private static int startCentred(Appendable out, int length, int width) throws IOException {
+    int leftPadding = (width - 2 - length) / 2;
+    out.append('*');
+    appendSpaces(out, leftPadding);
+    return width - leftPadding - length;
+  }
 
-    // Check if the character before the comma is a comma
-    if (j >= 0 && sb.charAt(j) == ',') {
-      // Delete the comma and any whitespace characters after it
-      sb.delete(j, sb.length());
-    }
+  private static void endCentred(Appendable out, int rightPadding) throws IOException {
+    appendSpaces(out, rightPadding);
+    out.append('*');
+  }
 
-    sb.append("\n");
-    for (int k = 0; k < 62; k++) {
-      sb.append("-");
+  private static void appendSpaces(Appendable out, int count) throws IOException {
+    for (int i = 0; i < count; i++) {
+      out.append(' ');
     }
-    sb.append("\n*Elevator Status: \n");
-    for (ElevatorReport elevatorReport : elevatorReports) {
-      sb.append("Elevator " + elevatorReport.getElevatorId() + ": ");
-      sb.append(elevatorReport.toString());
-      sb.append("\n");
+  }
+
+  private static int digits(int number) {
+    int digits = number < 0 ? 2 : 1;
+    for (long value = Math.abs((long) number); value >= 10; value /= 10) {
+      digits++;
     }
-    return sb.toString();
+    return digits;
   }
-}
\ No newline at end of file
+}
@@ -22,6 +22,7 @@ import javax.swing.border.LineBorder;
  */
 public class BuildingView extends JFrame implements BuildingViewInterface {
   private JTextArea reportTextArea;
+  private final StringBuilder reportText = new StringBuilder();
   private JButton startButton;
   private JButton stopButton;
   private JButton stepButton;
@@ -132,7 +133,8 @@ public class BuildingView extends JFrame implements BuildingViewInterface {
 
   @Override
   public void showBuildingStatus(BuildingReport buildingReport) {
-    reportTextArea.setText(buildingReport.toString());
+    reportText.setLength(0);
+    reportTextArea.setText(buildingReport.appendTo(reportText).toString());
   }
 
   @Override
@@ -0,0 +1,64 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorInterface;
+import elevator.FloorRequestSet;
+import scanerzus.RequestBuffer;
+
+/**
+ * Collective control: each elevator sweeps one way and collects the requests
+ * that fit its sweep best.  An elevator starts with the oldest request still
+ * pending, then keeps taking the request that adds the fewest new stops to
+ * its run, the older one on a tie, until it is full.  An elevator already on
+ * a run only collects requests whose start floor it has not passed.  Requests that share
+ * floors end up in the same elevator, so each run makes fewer stops.
+ */
+public class CollectiveDispatch implements DispatchStrategy {
+  private FloorRequestSet stops;
+
+  @Override
+  public void assign(Direction direction, RequestBuffer pending, ElevatorInterface[] cars,
+                     int carCount, int capacity, long currentTick, int[] assignment) {
+    int floors = cars[0].getFloorRequestSet().getNumberOfFloors();
+    if (stops == null || stops.getNumberOfFloors() != floors) {
+      stops = new FloorRequestSet(floors);
+    }
+
+    for (int car = 0; car < carCount; car++) {
+      ElevatorInterface elevator = cars[car];
+      stops.clear();
+      FloorRequestSet current = elevator.getFloorRequestSet();
+      for (int floor = current.nextAbove(-1); floor != -1; floor = current.nextAbove(floor)) {
+        stops.add(floor);
+      }
+      int room = capacity - elevator.getAssignedRequestCount();
+      for (int taken = 0; taken < room; taken++) {
+        int best = -1;
+        int bestNewStops = 3;
+        for (int i = 0; i < pending.size() && bestNewStops > 0; i++) {
+          if (assignment[i] != -1
+              || !elevator.canAcceptRequest(pending.getStartFloor(i), pending.getEndFloor(i))) {
+            continue;
+          }
+          int newStops = (stops.contains(pending.getStartFloor(i)) ? 0 : 1)
+              + (stops.contains(pending.getEndFloor(i)) ? 0 : 1);
+          if (newStops < bestNewStops) {
+            best = i;
+            bestNewStops = newStops;
+          }
+        }
+        if (best == -1) {
+          break;
+        }
+        assignment[best] = car;
+        stops.add(pending.getStartFloor(best));
+        stops.add(pending.getEndFloor(best));
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Collective";
+  }
+}
@@ -0,0 +1,143 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorInterface;
+import elevator.FloorRequestSet;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Writes the delta records of a building, see DeltaRecords.
+ * It keeps the state of every elevator as of the last delta in flat arrays
+ * and, at the end of a tick, writes a record for each elevator and each
+ * word of floor requests that differs, after the queue records collected
+ * during the tick.  The buffer is reused, so a quiet tick does not allocate.
+ */
+final class DeltaEncoder {
+  private final int[] floor;
+  private final byte[] direction;
+  private final byte[] flags;
+  private final int[] doorOpenTimer;
+  private final int[] endWaitTimer;
+  private final long[] words;
+  private final int wordsPerCar;
+  private ByteBuffer records;
+
+  /**
+   * The constructor for an encoder whose first delta describes every elevator.
+   *
+   * @param elevators      the number of elevators
+   * @param numberOfFloors the number of floors
+   */
+  DeltaEncoder(int elevators, int numberOfFloors) {
+    this.floor = new int[elevators];
+    this.direction = new byte[elevators];
+    this.flags = new byte[elevators];
+    this.doorOpenTimer = new int[elevators];
+    this.endWaitTimer = new int[elevators];
+    this.wordsPerCar = FloorRequestSet.wordsFor(numberOfFloors);
+    this.words = new long[elevators * wordsPerCar];
+    // no elevator is on floor -1, so every elevator goes in the first delta.
+    Arrays.fill(this.floor, -1);
+    this.records = ByteBuffer.allocate(64 * DeltaRecords.RECORD_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  void requestAdded(int startFloor, int endFloor, long id) {
+    this.request(DeltaRecords.REQUEST_ADDED, startFloor, endFloor, -1, id);
+  }
+
+  void requestRemoved(int startFloor, int endFloor, int elevator, long id) {
+    this.request(DeltaRecords.REQUEST_REMOVED, startFloor, endFloor, elevator, id);
+  }
+
+  void queueCleared(Direction queue) {
+    int at = this.claim();
+    records.put(at, DeltaRecords.QUEUE_CLEARED);
+    records.put(at + 1, (byte) queue.ordinal());
+  }
+
+  private void request(byte type, int startFloor, int endFloor, int elevator, long id) {
+    int at = this.claim();
+    records.put(at, type);
+    Direction queue = startFloor < endFloor ? Direction.UP : Direction.DOWN;
+    records.put(at + 1, (byte) queue.ordinal());
+    records.putInt(at + 4, startFloor);
+    records.putInt(at + 8, endFloor);
+    records.putInt(at + 12, elevator);
+    records.putLong(at + 16, id);
+  }
+
+  /**
+   * Adds the records of the elevators that changed and hands every record
+   * since the last delta to the listener.
+   *
+   * @param tick      the tick of the building
+   * @param elevators the elevators of the building
+   * @param listener  the listener to call
+   */
+  void emit(long tick, ElevatorInterface[] elevators, DeltaListener listener) {
+    for (int car = 0; car < elevators.length; car++) {
+      ElevatorInterface elevator = elevators[car];
+      int currentFloor = elevator.getCurrentFloor();
+      byte currentDirection = (byte) elevator.getDirection().ordinal();
+      byte currentFlags = (byte) ((elevator.isDoorClosed() ? DeltaRecords.DOOR_CLOSED : 0)
+          | (elevator.isTakingRequests() ? DeltaRecords.TAKING_REQUESTS : 0)
+          | (elevator.isOutOfService() ? DeltaRecords.OUT_OF_SERVICE : 0));
+      int currentDoorTimer = elevator.getDoorOpenTimer();
+      int currentWaitTimer = elevator.getEndWaitTimer();
+      if (currentFloor != floor[car] || currentDirection != direction[car]
+          || currentFlags != flags[car] || currentDoorTimer != doorOpenTimer[car]
+          || currentWaitTimer != endWaitTimer[car]) {
+        floor[car] = currentFloor;
+        direction[car] = currentDirection;
+        flags[car] = currentFlags;
+        doorOpenTimer[car] = currentDoorTimer;
+        endWaitTimer[car] = currentWaitTimer;
+        int at = this.claim();
+        records.put(at, DeltaRecords.CAR);
+        records.put(at + 1, currentDirection);
+        records.put(at + 2, currentFlags);
+        records.putInt(at + 4, elevator.getElevatorId());
+        records.putInt(at + 8, currentFloor);
+        records.putInt(at + 12, currentDoorTimer);
+        records.putInt(at + 16, currentWaitTimer);
+      }
+
+      FloorRequestSet stops = elevator.getFloorRequestSet();
+      int base = car * wordsPerCar;
+      for (int w = 0; w < wordsPerCar; w++) {
+        long word = stops.getWord(w);
+        if (word != words[base + w]) {
+          words[base + w] = word;
+          int at = this.claim();
+          records.put(at, DeltaRecords.STOPS);
+          records.putInt(at + 4, elevator.getElevatorId());
+          records.putInt(at + 8, w);
+          records.putLong(at + 16, word);
+        }
+      }
+    }
+    records.flip();
+    listener.onDelta(tick, records);
+    records.clear();
+  }
+
+  /**
+   * Makes room for one record, cleared to zero, and returns its offset.
+   */
+  private int claim() {
+    if (records.remaining() < DeltaRecords.RECORD_SIZE) {
+      ByteBuffer larger = ByteBuffer.allocate(records.capacity() * 2)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      records.flip();
+      larger.put(records);
+      records = larger;
+    }
+    int at = records.position();
+    records.putLong(at, 0L).putLong(at + 8, 0L).putLong(at + 16, 0L);
+    records.position(at + DeltaRecords.RECORD_SIZE);
+    return at;
+  }
+}
@@ -0,0 +1,24 @@
+package building;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This interface receives the changes to a building, one delta per tick.
+ * The building calls it on the thread that steps it, at the end of each
+ * step(), after advance() and advanceUntilIdle(), and when the system starts
+ * or stops, so two deltas can have the same tick.  The records are laid out
+ * as described in DeltaRecords; a delta with no records is still delivered,
+ * so a listener sees every tick the building publishes.
+ */
+public interface DeltaListener {
+
+  /**
+   * Receives the records of one delta.
+   * The buffer holds DeltaRecords.RECORD_SIZE bytes per record from position
+   * 0 to its limit, and is reused for the next delta: copy what you keep.
+   *
+   * @param tick    the tick of the building the delta brings a reader up to.
+   * @param records the records, little endian.
+   */
+  void onDelta(long tick, ByteBuffer records);
+}
@@ -0,0 +1,222 @@
+package building;
+
+import building.enums.Direction;
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of the records a DeltaListener receives, and methods to read them.
+ * Every record is RECORD_SIZE bytes, little endian, and starts with its type:
+ * <ul>
+ *   <li>CAR: an elevator whose floor, direction, door, timers or service
+ *   state changed, with all of them as they are now.</li>
+ *   <li>STOPS: one 64-floor word of the requested floors of an elevator
+ *   that changed; floor 64 * word + bit is requested if the bit is set.</li>
+ *   <li>REQUEST_ADDED: a request joined the up or down queue.</li>
+ *   <li>REQUEST_REMOVED: a request left the queue for an elevator.</li>
+ *   <li>QUEUE_CLEARED: every request going one way was dropped.</li>
+ * </ul>
+ * The first delta after a listener is set has a CAR record for every
+ * elevator and a STOPS record for every word with a floor in it; after that
+ * the records only cover what changed, so reading a delta costs in
+ * proportion to the activity of the building, not to its size.
+ *
+ * <pre>
+ * offset  CAR           STOPS        REQUEST_*      QUEUE_CLEARED
+ *  0      type          type         type           type
+ *  1      direction     -            direction      direction
+ *  2      flags         -            -              -
+ *  4      elevator      elevator     start floor    -
+ *  8      floor         word index   end floor      -
+ * 12      door timer    -            elevator       -
+ * 16      wait timer    word (8)     request id (8) -
+ * </pre>
+ * The elevator of a REQUEST_ADDED record is -1.
+ */
+public final class DeltaRecords {
+  /**
+   * The size of every record in bytes.
+   */
+  public static final int RECORD_SIZE = 24;
+
+  public static final byte CAR = 1;
+  public static final byte STOPS = 2;
+  public static final byte REQUEST_ADDED = 3;
+  public static final byte REQUEST_REMOVED = 4;
+  public static final byte QUEUE_CLEARED = 5;
+
+  static final int DOOR_CLOSED = 1;
+  static final int TAKING_REQUESTS = 2;
+  static final int OUT_OF_SERVICE = 4;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private DeltaRecords() {
+  }
+
+  /**
+   * Returns the number of records in a delta.
+   *
+   * @param records the records passed to a DeltaListener.
+   * @return the number of records.
+   */
+  public static int count(ByteBuffer records) {
+    return records.limit() / RECORD_SIZE;
+  }
+
+  /**
+   * Returns the type of a record: CAR, STOPS, REQUEST_ADDED,
+   * REQUEST_REMOVED or QUEUE_CLEARED.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the type of the record.
+   */
+  public static byte type(ByteBuffer records, int index) {
+    return records.get(index * RECORD_SIZE);
+  }
+
+  /**
+   * Returns the direction of a CAR record, or of the queue of a request record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the direction.
+   */
+  public static Direction direction(ByteBuffer records, int index) {
+    return DIRECTIONS[records.get(index * RECORD_SIZE + 1)];
+  }
+
+  /**
+   * Is the door closed, for a CAR record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return true if the door is closed.
+   */
+  public static boolean isDoorClosed(ByteBuffer records, int index) {
+    return (records.get(index * RECORD_SIZE + 2) & DOOR_CLOSED) != 0;
+  }
+
+  /**
+   * Is the elevator taking requests, for a CAR record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return true if the elevator is taking requests.
+   */
+  public static boolean isTakingRequests(ByteBuffer records, int index) {
+    return (records.get(index * RECORD_SIZE + 2) & TAKING_REQUESTS) != 0;
+  }
+
+  /**
+   * Is the elevator out of service, for a CAR record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return true if the elevator is out of service.
+   */
+  public static boolean isOutOfService(ByteBuffer records, int index) {
+    return (records.get(index * RECORD_SIZE + 2) & OUT_OF_SERVICE) != 0;
+  }
+
+  /**
+   * Returns the elevator of a CAR, STOPS or REQUEST_REMOVED record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the elevator id, -1 for REQUEST_ADDED.
+   */
+  public static int elevator(ByteBuffer records, int index) {
+    byte type = type(records, index);
+    return records.getInt(index * RECORD_SIZE + (type == CAR || type == STOPS ? 4 : 12));
+  }
+
+  /**
+   * Returns the floor of a CAR record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the current floor of the elevator.
+   */
+  public static int floor(ByteBuffer records, int index) {
+    return records.getInt(index * RECORD_SIZE + 8);
+  }
+
+  /**
+   * Returns the door open timer of a CAR record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the door open timer.
+   */
+  public static int doorOpenTimer(ByteBuffer records, int index) {
+    return records.getInt(index * RECORD_SIZE + 12);
+  }
+
+  /**
+   * Returns the end wait timer of a CAR record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the end wait timer.
+   */
+  public static int endWaitTimer(ByteBuffer records, int index) {
+    return records.getInt(index * RECORD_SIZE + 16);
+  }
+
+  /**
+   * Returns the index of the word of a STOPS record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the word index, floor / 64.
+   */
+  public static int wordIndex(ByteBuffer records, int index) {
+    return records.getInt(index * RECORD_SIZE + 8);
+  }
+
+  /**
+   * Returns the word of a STOPS record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return one bit per floor of the word.
+   */
+  public static long word(ByteBuffer records, int index) {
+    return records.getLong(index * RECORD_SIZE + 16);
+  }
+
+  /**
+   * Returns the start floor of a request record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the start floor.
+   */
+  public static int startFloor(ByteBuffer records, int index) {
+    return records.getInt(index * RECORD_SIZE + 4);
+  }
+
+  /**
+   * Returns the end floor of a request record.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the end floor.
+   */
+  public static int endFloor(ByteBuffer records, int index) {
+    return records.getInt(index * RECORD_SIZE + 8);
+  }
+
+  /**
+   * Returns the id of a request record, the order the building took the
+   * requests in.
+   *
+   * @param records the records
+   * @param index   the index of the record
+   * @return the request id.
+   */
+  public static long requestId(ByteBuffer records, int index) {
+    return records.getLong(index * RECORD_SIZE + 16);
+  }
+}
@@ -0,0 +1,130 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorInterface;
+import elevator.FloorRequestSet;
+import scanerzus.RequestBuffer;
+
+/**
+ * Destination dispatch: each elevator is filled with requests grouped by the
+ * floors they stop at, so a run makes as few stops as it can.
+ * Requests that have waited maxAge ticks or more go first, oldest first, to
+ * the first elevator that can take them; that bounds how long the grouping
+ * can hold a request back.  An elevator then takes the requests that add no
+ * new stops to its run, and otherwise the request going to the floor that
+ * the most pending requests go to, the older one on a tie, until it is full.
+ */
+public class DestinationDispatch implements DispatchStrategy {
+  /**
+   * The maximum age used by the constructor without arguments, one minute
+   * if a tick is a second.
+   */
+  public static final int DEFAULT_MAX_AGE = 60;
+
+  private final int maxAge;
+  private FloorRequestSet stops;
+  private int[] groupSize = new int[0];
+
+  /**
+   * The constructor with the default maximum age.
+   */
+  public DestinationDispatch() {
+    this(DEFAULT_MAX_AGE);
+  }
+
+  /**
+   * The constructor for this strategy.
+   *
+   * @param maxAge the number of ticks after which a request is given to the
+   *               first elevator that can take it, whatever its destination.
+   * @throws IllegalArgumentException if maxAge is negative
+   */
+  public DestinationDispatch(int maxAge) {
+    if (maxAge < 0) {
+      throw new IllegalArgumentException("maxAge must not be negative");
+    }
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Returns the number of ticks after which a request goes first.
+   *
+   * @return the maximum age.
+   */
+  public int getMaxAge() {
+    return maxAge;
+  }
+
+  @Override
+  public void assign(Direction direction, RequestBuffer pending, ElevatorInterface[] cars,
+                     int carCount, int capacity, long currentTick, int[] assignment) {
+    int floors = cars[0].getFloorRequestSet().getNumberOfFloors();
+    if (stops == null || stops.getNumberOfFloors() != floors) {
+      stops = new FloorRequestSet(floors);
+      groupSize = new int[floors];
+    }
+    for (int floor = 0; floor < floors; floor++) {
+      groupSize[floor] = 0;
+    }
+    for (int i = 0; i < pending.size(); i++) {
+      groupSize[pending.getEndFloor(i)]++;
+    }
+
+    for (int car = 0; car < carCount; car++) {
+      ElevatorInterface elevator = cars[car];
+      int room = capacity - elevator.getAssignedRequestCount();
+      if (room <= 0) {
+        continue;
+      }
+      stops.clear();
+      FloorRequestSet current = elevator.getFloorRequestSet();
+      for (int floor = current.nextAbove(-1); floor != -1; floor = current.nextAbove(floor)) {
+        stops.add(floor);
+      }
+
+      for (int i = 0; i < pending.size() && room > 0; i++) {
+        if (assignment[i] == -1 && currentTick - pending.getArrivalTick(i) >= maxAge
+            && elevator.canAcceptRequest(pending.getStartFloor(i), pending.getEndFloor(i))) {
+          this.take(pending, i, car, assignment);
+          room--;
+        }
+      }
+
+      for (; room > 0; room--) {
+        int best = -1;
+        int bestNewStops = 3;
+        int bestGroup = 0;
+        for (int i = 0; i < pending.size(); i++) {
+          int start = pending.getStartFloor(i);
+          int end = pending.getEndFloor(i);
+          if (assignment[i] != -1 || !elevator.canAcceptRequest(start, end)) {
+            continue;
+          }
+          int newStops = (stops.contains(start) ? 0 : 1) + (stops.contains(end) ? 0 : 1);
+          if (newStops < bestNewStops
+              || (newStops == bestNewStops && groupSize[end] > bestGroup)) {
+            best = i;
+            bestNewStops = newStops;
+            bestGroup = groupSize[end];
+          }
+        }
+        if (best == -1) {
+          break;
+        }
+        this.take(pending, best, car, assignment);
+      }
+    }
+  }
+
+  private void take(RequestBuffer pending, int index, int car, int[] assignment) {
+    assignment[index] = car;
+    stops.add(pending.getStartFloor(index));
+    stops.add(pending.getEndFloor(index));
+    groupSize[pending.getEndFloor(index)]--;
+  }
+
+  @Override
+  public String toString() {
+    return "Destination";
+  }
+}
@@ -0,0 +1,40 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorInterface;
+import scanerzus.RequestBuffer;
+
+/**
+ * This interface is used to decide which elevator takes each pending request.
+ * The building calls it from distributeRequests(), once for the up requests
+ * and once for the down requests, whenever there are requests waiting and
+ * elevators that can take them.  The strategy only fills in an assignment;
+ * the building hands each elevator its requests and keeps the rest pending,
+ * in their original order.
+ * Implementations: TerminalDispatch, NearestCarDispatch, CollectiveDispatch,
+ * EtaDispatch and DestinationDispatch.
+ */
+public interface DispatchStrategy {
+
+  /**
+   * Chooses the elevator that takes each pending request going one way.
+   * An elevator must not be given more than capacity less its
+   * getAssignedRequestCount() requests, and an elevator on a run should only
+   * be given requests its canAcceptRequest() is true for; the others are
+   * kept pending.
+   *
+   * @param direction   Direction.UP or Direction.DOWN.
+   * @param pending     the oldest pending requests going that way, oldest first.
+   * @param cars        the elevators that can take requests going that way now:
+   *                    waiting at the bottom or top, or on a run that way.
+   * @param carCount    the number of elevators in cars, at least 1.
+   * @param capacity    the largest number of requests an elevator can take.
+   * @param currentTick the current tick of the building, to compare with the
+   *                    arrival ticks of the requests.
+   * @param assignment  for each request in pending, set to the index in cars of
+   *                    the elevator that takes it; it starts at -1, which keeps
+   *                    the request pending.
+   */
+  void assign(Direction direction, RequestBuffer pending, ElevatorInterface[] cars,
+              int carCount, int capacity, long currentTick, int[] assignment);
+}
@@ -0,0 +1,59 @@
+package building;
+
+import elevator.ElevatorFleet;
+import elevator.ElevatorInterface;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class steps a range of elevators on a ForkJoinPool.
+ * The range is split in half until it is no bigger than the threshold,
+ * and each piece is then stepped serially.
+ * Elevators do not share any state while stepping, so the result is the
+ * same as stepping every elevator in order on one thread.
+ * When the building keeps its elevators in an ElevatorFleet, each piece is
+ * stepped with the fleet's own loop instead of through the views.
+ */
+class ElevatorStepTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  private final ElevatorInterface[] elevators;
+  private final ElevatorFleet fleet;
+  private final int from;
+  private final int to;
+  private final int threshold;
+
+  /**
+   * The constructor for the task.
+   *
+   * @param elevators the elevators of the building
+   * @param fleet     the fleet that holds the elevators, or null
+   * @param from      the first elevator to step (inclusive)
+   * @param to        the last elevator to step (exclusive)
+   * @param threshold the largest range that is stepped without splitting
+   */
+  ElevatorStepTask(ElevatorInterface[] elevators, ElevatorFleet fleet,
+                   int from, int to, int threshold) {
+    this.elevators = elevators;
+    this.fleet = fleet;
+    this.from = from;
+    this.to = to;
+    this.threshold = threshold;
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from <= threshold) {
+      if (fleet != null) {
+        fleet.step(from, to);
+        return;
+      }
+      for (int i = from; i < to; i++) {
+        elevators[i].step();
+      }
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    invokeAll(new ElevatorStepTask(elevators, fleet, from, middle, threshold),
+        new ElevatorStepTask(elevators, fleet, middle, to, threshold));
+  }
+}
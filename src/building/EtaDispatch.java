@@ -0,0 +1,100 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorInterface;
+import elevator.FloorRequestSet;
+import scanerzus.RequestBuffer;
+
+/**
+ * Estimated-time-of-arrival dispatch: the oldest request goes first, to the
+ * elevator that would reach its start floor soonest.  The estimate is the
+ * number of floors to travel plus STOP_TICKS for every stop the elevator
+ * already has on the way, counting the requests given to it in this call.
+ * Only elevators that can take the request are considered, so an elevator
+ * on a run is never sent back for a floor it has passed.
+ */
+public class EtaDispatch implements DispatchStrategy {
+  /**
+   * The ticks a stop adds to a run: the door is open for three ticks and
+   * the elevator spends a tick at the floor before it moves on.
+   */
+  static final int STOP_TICKS = 4;
+
+  private FloorRequestSet[] stops = new FloorRequestSet[0];
+  private int[] load = new int[0];
+
+  @Override
+  public void assign(Direction direction, RequestBuffer pending, ElevatorInterface[] cars,
+                     int carCount, int capacity, long currentTick, int[] assignment) {
+    int floors = cars[0].getFloorRequestSet().getNumberOfFloors();
+    if (stops.length < carCount || stops[0].getNumberOfFloors() != floors) {
+      stops = new FloorRequestSet[carCount];
+      for (int car = 0; car < carCount; car++) {
+        stops[car] = new FloorRequestSet(floors);
+      }
+      load = new int[carCount];
+    }
+    for (int car = 0; car < carCount; car++) {
+      stops[car].clear();
+      FloorRequestSet current = cars[car].getFloorRequestSet();
+      for (int floor = current.nextAbove(-1); floor != -1; floor = current.nextAbove(floor)) {
+        stops[car].add(floor);
+      }
+      load[car] = 0;
+    }
+
+    for (int i = 0; i < pending.size(); i++) {
+      int start = pending.getStartFloor(i);
+      int end = pending.getEndFloor(i);
+      int best = -1;
+      int bestEta = Integer.MAX_VALUE;
+      for (int car = 0; car < carCount; car++) {
+        ElevatorInterface elevator = cars[car];
+        if (load[car] >= capacity - elevator.getAssignedRequestCount()
+            || !elevator.canAcceptRequest(start, end)) {
+          continue;
+        }
+        int eta = estimate(elevator.getCurrentFloor(), start, stops[car]);
+        if (eta < bestEta || (eta == bestEta && load[car] < load[best])) {
+          best = car;
+          bestEta = eta;
+        }
+      }
+      if (best == -1) {
+        continue;
+      }
+      assignment[i] = best;
+      load[best]++;
+      stops[best].add(start);
+      stops[best].add(end);
+    }
+  }
+
+  /**
+   * Estimates the ticks an elevator needs to reach a floor.
+   *
+   * @param from  the floor of the elevator
+   * @param to    the floor to reach
+   * @param stops the stops of the elevator
+   * @return the travel plus STOP_TICKS for each stop strictly between the floors.
+   */
+  static int estimate(int from, int to, FloorRequestSet stops) {
+    int stopsOnTheWay = 0;
+    if (to > from) {
+      for (int floor = stops.nextAbove(from); floor != -1 && floor < to;
+           floor = stops.nextAbove(floor)) {
+        stopsOnTheWay++;
+      }
+    } else {
+      for (int floor = stops.nextBelow(from); floor > to; floor = stops.nextBelow(floor)) {
+        stopsOnTheWay++;
+      }
+    }
+    return Math.abs(to - from) + STOP_TICKS * stopsOnTheWay;
+  }
+
+  @Override
+  public String toString() {
+    return "ETA";
+  }
+}
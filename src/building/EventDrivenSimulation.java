@@ -0,0 +1,308 @@
+package building;
+
+import building.enums.ElevatorSystemStatus;
+import elevator.ElevatorInterface;
+import java.util.PriorityQueue;
+import scanerzus.Request;
+
+/**
+ * This class runs a building as a discrete-event simulation.
+ * Instead of stepping every elevator on every tick, it keeps each elevator's
+ * next interesting event (door closes, wait expires, arrives at a requested
+ * floor, reaches the top or bottom) in a priority queue and moves the clock
+ * straight to the earliest one.  Elevators that are only counting down a
+ * timer or travelling between floors are brought up to date lazily, in one
+ * skipTicks() call, when they are next needed.
+ * <p></p>
+ * Time t means the building after t calls to Building.step().  A request
+ * scheduled for tick t is added just before the step taken at time t, so
+ * getElevatorSystemStatus() at any time gives the same report as adding the
+ * same requests to a building and stepping it tick by tick.
+ * While requests are waiting to be distributed, or while the system is
+ * stopping, the engine steps the whole building one tick at a time.
+ * <p></p>
+ * The simulation owns the building: once it is created the building must
+ * only be stepped through the simulation.
+ */
+public class EventDrivenSimulation {
+  private final Building building;
+  private final ElevatorInterface[] elevators;
+
+  private long now;
+
+  /**
+   * For each elevator, the time it has been brought up to.
+   */
+  private final long[] syncedTo;
+
+  /**
+   * For each elevator, the time of its next event.
+   */
+  private final long[] eventAt;
+
+  /**
+   * A binary min-heap of elevator indexes ordered by eventAt.
+   */
+  private final int[] heap;
+
+  private final PriorityQueue<ScheduledRequest> arrivals;
+  private long nextSequence;
+
+  /**
+   * The constructor for the simulation.
+   *
+   * @param building the building to run, at time 0
+   * @throws IllegalArgumentException if the building is null
+   */
+  public EventDrivenSimulation(Building building) {
+    if (building == null) {
+      throw new IllegalArgumentException("building cannot be null");
+    }
+    this.building = building;
+    this.elevators = building.getElevators();
+    this.syncedTo = new long[elevators.length];
+    this.eventAt = new long[elevators.length];
+    this.heap = new int[elevators.length];
+    this.arrivals = new PriorityQueue<>();
+    this.now = 0;
+    this.rebuildEvents();
+  }
+
+  /**
+   * Returns the current time of the simulation.
+   *
+   * @return the number of ticks simulated so far.
+   */
+  public long getCurrentTick() {
+    return now;
+  }
+
+  /**
+   * Schedules a request to be added to the building at a tick.
+   * Requests scheduled for the same tick are added in the order they were scheduled.
+   *
+   * @param tick    the tick the request arrives at, not before the current tick
+   * @param request the request
+   * @throws IllegalArgumentException if the tick is in the past or the request is null
+   */
+  public void scheduleRequest(long tick, Request request) throws IllegalArgumentException {
+    if (tick < now) {
+      throw new IllegalArgumentException("tick cannot be in the past");
+    }
+    if (request == null) {
+      throw new IllegalArgumentException("Request cannot be null");
+    }
+    arrivals.add(new ScheduledRequest(tick, nextSequence++, request));
+  }
+
+  /**
+   * Starts the elevator system of the building at the current time.
+   *
+   * @return true if the building was out of service.
+   * @throws IllegalArgumentException if the building is stopping.
+   */
+  public boolean startElevatorSystem() throws IllegalArgumentException {
+    this.syncAll();
+    boolean started = building.startElevatorSystem();
+    this.rebuildEvents();
+    return started;
+  }
+
+  /**
+   * Stops the elevator system of the building at the current time.
+   */
+  public void stopElevatorSystem() {
+    this.syncAll();
+    building.stopElevatorSystem();
+    this.rebuildEvents();
+  }
+
+  /**
+   * Returns the time of the next event: an elevator event or a scheduled request.
+   * While the building is stepped tick by tick this is the next tick.
+   *
+   * @return the time of the next event, or Long.MAX_VALUE if nothing will happen.
+   */
+  public long nextEventTick() {
+    long next = arrivals.isEmpty() ? Long.MAX_VALUE : arrivals.peek().tick;
+    ElevatorSystemStatus status = building.getSystemStatus();
+    if (status == ElevatorSystemStatus.outOfService) {
+      return next;
+    }
+    if (status == ElevatorSystemStatus.stopping || building.hasPendingRequests()) {
+      return now;
+    }
+    return Math.min(next, eventAt[heap[0]]);
+  }
+
+  /**
+   * Runs the simulation up to a tick.
+   *
+   * @param tick the time to stop at
+   * @throws IllegalArgumentException if the tick is in the past, or if a
+   *                                  scheduled request is rejected by the building
+   */
+  public void runUntil(long tick) throws IllegalArgumentException {
+    if (tick < now) {
+      throw new IllegalArgumentException("tick cannot be in the past");
+    }
+    while (now < tick) {
+      building.setCurrentTick(now);
+      while (!arrivals.isEmpty() && arrivals.peek().tick == now) {
+        building.addRequest(arrivals.poll().request);
+      }
+
+      ElevatorSystemStatus status = building.getSystemStatus();
+      if (status == ElevatorSystemStatus.outOfService) {
+        // the building does not step its elevators, go straight to the
+        // next request and leave the elevators as they are.
+        long next = arrivals.isEmpty() ? Long.MAX_VALUE : arrivals.peek().tick;
+        now = Math.min(tick, next);
+        this.rebuildEvents();
+        continue;
+      }
+
+      if (status == ElevatorSystemStatus.stopping || building.hasPendingRequests()) {
+        this.syncAll();
+        building.step();
+        now++;
+        this.rebuildEvents();
+        continue;
+      }
+
+      long next = Math.min(tick, eventAt[heap[0]]);
+      if (!arrivals.isEmpty()) {
+        next = Math.min(next, arrivals.peek().tick);
+      }
+      if (next > now) {
+        now = next;
+        continue;
+      }
+
+      // step only the elevators that have an event now; every other
+      // elevator is in a quiet stretch and is brought up to date later.
+      while (eventAt[heap[0]] == now) {
+        int car = heap[0];
+        this.sync(car);
+        elevators[car].step();
+        building.trackStop(car);
+        syncedTo[car] = now + 1;
+        eventAt[car] = eventTime(car);
+        this.siftDown(0);
+      }
+      now++;
+    }
+    building.setCurrentTick(now);
+  }
+
+  /**
+   * Runs the simulation to its next event.
+   *
+   * @return the time of the event, or the current time if nothing will happen.
+   */
+  public long runToNextEvent() {
+    long next = this.nextEventTick();
+    if (next == Long.MAX_VALUE) {
+      return now;
+    }
+    this.runUntil(next == now ? now + 1 : next);
+    return now;
+  }
+
+  /**
+   * Returns the report of the building at the current time.
+   *
+   * @return a BuildingReport object.
+   */
+  public BuildingReport getElevatorSystemStatus() {
+    this.syncAll();
+    building.setCurrentTick(now);
+    return building.getElevatorSystemStatus();
+  }
+
+  /**
+   * Brings an elevator up to the current time.
+   *
+   * @param car the index of the elevator
+   */
+  private void sync(int car) {
+    long behind = now - syncedTo[car];
+    if (behind > 0) {
+      elevators[car].skipTicks((int) behind);
+      syncedTo[car] = now;
+    }
+  }
+
+  private void syncAll() {
+    for (int car = 0; car < elevators.length; car++) {
+      this.sync(car);
+    }
+  }
+
+  /**
+   * Returns the time of the next event of an elevator that is up to date.
+   *
+   * @param car the index of the elevator
+   * @return the time of the next event.
+   */
+  private long eventTime(int car) {
+    int quiet = elevators[car].ticksUntilNextEvent();
+    return quiet == Integer.MAX_VALUE ? Long.MAX_VALUE : syncedTo[car] + quiet;
+  }
+
+  /**
+   * Recomputes the events of every elevator after the building was stepped.
+   */
+  private void rebuildEvents() {
+    for (int car = 0; car < elevators.length; car++) {
+      syncedTo[car] = now;
+      eventAt[car] = eventTime(car);
+      heap[car] = car;
+    }
+    for (int i = heap.length / 2 - 1; i >= 0; i--) {
+      this.siftDown(i);
+    }
+  }
+
+  private void siftDown(int index) {
+    int car = heap[index];
+    long key = eventAt[car];
+    int half = heap.length >>> 1;
+    while (index < half) {
+      int child = 2 * index + 1;
+      int right = child + 1;
+      if (right < heap.length && eventAt[heap[right]] < eventAt[heap[child]]) {
+        child = right;
+      }
+      if (key <= eventAt[heap[child]]) {
+        break;
+      }
+      heap[index] = heap[child];
+      index = child;
+    }
+    heap[index] = car;
+  }
+
+  /**
+   * A request waiting for its tick.
+   */
+  private static final class ScheduledRequest implements Comparable<ScheduledRequest> {
+    private final long tick;
+    private final long sequence;
+    private final Request request;
+
+    private ScheduledRequest(long tick, long sequence, Request request) {
+      this.tick = tick;
+      this.sequence = sequence;
+      this.request = request;
+    }
+
+    @Override
+    public int compareTo(ScheduledRequest other) {
+      if (this.tick != other.tick) {
+        return Long.compare(this.tick, other.tick);
+      }
+      return Long.compare(this.sequence, other.sequence);
+    }
+  }
+}
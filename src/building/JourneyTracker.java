@@ -0,0 +1,179 @@
+package building;
+
+import java.util.Arrays;
+
+/**
+ * Follows each passenger from the tick their request arrives, through the
+ * tick their elevator picks them up, to the tick it drops them off, and
+ * records the wait, the ride and the whole journey in LatencyHistograms.
+ * The elevators only count passengers per floor, so the tracker keeps its
+ * own list of the journeys of each car, in one flat array per car that
+ * grows to the most journeys the car has had at once.  A journey is three
+ * longs: the start floor and end floor packed together, the arrival tick
+ * and the pickup tick.  A journey is forgotten once it has been recorded.
+ * The tracker copies what the elevators do at a stop: passengers for the
+ * floor get off first, then the waiting ones get on, oldest first, as long
+ * as there is room; the ones left over are left at the floor.
+ */
+final class JourneyTracker {
+  private static final long WAITING = -1;
+  private static final int JOURNEY = 3;
+  private static final int ARRIVAL = 1;
+  private static final int PICKUP = 2;
+
+  private final long[][] journeys;
+  private final int[] lengths;
+  private final int[] aboard;
+  private int inFlight;
+
+  final LatencyHistogram waitTimes = new LatencyHistogram();
+  final LatencyHistogram rideTimes = new LatencyHistogram();
+  final LatencyHistogram journeyTimes = new LatencyHistogram();
+
+  /**
+   * The constructor for a tracker of a number of cars.
+   *
+   * @param cars     the number of cars
+   * @param capacity the room to start with for the journeys of each car
+   */
+  JourneyTracker(int cars, int capacity) {
+    this.journeys = new long[cars][capacity * JOURNEY];
+    this.lengths = new int[cars];
+    this.aboard = new int[cars];
+  }
+
+  /**
+   * Are there no journeys in flight.
+   *
+   * @return true if every car is empty and has no one waiting for it.
+   */
+  boolean isEmpty() {
+    return inFlight == 0;
+  }
+
+  /**
+   * Adds the journey of a passenger given to a car.
+   *
+   * @param car         the car
+   * @param startFloor  the floor the passenger gets on
+   * @param endFloor    the floor the passenger gets off
+   * @param arrivalTick the tick the request arrived
+   */
+  void assigned(int car, int startFloor, int endFloor, long arrivalTick) {
+    int at = lengths[car];
+    long[] list = journeys[car];
+    if (at == list.length) {
+      list = Arrays.copyOf(list, Math.max(4 * JOURNEY, at * 2));
+      journeys[car] = list;
+    }
+    list[at] = (long) startFloor << 32 | endFloor;
+    list[at + ARRIVAL] = arrivalTick;
+    list[at + PICKUP] = WAITING;
+    lengths[car] = at + JOURNEY;
+    inFlight++;
+  }
+
+  /**
+   * Picks up a passenger just given to a car standing open at their floor.
+   *
+   * @param car  the car
+   * @param tick the tick
+   */
+  void boardedLast(int car, long tick) {
+    long[] list = journeys[car];
+    int last = lengths[car] - JOURNEY;
+    list[last + PICKUP] = tick;
+    waitTimes.record(tick - list[last + ARRIVAL]);
+    aboard[car]++;
+  }
+
+  /**
+   * Lets the passengers off and on at a floor where a car opened its door.
+   * This takes one pass over the journeys of the car, boarding as many as
+   * there was room for before anyone got off; only if someone was left
+   * behind is there a second pass, with the room the others left.
+   *
+   * @param car      the car
+   * @param floor    the floor
+   * @param capacity the most passengers the car holds
+   * @param tick     the tick the door opened
+   */
+  void stopped(int car, int floor, int capacity, long tick) {
+    long[] list = journeys[car];
+    int length = lengths[car];
+    int room = capacity - aboard[car];
+    boolean leftBehind = false;
+    int kept = 0;
+    for (int i = 0; i < length; i += JOURNEY) {
+      long pickup = list[i + PICKUP];
+      if (pickup != WAITING) {
+        if ((int) list[i] == floor) {
+          rideTimes.record(tick - pickup);
+          journeyTimes.record(tick - list[i + ARRIVAL]);
+          aboard[car]--;
+          continue;
+        }
+      } else if ((int) (list[i] >>> 32) == floor) {
+        if (room > 0) {
+          room--;
+          list[i + PICKUP] = tick;
+          waitTimes.record(tick - list[i + ARRIVAL]);
+          aboard[car]++;
+        } else {
+          leftBehind = true;
+        }
+      }
+      move(list, i, kept);
+      kept += JOURNEY;
+    }
+
+    if (leftBehind) {
+      room = capacity - aboard[car];
+      length = kept;
+      kept = 0;
+      for (int i = 0; i < length; i += JOURNEY) {
+        if (list[i + PICKUP] == WAITING && (int) (list[i] >>> 32) == floor) {
+          if (room <= 0) {
+            continue;
+          }
+          room--;
+          list[i + PICKUP] = tick;
+          waitTimes.record(tick - list[i + ARRIVAL]);
+          aboard[car]++;
+        }
+        move(list, i, kept);
+        kept += JOURNEY;
+      }
+    }
+    inFlight -= (lengths[car] - kept) / JOURNEY;
+    lengths[car] = kept;
+  }
+
+  private static void move(long[] list, int from, int to) {
+    if (from != to) {
+      list[to] = list[from];
+      list[to + ARRIVAL] = list[from + ARRIVAL];
+      list[to + PICKUP] = list[from + PICKUP];
+    }
+  }
+
+  /**
+   * Forgets the journeys of a car, when the car forgets its passengers.
+   *
+   * @param car the car
+   */
+  void clear(int car) {
+    inFlight -= lengths[car] / JOURNEY;
+    lengths[car] = 0;
+    aboard[car] = 0;
+  }
+
+  /**
+   * Forgets the journeys of every car.
+   */
+  void clearAll() {
+    Arrays.fill(lengths, 0);
+    Arrays.fill(aboard, 0);
+    inFlight = 0;
+  }
+}
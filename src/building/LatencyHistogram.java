@@ -0,0 +1,123 @@
+package building;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values, such as waits in ticks, in a fixed
+ * amount of memory however many values are recorded.
+ * Values below 128 each have a bucket of their own.  Above that the
+ * buckets are log spaced: every power of two is split into 64 buckets, so
+ * a percentile is at most 1/64 of its value above the value recorded.  All
+ * the buckets for every long value take 3712 counts.
+ * Values are recorded by one thread at a time, with plain reads and
+ * ordered writes rather than atomic increments, so recording costs little
+ * more than a write to memory.  Any thread can read percentiles while
+ * another records; a reader may see a value the count does not include yet.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a value.  Only one thread may record at a time.
+   *
+   * @param value the value, must not be negative
+   * @throws IllegalArgumentException if the value is negative.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value cannot be negative");
+    }
+    int bucket = bucket(value);
+    counts.lazySet(bucket, counts.get(bucket) + 1);
+    count.lazySet(count.get() + 1);
+    if (value > max.get()) {
+      max.lazySet(value);
+    }
+  }
+
+  /**
+   * Returns the number of values recorded.
+   *
+   * @return the count.
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the largest value recorded.
+   *
+   * @return the largest value, 0 if none has been recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the value at a percentile: the largest value in the bucket that
+   * holds the value that many percent of the values are at or below.
+   *
+   * @param percentile the percentile, 0 to 100
+   * @return the value, 0 if none has been recorded.
+   * @throws IllegalArgumentException if the percentile is out of range.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("percentile must be between 0 and 100");
+    }
+    long total = count.get();
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highestInBucket(i), this.getMax());
+      }
+    }
+    return this.getMax();
+  }
+
+  /**
+   * Forgets every value recorded.  Values recorded by another thread while
+   * this runs may be half forgotten.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.set(0);
+    max.set(0);
+  }
+
+  /**
+   * Returns the bucket of a value.  A value below 2 * SUB_BUCKETS is its
+   * own bucket; above that the value is shifted down until it has
+   * SUB_BUCKET_BITS + 1 bits, and each shift starts SUB_BUCKETS further on.
+   */
+  static int bucket(long value) {
+    int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  /**
+   * Returns the largest value that goes in a bucket.
+   */
+  static long highestInBucket(int bucket) {
+    if (bucket < 2 * SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+    long sub = bucket - ((long) shift << SUB_BUCKET_BITS);
+    return ((sub + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,56 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorInterface;
+import scanerzus.RequestBuffer;
+
+/**
+ * Nearest-car dispatch: the oldest request goes first, to the elevator
+ * closest to its start floor that still has room and can take it, either
+ * waiting at the bottom or top or on a run that has not passed the floor.  Ties go to the elevator
+ * with the fewest requests so far, so elevators waiting at the same floor
+ * share the requests instead of the first one taking a full load.
+ */
+public class NearestCarDispatch implements DispatchStrategy {
+  private int[] load = new int[0];
+
+  @Override
+  public void assign(Direction direction, RequestBuffer pending, ElevatorInterface[] cars,
+                     int carCount, int capacity, long currentTick, int[] assignment) {
+    if (load.length < carCount) {
+      load = new int[carCount];
+    }
+    for (int car = 0; car < carCount; car++) {
+      load[car] = 0;
+    }
+
+    for (int i = 0; i < pending.size(); i++) {
+      int start = pending.getStartFloor(i);
+      int end = pending.getEndFloor(i);
+      int best = -1;
+      int bestDistance = Integer.MAX_VALUE;
+      for (int car = 0; car < carCount; car++) {
+        ElevatorInterface elevator = cars[car];
+        if (load[car] >= capacity - elevator.getAssignedRequestCount()
+            || !elevator.canAcceptRequest(start, end)) {
+          continue;
+        }
+        int distance = Math.abs(elevator.getCurrentFloor() - start);
+        if (distance < bestDistance || (distance == bestDistance && load[car] < load[best])) {
+          best = car;
+          bestDistance = distance;
+        }
+      }
+      if (best == -1) {
+        continue;
+      }
+      assignment[i] = best;
+      load[best]++;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Nearest Car";
+  }
+}
@@ -0,0 +1,181 @@
+package building;
+
+import building.enums.RequestStatus;
+import java.util.Arrays;
+
+/**
+ * This class is the result of adding a batch of requests to a building.
+ * It holds the number of requests that were accepted and, for each request
+ * that was not, its index in the batch and the reason.  When every request
+ * is accepted no arrays are allocated, and when the building was not
+ * accepting requests at all the whole batch shares one reason.
+ */
+public final class RequestBatchResult {
+  private final int submittedCount;
+  private int acceptedCount;
+
+  /**
+   * The reason every request was rejected, or null if they were looked at one by one.
+   */
+  private final RequestStatus batchStatus;
+
+  private int[] rejectedIndexes;
+  private RequestStatus[] rejectedStatuses;
+  private int rejectedCount;
+
+  private RequestBatchResult(int submittedCount, RequestStatus batchStatus) {
+    this.submittedCount = submittedCount;
+    this.batchStatus = batchStatus;
+  }
+
+  /**
+   * Returns a result that is filled in as the batch is validated.
+   *
+   * @param submittedCount the number of requests in the batch
+   * @return an empty result.
+   */
+  static RequestBatchResult forBatch(int submittedCount) {
+    return new RequestBatchResult(submittedCount, null);
+  }
+
+  /**
+   * Returns a result where every request of the batch was rejected for the same reason.
+   *
+   * @param submittedCount the number of requests in the batch
+   * @param status         the reason
+   * @return the result.
+   */
+  static RequestBatchResult allRejected(int submittedCount, RequestStatus status) {
+    return new RequestBatchResult(submittedCount, status);
+  }
+
+  void accept() {
+    acceptedCount++;
+  }
+
+  void reject(int index, RequestStatus status) {
+    if (rejectedIndexes == null) {
+      rejectedIndexes = new int[8];
+      rejectedStatuses = new RequestStatus[8];
+    } else if (rejectedCount == rejectedIndexes.length) {
+      rejectedIndexes = Arrays.copyOf(rejectedIndexes, rejectedCount * 2);
+      rejectedStatuses = Arrays.copyOf(rejectedStatuses, rejectedCount * 2);
+    }
+    rejectedIndexes[rejectedCount] = index;
+    rejectedStatuses[rejectedCount] = status;
+    rejectedCount++;
+  }
+
+  /**
+   * Returns the number of requests in the batch.
+   *
+   * @return the number of requests submitted.
+   */
+  public int getSubmittedCount() {
+    return submittedCount;
+  }
+
+  /**
+   * Returns the number of requests that were added to the building.
+   *
+   * @return the number of requests accepted.
+   */
+  public int getAcceptedCount() {
+    return acceptedCount;
+  }
+
+  /**
+   * Returns the number of requests that were not added to the building.
+   *
+   * @return the number of requests rejected.
+   */
+  public int getRejectedCount() {
+    return submittedCount - acceptedCount;
+  }
+
+  /**
+   * Were all the requests of the batch added.
+   *
+   * @return true if no request was rejected.
+   */
+  public boolean allAccepted() {
+    return acceptedCount == submittedCount;
+  }
+
+  /**
+   * Returns the index in the batch of a rejected request.
+   *
+   * @param rejected the position among the rejected requests, in batch order
+   * @return the index of the request in the batch.
+   * @throws IndexOutOfBoundsException if rejected is not below getRejectedCount()
+   */
+  public int getRejectedIndex(int rejected) {
+    this.checkRejected(rejected);
+    return batchStatus != null ? rejected : rejectedIndexes[rejected];
+  }
+
+  /**
+   * Returns why a rejected request was not added.
+   *
+   * @param rejected the position among the rejected requests, in batch order
+   * @return the reason the request was rejected.
+   * @throws IndexOutOfBoundsException if rejected is not below getRejectedCount()
+   */
+  public RequestStatus getRejectedStatus(int rejected) {
+    this.checkRejected(rejected);
+    return batchStatus != null ? batchStatus : rejectedStatuses[rejected];
+  }
+
+  /**
+   * Returns what happened to a request of the batch.
+   *
+   * @param index the index of the request in the batch
+   * @return RequestStatus.accepted, or the reason the request was rejected.
+   * @throws IndexOutOfBoundsException if index is not a request of the batch
+   */
+  public RequestStatus getStatus(int index) {
+    if (index < 0 || index >= submittedCount) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + submittedCount);
+    }
+    if (batchStatus != null) {
+      return batchStatus;
+    }
+    int found = rejectedIndexes == null ? -1
+        : Arrays.binarySearch(rejectedIndexes, 0, rejectedCount, index);
+    return found < 0 ? RequestStatus.accepted : rejectedStatuses[found];
+  }
+
+  private void checkRejected(int rejected) {
+    if (rejected < 0 || rejected >= this.getRejectedCount()) {
+      throw new IndexOutOfBoundsException("Index: " + rejected
+          + ", Size: " + this.getRejectedCount());
+    }
+  }
+
+  /**
+   * Returns a string representation of the result.
+   * This is a string of the form: "Accepted 3 of 5, Rejected: 1 Same Floor, 4 Bad Floor"
+   *
+   * @return a string representation of the result.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("Accepted ")
+        .append(acceptedCount).append(" of ").append(submittedCount);
+    int rejected = this.getRejectedCount();
+    if (rejected > 0) {
+      sb.append(", Rejected: ");
+      if (batchStatus != null) {
+        sb.append("all ").append(batchStatus);
+      } else {
+        for (int i = 0; i < rejected; i++) {
+          if (i > 0) {
+            sb.append(", ");
+          }
+          sb.append(rejectedIndexes[i]).append(' ').append(rejectedStatuses[i]);
+        }
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,124 @@
+package building;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded lock-free queue of requests with many producers and one consumer.
+ * Scanner threads offer requests at the same time without taking a lock; the
+ * thread that steps the building is the only one that polls them.
+ * Each slot has a sequence number that says whose turn it is: a producer
+ * claims a slot by moving the tail forward with a compare-and-set, writes the
+ * request and then publishes it by advancing the sequence; the consumer only
+ * reads a slot once its sequence shows the write is complete.
+ * A request is kept as one long, the start floor in the high half and the end
+ * floor in the low half, so offering and polling do not allocate.
+ */
+final class RequestInbox {
+  /**
+   * Returned by poll() when the inbox is empty.
+   */
+  static final long EMPTY = -1L;
+
+  private final long[] entries;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail;
+
+  /**
+   * The next position to poll, only used by the consumer.
+   */
+  private long head;
+
+  /**
+   * The constructor for an empty inbox.
+   *
+   * @param capacity the number of requests the inbox can hold, a power of two.
+   * @throws IllegalArgumentException if capacity is not a positive power of two
+   */
+  RequestInbox(int capacity) {
+    if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("capacity must be a power of two");
+    }
+    this.entries = new long[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+    this.mask = capacity - 1;
+    this.tail = new AtomicLong();
+  }
+
+  /**
+   * Adds a request to the inbox.  Safe to call from any thread.
+   *
+   * @param startFloor the start floor of the request, not negative
+   * @param endFloor   the end floor of the request, not negative
+   * @return true if the request was added, false if the inbox is full.
+   */
+  boolean offer(int startFloor, int endFloor) {
+    long position = tail.get();
+    while (true) {
+      int slot = (int) position & mask;
+      long difference = sequences.get(slot) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          entries[slot] = pack(startFloor, endFloor);
+          sequences.lazySet(slot, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Removes the oldest request from the inbox.  Only the consumer thread may call this.
+   *
+   * @return the request packed by pack(), or EMPTY if there is none.
+   */
+  long poll() {
+    int slot = (int) head & mask;
+    if (sequences.get(slot) != head + 1) {
+      return EMPTY;
+    }
+    long entry = entries[slot];
+    sequences.lazySet(slot, head + mask + 1);
+    head++;
+    return entry;
+  }
+
+  /**
+   * Is the inbox empty.  A request that is still being written counts as not yet added.
+   *
+   * @return true if there is nothing to poll.
+   */
+  boolean isEmpty() {
+    return sequences.get((int) head & mask) != head + 1;
+  }
+
+  /**
+   * Returns the number of requests the inbox can hold.
+   *
+   * @return the capacity of the inbox.
+   */
+  int capacity() {
+    return mask + 1;
+  }
+
+  static long pack(int startFloor, int endFloor) {
+    return ((long) startFloor << 32) | (endFloor & 0xFFFFFFFFL);
+  }
+
+  static int startFloor(long entry) {
+    return (int) (entry >>> 32);
+  }
+
+  static int endFloor(long entry) {
+    return (int) entry;
+  }
+}
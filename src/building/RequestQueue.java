@@ -0,0 +1,200 @@
+package building;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import scanerzus.Request;
+import scanerzus.RequestBuffer;
+
+/**
+ * A first-in first-out queue of requests backed by a ring buffer.
+ * Each request is kept as its startFloor, endFloor, arrival tick and id in
+ * parallel primitive arrays, so adding and removing requests does not
+ * allocate once the queue has grown to its working size.
+ * Adding at the back and removing from the front are constant time, and
+ * drainTo() hands the oldest k requests to an elevator in O(k).
+ * The queue is also a read only List in arrival order, so a BuildingReport
+ * can iterate it without copying; get() returns a new Request each time.
+ */
+final class RequestQueue extends AbstractList<Request> implements RandomAccess {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private int[] startFloors;
+  private int[] endFloors;
+  private long[] arrivalTicks;
+  private long[] ids;
+  private int head;
+  private int size;
+
+  /**
+   * The constructor for an empty queue.
+   */
+  RequestQueue() {
+    this.startFloors = new int[INITIAL_CAPACITY];
+    this.endFloors = new int[INITIAL_CAPACITY];
+    this.arrivalTicks = new long[INITIAL_CAPACITY];
+    this.ids = new long[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Adds a request at the back of the queue.
+   *
+   * @param startFloor  the start floor of the request
+   * @param endFloor    the end floor of the request
+   * @param arrivalTick the tick the request arrived at
+   * @param id          the id of the request
+   */
+  void add(int startFloor, int endFloor, long arrivalTick, long id) {
+    if (size == startFloors.length) {
+      this.grow();
+    }
+    int slot = (head + size) & (startFloors.length - 1);
+    startFloors[slot] = startFloor;
+    endFloors[slot] = endFloor;
+    arrivalTicks[slot] = arrivalTick;
+    ids[slot] = id;
+    size++;
+    modCount++;
+  }
+
+  /**
+   * Puts a request back at the front of the queue, so it is the next one out.
+   *
+   * @param startFloor  the start floor of the request
+   * @param endFloor    the end floor of the request
+   * @param arrivalTick the tick the request arrived at
+   * @param id          the id of the request
+   */
+  void addFirst(int startFloor, int endFloor, long arrivalTick, long id) {
+    if (size == startFloors.length) {
+      this.grow();
+    }
+    head = (head - 1) & (startFloors.length - 1);
+    startFloors[head] = startFloor;
+    endFloors[head] = endFloor;
+    arrivalTicks[head] = arrivalTick;
+    ids[head] = id;
+    size++;
+    modCount++;
+  }
+
+  /**
+   * Moves up to max requests from the front of the queue to a buffer, oldest first.
+   *
+   * @param target the buffer to add the requests to
+   * @param max    the largest number of requests to move
+   * @return the number of requests moved.
+   */
+  int drainTo(RequestBuffer target, int max) {
+    int count = Math.min(max, size);
+    int mask = startFloors.length - 1;
+    for (int i = 0; i < count; i++) {
+      int slot = (head + i) & mask;
+      target.add(startFloors[slot], endFloors[slot], arrivalTicks[slot], ids[slot]);
+    }
+    head = (head + count) & mask;
+    size -= count;
+    modCount++;
+    return count;
+  }
+
+  /**
+   * Gets the start floor of a request.
+   *
+   * @param index the position of the request, 0 is the oldest
+   * @return the start floor of the request.
+   */
+  int getStartFloor(int index) {
+    return startFloors[this.slot(index)];
+  }
+
+  /**
+   * Gets the end floor of a request.
+   *
+   * @param index the position of the request, 0 is the oldest
+   * @return the end floor of the request.
+   */
+  int getEndFloor(int index) {
+    return endFloors[this.slot(index)];
+  }
+
+  /**
+   * Gets the tick a request arrived at.
+   *
+   * @param index the position of the request, 0 is the oldest
+   * @return the arrival tick of the request.
+   */
+  long getArrivalTick(int index) {
+    return arrivalTicks[this.slot(index)];
+  }
+
+  /**
+   * Gets the id of a request.
+   *
+   * @param index the position of the request, 0 is the oldest
+   * @return the id of the request.
+   */
+  long getId(int index) {
+    return ids[this.slot(index)];
+  }
+
+  @Override
+  public Request get(int index) {
+    int slot = this.slot(index);
+    return new Request(startFloors[slot], endFloors[slot]);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    head = 0;
+    size = 0;
+    modCount++;
+  }
+
+  private int slot(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return (head + index) & (startFloors.length - 1);
+  }
+
+  /**
+   * Returns the number of times the queue has been changed, so a copy of
+   * the queue can tell whether it is still up to date.
+   *
+   * @return the modification count of the queue.
+   */
+  int modificationCount() {
+    return modCount;
+  }
+
+  /**
+   * Doubles the ring buffer, moving the requests so the front is at index 0.
+   */
+  private void grow() {
+    int capacity = startFloors.length * 2;
+    startFloors = this.unwrap(startFloors, new int[capacity]);
+    endFloors = this.unwrap(endFloors, new int[capacity]);
+    arrivalTicks = this.unwrap(arrivalTicks, new long[capacity]);
+    ids = this.unwrap(ids, new long[capacity]);
+    head = 0;
+  }
+
+  private int[] unwrap(int[] from, int[] to) {
+    int front = from.length - head;
+    System.arraycopy(from, head, to, 0, front);
+    System.arraycopy(from, 0, to, front, head);
+    return to;
+  }
+
+  private long[] unwrap(long[] from, long[] to) {
+    int front = from.length - head;
+    System.arraycopy(from, head, to, 0, front);
+    System.arraycopy(from, 0, to, front, head);
+    return to;
+  }
+}
@@ -0,0 +1,33 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorInterface;
+import scanerzus.RequestBuffer;
+
+/**
+ * The original dispatch: each elevator waiting at the bottom or top floor
+ * takes the next elevatorCapacity of the oldest requests, in elevator order.
+ * Elevators already on a run are not given requests.
+ * This is the default strategy of a building.
+ */
+public class TerminalDispatch implements DispatchStrategy {
+
+  @Override
+  public void assign(Direction direction, RequestBuffer pending, ElevatorInterface[] cars,
+                     int carCount, int capacity, long currentTick, int[] assignment) {
+    int next = 0;
+    for (int car = 0; car < carCount && next < pending.size(); car++) {
+      if (!cars[car].isTakingRequests()) {
+        continue;
+      }
+      for (int taken = 0; taken < capacity && next < pending.size(); taken++) {
+        assignment[next++] = car;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Terminal";
+  }
+}
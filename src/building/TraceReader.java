@@ -0,0 +1,426 @@
+package building;
+
+import building.enums.Direction;
+import elevator.ElevatorReport;
+import elevator.FloorRequestSet;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a trace written by TraceRecorder.
+ * The frames are memory mapped, a window at a time, so a trace larger than
+ * the heap can be read.  The reader keeps the state of the building as of
+ * its current tick: seek() jumps to the keyframe at or before a tick through
+ * the sparse index and applies the deltas after it, and next() applies one
+ * delta at a time.  Only the ticks the building published are in a trace.
+ */
+public class TraceReader implements Closeable {
+  /**
+   * The size of the part of the file mapped at once, a whole number of
+   * records so no record is split between two windows.
+   */
+  private static final long WINDOW_SIZE = (long) DeltaRecords.RECORD_SIZE << 25;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final FileChannel channel;
+  private final int numberOfFloors;
+  private final int numberOfElevators;
+  private final int keyframeInterval;
+  private final long framesEnd;
+  private final long lastTick;
+  private final long[] keyframeTicks;
+  private final long[] keyframeOffsets;
+  private final ByteBuffer[] windows;
+
+  private final int[] floor;
+  private final byte[] direction;
+  private final byte[] flags;
+  private final int[] doorOpenTimer;
+  private final int[] endWaitTimer;
+  private final long[] words;
+  private final int wordsPerCar;
+  private int upRequests;
+  private int downRequests;
+
+  /**
+   * The offset of the next frame to read, the tick of the building, and the
+   * offset and size of the records of the last delta read by next().
+   */
+  private long position;
+  private long tick = -1;
+  private long deltaOffset;
+  private int deltaCount;
+
+  /**
+   * The constructor for a reader, positioned before the first frame.
+   *
+   * @param file the trace file
+   * @throws IOException              if the file cannot be read.
+   * @throws IllegalArgumentException if the file is not a trace this reader understands.
+   */
+  public TraceReader(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    ByteBuffer header = ByteBuffer.allocate(TraceRecorder.HEADER_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    channel.read(header, 0);
+    if (header.position() < TraceRecorder.HEADER_SIZE
+        || header.getInt(0) != TraceRecorder.MAGIC) {
+      channel.close();
+      throw new IllegalArgumentException("Not a trace file");
+    }
+    if (header.getInt(4) != TraceRecorder.VERSION
+        || header.getInt(8) != DeltaRecords.RECORD_SIZE) {
+      channel.close();
+      throw new IllegalArgumentException("Unsupported trace version " + header.getInt(4));
+    }
+    this.numberOfFloors = header.getInt(12);
+    this.numberOfElevators = header.getInt(16);
+    this.keyframeInterval = header.getInt(20);
+    long end = header.getLong(24);
+    long fileSize = channel.size();
+    int windowCount = (int) ((Math.max(end, fileSize) - TraceRecorder.HEADER_SIZE
+        + WINDOW_SIZE - 1) / WINDOW_SIZE);
+    this.windows = new ByteBuffer[windowCount];
+
+    if (end != 0) {
+      int keyframes = header.getInt(32);
+      ByteBuffer index = ByteBuffer.allocate(keyframes * 16).order(ByteOrder.LITTLE_ENDIAN);
+      channel.read(index, end);
+      this.keyframeTicks = new long[keyframes];
+      this.keyframeOffsets = new long[keyframes];
+      for (int i = 0; i < keyframes; i++) {
+        keyframeTicks[i] = index.getLong(i * 16);
+        keyframeOffsets[i] = index.getLong(i * 16 + 8);
+      }
+      this.framesEnd = end;
+      this.lastTick = header.getLong(40);
+    } else {
+      // not closed: walk the frames to find the keyframes and the end.
+      List<long[]> found = new ArrayList<>();
+      long offset = TraceRecorder.HEADER_SIZE;
+      long last = -1;
+      while (offset + DeltaRecords.RECORD_SIZE <= fileSize
+          && this.type(offset) == TraceRecorder.FRAME) {
+        long next = offset + (1L + this.frameCount(offset)) * DeltaRecords.RECORD_SIZE;
+        if (next > fileSize || !this.isWritten(offset)) {
+          break;
+        }
+        if (this.frameKind(offset) == TraceRecorder.KEYFRAME) {
+          found.add(new long[] {this.frameTick(offset), offset});
+        }
+        last = this.frameTick(offset);
+        offset = next;
+      }
+      this.keyframeTicks = new long[found.size()];
+      this.keyframeOffsets = new long[found.size()];
+      for (int i = 0; i < found.size(); i++) {
+        keyframeTicks[i] = found.get(i)[0];
+        keyframeOffsets[i] = found.get(i)[1];
+      }
+      this.framesEnd = offset;
+      this.lastTick = last;
+    }
+
+    this.floor = new int[numberOfElevators];
+    this.direction = new byte[numberOfElevators];
+    this.flags = new byte[numberOfElevators];
+    this.doorOpenTimer = new int[numberOfElevators];
+    this.endWaitTimer = new int[numberOfElevators];
+    this.wordsPerCar = FloorRequestSet.wordsFor(numberOfFloors);
+    this.words = new long[numberOfElevators * wordsPerCar];
+    this.position = TraceRecorder.HEADER_SIZE;
+  }
+
+  /**
+   * Returns the number of floors of the recorded building.
+   *
+   * @return the number of floors.
+   */
+  public int getNumFloors() {
+    return numberOfFloors;
+  }
+
+  /**
+   * Returns the number of elevators of the recorded building.
+   *
+   * @return the number of elevators.
+   */
+  public int getNumElevators() {
+    return numberOfElevators;
+  }
+
+  /**
+   * Returns the number of ticks between keyframes.
+   *
+   * @return the keyframe interval.
+   */
+  public int getKeyframeInterval() {
+    return keyframeInterval;
+  }
+
+  /**
+   * Returns the number of keyframes in the index.
+   *
+   * @return the number of keyframes.
+   */
+  public int getKeyframeCount() {
+    return keyframeTicks.length;
+  }
+
+  /**
+   * Returns the tick of the last frame of the trace.
+   *
+   * @return the last tick, -1 if the trace is empty.
+   */
+  public long getLastTick() {
+    return lastTick;
+  }
+
+  /**
+   * Returns the tick the reader is at, -1 before the first frame.
+   *
+   * @return the current tick.
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Moves to the state of the building at the end of a tick: the nearest
+   * keyframe at or before it, then every frame up to it.
+   * The reader lands on the last frame at or before the target, which is
+   * the target only if the building published that tick.  advance() and
+   * advanceUntilIdle() skip ticks without publishing, so a seek into such a
+   * gap lands on the last tick before it; getTick() tells which tick it is.
+   *
+   * @param target the tick to move to
+   * @throws IllegalArgumentException if the trace has no keyframe at or before target.
+   */
+  public void seek(long target) {
+    int found = Arrays.binarySearch(keyframeTicks, target);
+    if (found < 0) {
+      found = -found - 2;
+    } else {
+      // several keyframes can share a tick, take the last.
+      while (found + 1 < keyframeTicks.length && keyframeTicks[found + 1] == target) {
+        found++;
+      }
+    }
+    if (found < 0) {
+      throw new IllegalArgumentException("No keyframe at or before tick " + target);
+    }
+    position = keyframeOffsets[found];
+    this.apply();
+    while (position < framesEnd && this.frameTick(position) <= target) {
+      this.apply();
+    }
+    deltaCount = 0;
+  }
+
+  /**
+   * Moves to the next delta, applying any keyframe on the way.
+   *
+   * @return false if there are no more deltas.
+   */
+  public boolean next() {
+    while (position < framesEnd) {
+      boolean delta = this.frameKind(position) == TraceRecorder.DELTA_FRAME;
+      this.apply();
+      if (delta) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the records of the delta last read by next(), laid out as in
+   * DeltaRecords.  After seek() there are none.
+   *
+   * @return the records, little endian.
+   */
+  public ByteBuffer getDelta() {
+    int length = deltaCount * DeltaRecords.RECORD_SIZE;
+    if (length == 0) {
+      return ByteBuffer.allocate(0).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    ByteBuffer window = this.window(deltaOffset);
+    int at = this.offsetInWindow(deltaOffset);
+    if (at + length <= window.capacity()) {
+      return window.duplicate().position(at).limit(at + length).slice()
+          .order(ByteOrder.LITTLE_ENDIAN);
+    }
+    ByteBuffer copy = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    for (long offset = deltaOffset; copy.hasRemaining(); offset += DeltaRecords.RECORD_SIZE) {
+      ByteBuffer from = this.window(offset);
+      copy.put(from.duplicate().position(this.offsetInWindow(offset))
+          .limit(this.offsetInWindow(offset) + DeltaRecords.RECORD_SIZE));
+    }
+    return copy.flip();
+  }
+
+  /**
+   * Returns the state of an elevator at the current tick.
+   *
+   * @param elevator the id of the elevator
+   * @return a report of the elevator.
+   * @throws IllegalArgumentException if there is no such elevator.
+   */
+  public ElevatorReport getElevatorReport(int elevator) {
+    if (elevator < 0 || elevator >= numberOfElevators) {
+      throw new IllegalArgumentException("Invalid elevator " + elevator);
+    }
+    FloorRequestSet stops = new FloorRequestSet(numberOfFloors);
+    for (int w = 0; w < wordsPerCar; w++) {
+      for (long word = words[elevator * wordsPerCar + w]; word != 0; word &= word - 1) {
+        stops.add(w * 64 + Long.numberOfTrailingZeros(word));
+      }
+    }
+    return new ElevatorReport(elevator, floor[elevator], DIRECTIONS[direction[elevator]],
+        (flags[elevator] & DeltaRecords.DOOR_CLOSED) != 0, stops, doorOpenTimer[elevator],
+        endWaitTimer[elevator], (flags[elevator] & DeltaRecords.OUT_OF_SERVICE) != 0,
+        (flags[elevator] & DeltaRecords.TAKING_REQUESTS) != 0);
+  }
+
+  /**
+   * Returns the number of up requests waiting at the current tick.
+   *
+   * @return the number of pending up requests.
+   */
+  public int getUpRequestCount() {
+    return upRequests;
+  }
+
+  /**
+   * Returns the number of down requests waiting at the current tick.
+   *
+   * @return the number of pending down requests.
+   */
+  public int getDownRequestCount() {
+    return downRequests;
+  }
+
+  /**
+   * Applies the frame at position and moves past it.  A keyframe replaces
+   * the whole state.
+   */
+  private void apply() {
+    long frame = position;
+    int count = this.frameCount(frame);
+    tick = this.frameTick(frame);
+    if (this.frameKind(frame) == TraceRecorder.KEYFRAME) {
+      Arrays.fill(words, 0L);
+      upRequests = 0;
+      downRequests = 0;
+    }
+    deltaOffset = frame + DeltaRecords.RECORD_SIZE;
+    deltaCount = count;
+    for (int i = 0; i < count; i++) {
+      long offset = deltaOffset + (long) i * DeltaRecords.RECORD_SIZE;
+      ByteBuffer records = this.window(offset);
+      int index = this.offsetInWindow(offset) / DeltaRecords.RECORD_SIZE;
+      switch (DeltaRecords.type(records, index)) {
+        case DeltaRecords.CAR:
+          int car = DeltaRecords.elevator(records, index);
+          floor[car] = DeltaRecords.floor(records, index);
+          direction[car] = (byte) DeltaRecords.direction(records, index).ordinal();
+          flags[car] = records.get(this.offsetInWindow(offset) + 2);
+          doorOpenTimer[car] = DeltaRecords.doorOpenTimer(records, index);
+          endWaitTimer[car] = DeltaRecords.endWaitTimer(records, index);
+          break;
+        case DeltaRecords.STOPS:
+          words[DeltaRecords.elevator(records, index) * wordsPerCar
+              + DeltaRecords.wordIndex(records, index)] = DeltaRecords.word(records, index);
+          break;
+        case DeltaRecords.REQUEST_ADDED:
+        case DeltaRecords.REQUEST_REMOVED:
+          int change = DeltaRecords.type(records, index) == DeltaRecords.REQUEST_ADDED ? 1 : -1;
+          if (DeltaRecords.direction(records, index) == Direction.UP) {
+            upRequests += change;
+          } else {
+            downRequests += change;
+          }
+          break;
+        case DeltaRecords.QUEUE_CLEARED:
+          if (DeltaRecords.direction(records, index) == Direction.UP) {
+            upRequests = 0;
+          } else {
+            downRequests = 0;
+          }
+          break;
+        default:
+          throw new IllegalStateException("Unknown record type "
+              + DeltaRecords.type(records, index) + " in the frame at tick " + tick);
+      }
+    }
+    position = deltaOffset + (long) count * DeltaRecords.RECORD_SIZE;
+  }
+
+  /**
+   * Are all the records of a frame written.  The recorder grows the file
+   * with zeros as it maps it, so the last frame of a trace that was not
+   * closed can have records of type 0 that were never written.
+   */
+  private boolean isWritten(long frame) {
+    int count = this.frameCount(frame);
+    for (int i = 1; i <= count; i++) {
+      byte type = this.type(frame + (long) i * DeltaRecords.RECORD_SIZE);
+      if (type < DeltaRecords.CAR || type > DeltaRecords.QUEUE_CLEARED) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private byte type(long offset) {
+    return this.window(offset).get(this.offsetInWindow(offset));
+  }
+
+  private byte frameKind(long offset) {
+    return this.window(offset).get(this.offsetInWindow(offset) + 1);
+  }
+
+  private int frameCount(long offset) {
+    return this.window(offset).getInt(this.offsetInWindow(offset) + 4);
+  }
+
+  private long frameTick(long offset) {
+    return this.window(offset).getLong(this.offsetInWindow(offset) + 8);
+  }
+
+  private int offsetInWindow(long offset) {
+    return (int) ((offset - TraceRecorder.HEADER_SIZE) % WINDOW_SIZE);
+  }
+
+  /**
+   * Returns the window that holds a record, mapping it the first time.
+   */
+  private ByteBuffer window(long offset) {
+    int index = (int) ((offset - TraceRecorder.HEADER_SIZE) / WINDOW_SIZE);
+    if (windows[index] == null) {
+      long start = TraceRecorder.HEADER_SIZE + index * WINDOW_SIZE;
+      try {
+        long size = Math.min(WINDOW_SIZE, channel.size() - start);
+        windows[index] = channel.map(FileChannel.MapMode.READ_ONLY, start, size)
+            .order(ByteOrder.LITTLE_ENDIAN);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return windows[index];
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,361 @@
+package building;
+
+import building.enums.Direction;
+import elevator.FloorRequestSet;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records every delta a building publishes to an append-only binary trace
+ * file.  step() publishes every tick; advance() and advanceUntilIdle() only
+ * publish at the ticks they step and at the end, so the ticks they skip in
+ * one go are not in the trace.
+ * The recorder is a DeltaListener: each delta is appended as a frame, a
+ * FRAME record followed by the delta records, through a memory-mapped
+ * window of the file that moves on as it fills.  Every keyframeInterval
+ * ticks it also appends a keyframe, a frame with the whole state of the
+ * building: every elevator, every word of stops and every pending request.
+ * A reader starts from the nearest keyframe and applies the deltas after it,
+ * so it can seek to any tick without reading the trace from the start.
+ *
+ * <p>The file starts with a header of HEADER_SIZE bytes, little endian:
+ * <pre>
+ *  0  magic "ELVT"            4  version
+ *  8  record size            12  floors
+ * 16  elevators              20  keyframe interval
+ * 24  end of the frames (8)  32  keyframes in the index
+ * 40  last tick (8)
+ * </pre>
+ * The frames follow, RECORD_SIZE bytes per record.  close() appends the
+ * sparse index, the tick and offset of every keyframe as two longs, and
+ * fills in the header.  A trace that was not closed has no index; the
+ * reader then finds the keyframes by walking the frames.
+ */
+public class TraceRecorder implements DeltaListener, Closeable {
+  static final int MAGIC = 0x54564C45;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 48;
+
+  /**
+   * The record that starts a frame: its kind at offset 1, its number of
+   * records at offset 4 and its tick at offset 8.
+   */
+  static final byte FRAME = 6;
+  static final byte DELTA_FRAME = 0;
+  static final byte KEYFRAME = 1;
+
+  /**
+   * The keyframe interval used by the constructor without one.
+   */
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 1024;
+
+  /**
+   * The size of the part of the file mapped at once, a whole number of records.
+   */
+  private static final int WINDOW_SIZE = DeltaRecords.RECORD_SIZE << 18;
+
+  private final FileChannel channel;
+  private final int numberOfFloors;
+  private final int numberOfElevators;
+  private final int keyframeInterval;
+  private final int wordsPerCar;
+  private MappedByteBuffer window;
+  private long end = HEADER_SIZE;
+  private long lastTick = -1;
+  private long lastKeyframe;
+  private final List<long[]> index = new ArrayList<>();
+  private boolean closed;
+
+  /**
+   * The state of the building as of the last delta, for the keyframes:
+   * the last CAR record of each elevator and its words of stops.
+   */
+  private final byte[] cars;
+  private final long[] words;
+
+  /**
+   * The pending requests in the order they were added, each as its floors
+   * packed by RequestInbox.pack() and its id.  Ids need not be unique, a
+   * RequestBuffer gives 0 to every request added without one, so a removal
+   * takes the oldest request with the same floors and id.  A removed request
+   * leaves a hole, RequestInbox.EMPTY, until the holes outnumber the
+   * requests and the list is compacted; the requests are mostly removed
+   * oldest first, so the search starts at the first request not removed.
+   */
+  private long[] pendingFloors = new long[16];
+  private long[] pendingIds = new long[16];
+  private int pendingFirst;
+  private int pendingEnd;
+  private int pendingCount;
+  private final ByteBuffer scratch =
+      ByteBuffer.allocate(DeltaRecords.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+  /**
+   * The constructor with the default keyframe interval.
+   *
+   * @param file      the trace file, replaced if it exists
+   * @param building  the building that will be recorded
+   * @throws IOException if the file cannot be created.
+   */
+  public TraceRecorder(Path file, Building building) throws IOException {
+    this(file, building, DEFAULT_KEYFRAME_INTERVAL);
+  }
+
+  /**
+   * The constructor for a recorder.  Pass it to building.setDeltaListener()
+   * to start recording.
+   *
+   * @param file             the trace file, replaced if it exists
+   * @param building         the building that will be recorded
+   * @param keyframeInterval the number of ticks between keyframes, at least 1
+   * @throws IOException              if the file cannot be created.
+   * @throws IllegalArgumentException if keyframeInterval is less than 1
+   */
+  public TraceRecorder(Path file, Building building, int keyframeInterval)
+      throws IOException {
+    if (keyframeInterval < 1) {
+      throw new IllegalArgumentException("keyframeInterval must be at least 1");
+    }
+    BuildingReport report = building.getElevatorSystemStatus();
+    this.numberOfFloors = report.getNumFloors();
+    this.numberOfElevators = report.getNumElevators();
+    this.keyframeInterval = keyframeInterval;
+    this.wordsPerCar = FloorRequestSet.wordsFor(numberOfFloors);
+    this.cars = new byte[numberOfElevators * DeltaRecords.RECORD_SIZE];
+    this.words = new long[numberOfElevators * wordsPerCar];
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.writeHeader(0, 0);
+    this.map(HEADER_SIZE);
+  }
+
+  @Override
+  public void onDelta(long tick, ByteBuffer records) {
+    if (closed) {
+      throw new IllegalStateException("The recorder is closed");
+    }
+    int count = DeltaRecords.count(records);
+    this.frame(DELTA_FRAME, count, tick);
+    for (int i = 0; i < count; i++) {
+      this.track(records, i);
+    }
+    this.append(records);
+    lastTick = tick;
+    if (index.isEmpty() || tick - lastKeyframe >= keyframeInterval) {
+      this.keyframe(tick);
+    }
+  }
+
+  /**
+   * Applies one delta record to the state kept for keyframes.
+   */
+  private void track(ByteBuffer records, int i) {
+    int at = i * DeltaRecords.RECORD_SIZE;
+    switch (DeltaRecords.type(records, i)) {
+      case DeltaRecords.CAR:
+        records.get(at, cars, DeltaRecords.elevator(records, i) * DeltaRecords.RECORD_SIZE,
+            DeltaRecords.RECORD_SIZE);
+        break;
+      case DeltaRecords.STOPS:
+        words[DeltaRecords.elevator(records, i) * wordsPerCar
+            + DeltaRecords.wordIndex(records, i)] = DeltaRecords.word(records, i);
+        break;
+      case DeltaRecords.REQUEST_ADDED:
+        this.addPending(RequestInbox.pack(DeltaRecords.startFloor(records, i),
+            DeltaRecords.endFloor(records, i)), DeltaRecords.requestId(records, i));
+        break;
+      case DeltaRecords.REQUEST_REMOVED:
+        this.removePending(RequestInbox.pack(DeltaRecords.startFloor(records, i),
+            DeltaRecords.endFloor(records, i)), DeltaRecords.requestId(records, i));
+        break;
+      default:
+        // QUEUE_CLEARED
+        boolean up = DeltaRecords.direction(records, i) == Direction.UP;
+        for (int p = pendingFirst; p < pendingEnd; p++) {
+          long request = pendingFloors[p];
+          if (request != RequestInbox.EMPTY
+              && (RequestInbox.startFloor(request) < RequestInbox.endFloor(request)) == up) {
+            pendingFloors[p] = RequestInbox.EMPTY;
+            pendingCount--;
+          }
+        }
+        this.compactPending();
+    }
+  }
+
+  private void addPending(long floors, long id) {
+    if (pendingEnd == pendingFloors.length) {
+      this.compactPending();
+      if (pendingEnd > pendingFloors.length / 2) {
+        pendingFloors = Arrays.copyOf(pendingFloors, pendingFloors.length * 2);
+        pendingIds = Arrays.copyOf(pendingIds, pendingIds.length * 2);
+      }
+    }
+    pendingFloors[pendingEnd] = floors;
+    pendingIds[pendingEnd] = id;
+    pendingEnd++;
+    pendingCount++;
+  }
+
+  private void removePending(long floors, long id) {
+    for (int at = pendingFirst; at < pendingEnd; at++) {
+      if (pendingFloors[at] == floors && pendingIds[at] == id) {
+        pendingFloors[at] = RequestInbox.EMPTY;
+        pendingCount--;
+        while (pendingFirst < pendingEnd && pendingFloors[pendingFirst] == RequestInbox.EMPTY) {
+          pendingFirst++;
+        }
+        if (pendingEnd - pendingCount > pendingCount + 16) {
+          this.compactPending();
+        }
+        return;
+      }
+    }
+  }
+
+  /**
+   * Moves the pending requests to the front of the list, closing the holes.
+   */
+  private void compactPending() {
+    int kept = 0;
+    for (int at = pendingFirst; at < pendingEnd; at++) {
+      if (pendingFloors[at] != RequestInbox.EMPTY) {
+        pendingFloors[kept] = pendingFloors[at];
+        pendingIds[kept] = pendingIds[at];
+        kept++;
+      }
+    }
+    pendingFirst = 0;
+    pendingEnd = kept;
+  }
+
+  private void keyframe(long tick) {
+    int stops = 0;
+    for (long word : words) {
+      if (word != 0) {
+        stops++;
+      }
+    }
+    this.frame(KEYFRAME, numberOfElevators + stops + pendingCount, tick);
+    index.add(new long[] {tick, end - DeltaRecords.RECORD_SIZE});
+    lastKeyframe = tick;
+    this.append(ByteBuffer.wrap(cars));
+    for (int car = 0; car < numberOfElevators; car++) {
+      for (int w = 0; w < wordsPerCar; w++) {
+        long word = words[car * wordsPerCar + w];
+        if (word != 0) {
+          this.append(this.record(DeltaRecords.STOPS).putInt(4, car).putInt(8, w)
+              .putLong(16, word));
+        }
+      }
+    }
+    for (int at = pendingFirst; at < pendingEnd; at++) {
+      long request = pendingFloors[at];
+      if (request == RequestInbox.EMPTY) {
+        continue;
+      }
+      int startFloor = RequestInbox.startFloor(request);
+      int endFloor = RequestInbox.endFloor(request);
+      Direction queue = startFloor < endFloor ? Direction.UP : Direction.DOWN;
+      this.append(this.record(DeltaRecords.REQUEST_ADDED).put(1, (byte) queue.ordinal())
+          .putInt(4, startFloor).putInt(8, endFloor).putInt(12, -1)
+          .putLong(16, pendingIds[at]));
+    }
+  }
+
+  private void frame(byte kind, int count, long tick) {
+    this.append(this.record(FRAME).put(1, kind).putInt(4, count).putLong(8, tick));
+  }
+
+  /**
+   * Returns the scratch record cleared to zero with its type set.
+   */
+  private ByteBuffer record(byte type) {
+    scratch.clear();
+    scratch.putLong(0, 0L).putLong(8, 0L).putLong(16, 0L).put(0, type);
+    return scratch;
+  }
+
+  /**
+   * Appends whole records, from position 0 to the limit of the buffer,
+   * moving the window on when it is full.
+   */
+  private void append(ByteBuffer records) {
+    int from = 0;
+    int limit = records.limit();
+    while (from < limit) {
+      if (!window.hasRemaining()) {
+        this.map(end);
+      }
+      int length = Math.min(limit - from, window.remaining());
+      window.put(window.position(), records, from, length);
+      window.position(window.position() + length);
+      from += length;
+      end += length;
+    }
+  }
+
+  private void map(long position) {
+    try {
+      window = channel.map(FileChannel.MapMode.READ_WRITE, position, WINDOW_SIZE);
+      window.order(ByteOrder.LITTLE_ENDIAN);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void writeHeader(long framesEnd, int keyframes) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, DeltaRecords.RECORD_SIZE)
+        .putInt(12, numberOfFloors).putInt(16, numberOfElevators)
+        .putInt(20, keyframeInterval).putLong(24, framesEnd).putInt(32, keyframes)
+        .putLong(40, lastTick);
+    channel.write(header, 0);
+  }
+
+  /**
+   * Returns the number of bytes of frames written so far, header included.
+   *
+   * @return the length of the trace.
+   */
+  public long getLength() {
+    return end;
+  }
+
+  /**
+   * Appends the index, fills in the header and cuts the file to its length.
+   * The building must not send deltas to the recorder after this.
+   *
+   * @throws IOException if the file cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    window.force();
+    window = null;
+    ByteBuffer entries = ByteBuffer.allocate(index.size() * 16).order(ByteOrder.LITTLE_ENDIAN);
+    for (long[] entry : index) {
+      entries.putLong(entry[0]).putLong(entry[1]);
+    }
+    entries.flip();
+    channel.write(entries, end);
+    channel.truncate(end + index.size() * 16L);
+    this.writeHeader(end, index.size());
+    channel.force(true);
+    channel.close();
+  }
+}
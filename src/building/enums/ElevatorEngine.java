@@ -0,0 +1,21 @@
+package building.enums;
+
+/**
+ * This enum is used to choose how a building keeps the state of its elevators.
+ * object keeps one Elevator object per car.
+ * fleet keeps every car in the parallel arrays of one ElevatorFleet.
+ */
+public enum ElevatorEngine {
+  object("Object"),
+  fleet("Fleet");
+  final String display;
+
+  ElevatorEngine(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
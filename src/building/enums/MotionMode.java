@@ -0,0 +1,22 @@
+package building.enums;
+
+/**
+ * This enum is used to choose how an elevator sweeps the building.
+ * fullSweep always runs to the top or bottom floor before turning round.
+ * look turns round as soon as the elevator has served the last stop ahead
+ * of it, instead of running on to the top or bottom floor.
+ */
+public enum MotionMode {
+  fullSweep("Full Sweep"),
+  look("Look");
+  final String display;
+
+  MotionMode(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
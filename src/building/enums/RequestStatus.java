@@ -0,0 +1,23 @@
+package building.enums;
+
+/**
+ * This enum is used to represent what happened to a request given to the building.
+ */
+public enum RequestStatus {
+  accepted("Accepted"),
+  badFloor("Bad Floor"),
+  sameFloor("Same Floor"),
+  notAccepting("Not Accepting"),
+  queueFull("Queue Full"),
+  nullRequest("Null Request");
+  final String display;
+
+  RequestStatus(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
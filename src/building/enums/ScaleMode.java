@@ -0,0 +1,45 @@
+package building.enums;
+
+/**
+ * This enum is used to choose the size limits of a building.
+ * standard keeps the limits of the original system: up to 30 floors
+ * (city bylaws) and up to 20 people per elevator (fire code).
+ * highScale is for towers and campuses: up to 256 floors and up to 80
+ * people per elevator.  The number of elevators is not limited in either mode.
+ */
+public enum ScaleMode {
+  standard("Standard", 30, 20),
+  highScale("High Scale", 256, 80);
+  final String display;
+  private final int maxFloors;
+  private final int maxCapacity;
+
+  ScaleMode(String display, int maxFloors, int maxCapacity) {
+    this.display = display;
+    this.maxFloors = maxFloors;
+    this.maxCapacity = maxCapacity;
+  }
+
+  /**
+   * Returns the largest number of floors allowed in this mode.
+   *
+   * @return the largest number of floors.
+   */
+  public int getMaxFloors() {
+    return this.maxFloors;
+  }
+
+  /**
+   * Returns the largest elevator capacity allowed in this mode.
+   *
+   * @return the largest elevator capacity.
+   */
+  public int getMaxCapacity() {
+    return this.maxCapacity;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
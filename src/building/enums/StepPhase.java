@@ -0,0 +1,24 @@
+package building.enums;
+
+/**
+ * This enum is used to name the phases of a building step that are timed.
+ * ingest moves submitted requests into the queues, dispatch hands the
+ * queues to the elevators, move steps the elevators and publish makes the
+ * snapshot and delta of the tick.
+ */
+public enum StepPhase {
+  ingest("Ingest"),
+  dispatch("Dispatch"),
+  move("Move"),
+  publish("Publish");
+  final String display;
+
+  StepPhase(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -2,8 +2,13 @@ package elevator;
 
 
 import building.enums.Direction;
+import building.enums.MotionMode;
+import building.enums.ScaleMode;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import scanerzus.Request;
+import scanerzus.RequestBuffer;
 
 
 /**
@@ -12,13 +17,14 @@ import scanerzus.Request;
 public class Elevator implements ElevatorInterface {
   /************************************************************************
    * static value used to initialize the elevator id.
+   * Atomic so that elevators can be built from several threads at once.
    ************************************************************************/
-  private static int newElevatorId = 0;
+  private static final AtomicInteger newElevatorId = new AtomicInteger();
 
   /************************************************************************
    * The id of the elevator.This is read only.
    ************************************************************************/
-  private final int id = newElevatorId++;
+  private final int id;
 
   /************************************************************************
    * The total number of floors in the building.
@@ -78,11 +84,27 @@ public class Elevator implements ElevatorInterface {
   /************************************************************************
    * The requests for the floors.
    ************************************************************************/
-  private final boolean[] floorRequests; // true if there is a request for the floor.
+  private final FloorRequestSet floorRequests; // holds the floors that are requested.
+
+  /************************************************************************
+   * The passengers of the elevator, counted per floor rather than one
+   * object per passenger: boarding[f] are waiting to get on at floor f,
+   * alighting[f] are to get off at floor f.
+   ************************************************************************/
+  private final int[] boarding;
+  private final int[] alighting;
+  private int waitingToBoard;
+  private int occupancy;
+  private long delivered;
 
 
   private boolean outOfService;  // start must be issued on the elevator to start it.
 
+  /************************************************************************
+   * How the elevator sweeps the building.
+   ************************************************************************/
+  private MotionMode motionMode = MotionMode.fullSweep;
+
 
   /**
    * The constructor for this elevator.
@@ -97,19 +119,64 @@ public class Elevator implements ElevatorInterface {
    * @throws IllegalArgumentException if the maxFloor or maxOccupancy is out of range
    */
   public Elevator(int maxFloor, int maxOccupancy) {
-    if (maxFloor < 3 || maxFloor > 30) {
-      throw new IllegalArgumentException("maxFloor must be between 3 and 30");
+    this(maxFloor, maxOccupancy, newElevatorId.getAndIncrement());
+  }
+
+  /**
+   * The constructor for this elevator with an explicit id.
+   * The Building uses this so that the ids of its elevators are always
+   * 0 to numberOfElevators - 1, no matter how many other buildings are
+   * being constructed at the same time.
+   *
+   * @param maxFloor     the total number of floors in the building
+   * @param maxOccupancy the maximum number of people that can fit in the elevator
+   * @param elevatorId   the id of the elevator, must not be negative
+   * @throws IllegalArgumentException if any of the parameters is out of range
+   */
+  public Elevator(int maxFloor, int maxOccupancy, int elevatorId) {
+    this(maxFloor, maxOccupancy, elevatorId, ScaleMode.standard);
+  }
+
+  /**
+   * The constructor for this elevator with an explicit id and size limits.
+   * In ScaleMode.highScale the elevator may serve up to 256 floors and
+   * carry up to 80 people.
+   *
+   * @param maxFloor     the total number of floors in the building
+   *                     must be greater than 2
+   *                     must be at most scale.getMaxFloors()
+   * @param maxOccupancy the maximum number of people that can fit in the elevator
+   *                     must be greater than 2
+   *                     must be at most scale.getMaxCapacity()
+   * @param elevatorId   the id of the elevator, must not be negative
+   * @param scale        the size limits of the building
+   * @throws IllegalArgumentException if any of the parameters is out of range
+   */
+  public Elevator(int maxFloor, int maxOccupancy, int elevatorId, ScaleMode scale) {
+    if (scale == null) {
+      throw new IllegalArgumentException("scale cannot be null");
+    }
+    if (elevatorId < 0) {
+      throw new IllegalArgumentException("elevatorId must not be negative");
+    }
+    if (maxFloor < 3 || maxFloor > scale.getMaxFloors()) {
+      throw new IllegalArgumentException("maxFloor must be between 3 and "
+          + scale.getMaxFloors());
     }
-    if (maxOccupancy < 3 || maxOccupancy > 20) {
-      throw new IllegalArgumentException("maxOccupancy must be between 3 and 20");
+    if (maxOccupancy < 3 || maxOccupancy > scale.getMaxCapacity()) {
+      throw new IllegalArgumentException("maxOccupancy must be between 3 and "
+          + scale.getMaxCapacity());
     }
 
+    this.id = elevatorId;
     this.maxFloor = maxFloor;
     this.maxOccupancy = maxOccupancy;
     this.currentFloor = 0;
     this.direction = Direction.STOPPED;
     this.outOfService = true;
-    this.floorRequests = new boolean[maxFloor];
+    this.floorRequests = new FloorRequestSet(maxFloor);
+    this.boarding = new int[maxFloor];
+    this.alighting = new int[maxFloor];
     this.takingRequests = false;
 
   }
@@ -179,10 +246,20 @@ public class Elevator implements ElevatorInterface {
   /**
    * Return the current stop requests.
    *
-   * @return the current stop requests.
+   * @return a new array with the current stop requests.
    */
   @Override
   public boolean[] getFloorRequests() {
+    return this.floorRequests.toBooleanArray();
+  }
+
+  /**
+   * Return the current stop requests as a packed set.
+   *
+   * @return the current stop requests.
+   */
+  @Override
+  public FloorRequestSet getFloorRequestSet() {
     return this.floorRequests;
   }
 
@@ -208,6 +285,7 @@ public class Elevator implements ElevatorInterface {
     this.outOfService = false;
     this.takingRequests = true;
     clearStopRequests();
+    this.occupancy = 0;
     this.doorClosed = true;
     this.doorOpenTimeLeft = 0;
     this.stopWaitTimeLeft = this.stopWaitTimeTotal;
@@ -246,10 +324,14 @@ public class Elevator implements ElevatorInterface {
     // the door is closed and we are not waiting at the top or bottom.
     // now we check to see if there is a request at this floor
     // We open the door and set the timer for 3 steps.
-    if (this.floorRequests[this.currentFloor]) {
+    if (this.floorRequests.contains(this.currentFloor)) {
       this.doorClosed = false;
       this.doorOpenTimeLeft = this.doorOpenTimeTotal;
-      this.floorRequests[this.currentFloor] = false;
+      this.floorRequests.remove(this.currentFloor);
+      this.exchangePassengers();
+      if (this.motionMode == MotionMode.look) {
+        this.turnAtLastStop();
+      }
       return;
     }
 
@@ -314,7 +396,9 @@ public class Elevator implements ElevatorInterface {
     if (this.currentFloor == 0) {
       this.doorClosed = false;
       // we can clear the floor requests now
-      this.floorRequests[this.currentFloor] = false;
+      this.floorRequests.remove(this.currentFloor);
+      // everyone gets out at the ground floor
+      this.occupancy = 0;
       // we can set the elevator to stopped.
       this.direction = Direction.STOPPED;
       return;
@@ -334,6 +418,23 @@ public class Elevator implements ElevatorInterface {
     this.currentFloor--;
   }
 
+  /**
+   * In look mode turn the elevator round at a floor between the top and the
+   * bottom if there are no stops left ahead of it.  The top and bottom floors
+   * are left to the usual wait, so the elevator still takes requests there.
+   */
+  private void turnAtLastStop() {
+    if (this.currentFloor == 0 || this.currentFloor == this.maxFloor - 1) {
+      return;
+    }
+    if (this.direction == Direction.UP && this.floorRequests.nextAbove(this.currentFloor) == -1) {
+      this.direction = Direction.DOWN;
+    } else if (this.direction == Direction.DOWN
+        && this.floorRequests.nextBelow(this.currentFloor) == -1) {
+      this.direction = Direction.UP;
+    }
+  }
+
   /**
    * Process the door open step function.
    */
@@ -360,6 +461,92 @@ public class Elevator implements ElevatorInterface {
   }
 
 
+  /**
+   * Returns the number of upcoming steps that only count down a timer
+   * or move the elevator one floor.
+   *
+   * @return the number of steps before the next event.
+   */
+  @Override
+  public int ticksUntilNextEvent() {
+    if (this.outOfService) {
+      if (this.currentFloor == 0) {
+        return this.doorClosed ? 0 : Integer.MAX_VALUE;
+      }
+      if (!this.doorClosed) {
+        return this.doorOpenTimeLeft - 1;
+      }
+      return this.direction == Direction.DOWN ? this.currentFloor : 0;
+    }
+    if (!this.doorClosed) {
+      return this.doorOpenTimeLeft - 1;
+    }
+    if (this.stopWaitTimeLeft > 0) {
+      return this.stopWaitTimeLeft - 1;
+    }
+    if (this.floorRequests.contains(this.currentFloor)) {
+      return 0;
+    }
+    if (this.direction == Direction.UP) {
+      int next = this.floorRequests.nextAbove(this.currentFloor);
+      return (next == -1 ? this.maxFloor - 1 : next) - this.currentFloor;
+    }
+    if (this.direction == Direction.DOWN) {
+      int next = this.floorRequests.nextBelow(this.currentFloor);
+      return this.currentFloor - (next == -1 ? 0 : next);
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the period of the idle up and down routine.
+   * Each end takes one step to stop and stopWaitTimeTotal steps to wait,
+   * and each direction takes maxFloor - 1 steps of travel.
+   *
+   * @return the number of steps in one idle round trip.
+   */
+  @Override
+  public int getIdlePeriod() {
+    return 2 * (this.maxFloor + this.stopWaitTimeTotal);
+  }
+
+  /**
+   * Applies a number of quiet steps at once.
+   *
+   * @param ticks the number of steps, at most ticksUntilNextEvent()
+   * @throws IllegalArgumentException if ticks is out of range
+   */
+  @Override
+  public void skipTicks(int ticks) throws IllegalArgumentException {
+    if (ticks < 0 || ticks > this.ticksUntilNextEvent()) {
+      throw new IllegalArgumentException("ticks must be between 0 and ticksUntilNextEvent()");
+    }
+    if (ticks == 0) {
+      return;
+    }
+    if (this.outOfService) {
+      // on the ground floor with the door open nothing changes any more.
+      if (this.currentFloor == 0) {
+        return;
+      }
+      if (!this.doorClosed) {
+        this.doorOpenTimeLeft -= ticks;
+      } else {
+        this.currentFloor -= ticks;
+      }
+      return;
+    }
+    if (!this.doorClosed) {
+      this.doorOpenTimeLeft -= ticks;
+    } else if (this.stopWaitTimeLeft > 0) {
+      this.stopWaitTimeLeft -= ticks;
+    } else if (this.direction == Direction.UP) {
+      this.currentFloor += ticks;
+    } else if (this.direction == Direction.DOWN) {
+      this.currentFloor -= ticks;
+    }
+  }
+
   /**
    * Process the requests.  The Building will only give us requests
    * that are on the way to our current direction.  That is,
@@ -380,13 +567,181 @@ public class Elevator implements ElevatorInterface {
     }
 
     this.processStopRequests(requests);
+    this.startRun();
+  }
+
+  /**
+   * processRequests for a RequestBuffer.
+   * The same as processRequests(List), the floors are copied out of the buffer.
+   *
+   * @param requests the requests to add to the elevator.
+   * @throws IllegalStateException if the elevator is not at the bottom or top floor.
+   */
+  @Override
+  public void processRequests(RequestBuffer requests) throws IllegalStateException {
+    if (this.currentFloor != 0 && this.currentFloor != this.maxFloor - 1) {
+      throw new IllegalStateException("Elevator cannot process requests "
+          + "unless it is at the bottom or top floor.");
+    }
+
+    if (requests.isEmpty()) {
+      return;
+    }
+
+    clearStopRequests();
+    for (int i = 0; i < requests.size(); i++) {
+      this.floorRequests.add(requests.getStartFloor(i));
+      this.floorRequests.add(requests.getEndFloor(i));
+    }
+    for (int i = 0; i < requests.size(); i++) {
+      this.addPassenger(requests.getStartFloor(i), requests.getEndFloor(i));
+    }
+    this.stopWaitTimeLeft = 0;
+    this.startRun();
+  }
+
+  /**
+   * Adds a request to the stops of the elevator while it is on a run.
+   * If the elevator has its door open at the start floor the passenger
+   * gets on now and only the end floor is added.
+   *
+   * @param startFloor the floor the passenger gets on
+   * @param endFloor   the floor the passenger gets off
+   * @return true if the request was added, false otherwise.
+   */
+  @Override
+  public boolean assignRequest(int startFloor, int endFloor) {
+    if (this.takingRequests || !this.canAcceptRequest(startFloor, endFloor)) {
+      return false;
+    }
+    if (startFloor != this.currentFloor || this.doorClosed) {
+      this.floorRequests.add(startFloor);
+      this.boarding[startFloor]++;
+      this.waitingToBoard++;
+    } else {
+      this.occupancy++;
+    }
+    this.floorRequests.add(endFloor);
+    this.alighting[endFloor]++;
+    return true;
+  }
+
+  /**
+   * Can the elevator be given this request now.
+   * The start floor has to be ahead of the elevator or the floor it is on.
+   *
+   * @param startFloor the floor the passenger gets on
+   * @param endFloor   the floor the passenger gets off
+   * @return true if the elevator can serve the request, false otherwise.
+   */
+  @Override
+  public boolean canAcceptRequest(int startFloor, int endFloor) {
+    if (this.outOfService || startFloor == endFloor
+        || startFloor < 0 || startFloor >= this.maxFloor
+        || endFloor < 0 || endFloor >= this.maxFloor) {
+      return false;
+    }
+    Direction requested = startFloor < endFloor ? Direction.UP : Direction.DOWN;
+    if (this.takingRequests) {
+      return requested == (this.currentFloor == 0 ? Direction.UP : Direction.DOWN);
+    }
+    if (requested != this.direction || this.getAssignedRequestCount() >= this.maxOccupancy) {
+      return false;
+    }
+    if (requested == Direction.UP) {
+      return startFloor >= this.currentFloor;
+    }
+    return startFloor <= this.currentFloor;
+  }
+
+  /**
+   * Returns the number of passengers in the elevator or waiting for it.
+   *
+   * @return the number of requests the elevator is serving.
+   */
+  @Override
+  public int getAssignedRequestCount() {
+    return this.occupancy + this.waitingToBoard;
+  }
+
+  /**
+   * Returns the number of passengers in the elevator.
+   *
+   * @return the occupancy of the elevator.
+   */
+  @Override
+  public int getOccupancy() {
+    return this.occupancy;
+  }
+
+  /**
+   * Returns the number of passengers waiting to get on at a floor.
+   *
+   * @param floor the floor
+   * @return the number of passengers boarding at the floor.
+   */
+  @Override
+  public int getBoardingCount(int floor) {
+    return this.boarding[floor];
+  }
+
+  /**
+   * Returns the number of passengers in or waiting for the elevator that get off at a floor.
+   *
+   * @param floor the floor
+   * @return the number of passengers alighting at the floor.
+   */
+  @Override
+  public int getAlightingCount(int floor) {
+    return this.alighting[floor];
+  }
+
+  /**
+   * Returns the number of passengers the elevator has taken to their floor.
+   *
+   * @return the number of passengers delivered.
+   */
+  @Override
+  public long getDeliveredCount() {
+    return this.delivered;
+  }
+
+  /**
+   * Adds a passenger for a request that will get on at its start floor.
+   */
+  private void addPassenger(int startFloor, int endFloor) {
+    this.boarding[startFloor]++;
+    this.alighting[endFloor]++;
+    this.waitingToBoard++;
+  }
+
+  /**
+   * Lets the passengers for this floor off, then lets the waiting ones on.
+   * A passenger that does not fit is left at the floor.
+   */
+  private void exchangePassengers() {
+    int floor = this.currentFloor;
+    int off = Math.min(this.alighting[floor], this.occupancy);
+    this.alighting[floor] = 0;
+    this.occupancy -= off;
+    this.delivered += off;
+
+    int on = Math.min(this.boarding[floor], this.maxOccupancy - this.occupancy);
+    this.waitingToBoard -= this.boarding[floor];
+    this.boarding[floor] = 0;
+    this.occupancy += on;
+  }
+
+  /**
+   * Sets off on a run after requests were processed.
+   */
+  private void startRun() {
     if (this.currentFloor == 0) {
       this.direction = Direction.UP;
     } else if (this.currentFloor == this.maxFloor - 1) {
       this.direction = Direction.DOWN;
     }
     this.takingRequests = false;
-
   }
 
   /**
@@ -402,6 +757,30 @@ public class Elevator implements ElevatorInterface {
     this.stopWaitTimeLeft = 0;
   }
 
+  /**
+   * Sets how the elevator sweeps the building.
+   *
+   * @param mode the motion mode.
+   * @throws IllegalArgumentException if mode is null
+   */
+  @Override
+  public void setMotionMode(MotionMode mode) throws IllegalArgumentException {
+    if (mode == null) {
+      throw new IllegalArgumentException("mode cannot be null");
+    }
+    this.motionMode = mode;
+  }
+
+  /**
+   * Returns how the elevator sweeps the building.
+   *
+   * @return the motion mode.
+   */
+  @Override
+  public MotionMode getMotionMode() {
+    return this.motionMode;
+  }
+
   /**
    * isTakingRequests.
    * This will return true if the elevator is taking requests.
@@ -413,13 +792,34 @@ public class Elevator implements ElevatorInterface {
     return this.takingRequests;
   }
 
+  @Override
+  public int getDoorOpenTimer() {
+    return this.doorOpenTimeLeft;
+  }
+
+  @Override
+  public int getDoorOpenTime() {
+    return this.doorOpenTimeTotal;
+  }
+
+  @Override
+  public int getEndWaitTimer() {
+    return this.stopWaitTimeLeft;
+  }
+
+  @Override
+  public boolean isOutOfService() {
+    return this.outOfService;
+  }
+
 
   private void processStopRequests(List<Request> requests) {
     clearStopRequests();
 
     for (Request request : requests) {
-      this.floorRequests[request.getStartFloor()] = true;
-      this.floorRequests[request.getEndFloor()] = true;
+      this.floorRequests.add(request.getStartFloor());
+      this.floorRequests.add(request.getEndFloor());
+      this.addPassenger(request.getStartFloor(), request.getEndFloor());
     }
     // if the elevator was waiting at the top or bottom
     // set the timer to 0 and we are off to the races.
@@ -430,9 +830,10 @@ public class Elevator implements ElevatorInterface {
    * Clear the Floor Requests.
    */
   private void clearStopRequests() {
-    for (int i = 0; i < this.maxFloor; i++) {
-      this.floorRequests[i] = false;
-    }
+    this.floorRequests.clear();
+    Arrays.fill(this.boarding, 0);
+    Arrays.fill(this.alighting, 0);
+    this.waitingToBoard = 0;
   }
 
   /**
@@ -0,0 +1,668 @@
+package elevator;
+
+import building.enums.Direction;
+import building.enums.MotionMode;
+import building.enums.ScaleMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import scanerzus.Request;
+import scanerzus.RequestBuffer;
+
+
+/**
+ * A fleet of elevators that keeps the state of every car in parallel
+ * primitive arrays instead of one Elevator object per car.
+ * The cars run the same state machine as Elevator, but the whole fleet is
+ * stepped in one loop over the arrays.  Each car can be seen as an
+ * ElevatorInterface through view().
+ */
+public class ElevatorFleet {
+  /************************************************************************
+   * The direction codes stored in the direction array.
+   * They are the ordinals of the Direction enum.
+   ************************************************************************/
+  private static final byte UP = (byte) Direction.UP.ordinal();
+  private static final byte DOWN = (byte) Direction.DOWN.ordinal();
+  private static final byte STOPPED = (byte) Direction.STOPPED.ordinal();
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  /************************************************************************
+   * The bits stored in the flags array.
+   ************************************************************************/
+  private static final byte DOOR_CLOSED = 1;
+  private static final byte TAKING_REQUESTS = 2;
+  private static final byte OUT_OF_SERVICE = 4;
+  private static final byte LOOK = 8;
+
+  /************************************************************************
+   * The number of steps that the door is open for.
+   ************************************************************************/
+  private static final int DOOR_OPEN_TIME_TOTAL = 3;
+
+  /************************************************************************
+   * The number of steps that a car will wait at the top or bottom.
+   ************************************************************************/
+  private static final int STOP_WAIT_TIME_TOTAL = 5;
+
+  private final int size;
+  private final int maxFloor;
+  private final int maxOccupancy;
+  private final int wordsPerCar;
+
+  private final int[] floor;
+  private final byte[] direction;
+  private final int[] doorOpenTimeLeft;
+  private final int[] stopWaitTimeLeft;
+  private final byte[] flags;
+
+  /************************************************************************
+   * The passengers of every car, maxFloor counts per car: boarding holds
+   * the passengers waiting to get on at each floor, alighting the
+   * passengers to get off at each floor.
+   ************************************************************************/
+  private final int[] boarding;
+  private final int[] alighting;
+  private final int[] waitingToBoard;
+  private final int[] occupancy;
+  private final long[] delivered;
+
+  /************************************************************************
+   * The floor requests of every car, wordsPerCar longs per car.
+   * Bit f of the words of a car is set if there is a request for floor f.
+   ************************************************************************/
+  private final long[] floorRequests;
+
+  private final FloorRequestSet[] requestSets;
+  private final ElevatorInterface[] views;
+
+  /**
+   * The constructor for the fleet.
+   * Every car is initially out of service at the ground floor,
+   * and the cars have the ids 0 to size - 1.
+   *
+   * @param size         the number of cars in the fleet, must be greater than 0
+   * @param maxFloor     the total number of floors in the building
+   *                     must be greater than 2
+   *                     must be less than 30 (city bylaws)
+   * @param maxOccupancy the maximum number of people that can fit in a car
+   *                     must be greater than 2
+   *                     must be less than 20 (fire code)
+   * @throws IllegalArgumentException if any of the parameters is out of range
+   */
+  public ElevatorFleet(int size, int maxFloor, int maxOccupancy) {
+    this(size, maxFloor, maxOccupancy, ScaleMode.standard);
+  }
+
+  /**
+   * The constructor for the fleet with size limits.
+   * In ScaleMode.highScale the cars may serve up to 256 floors, which is
+   * four request words per car.
+   *
+   * @param size         the number of cars in the fleet, must be greater than 0
+   * @param maxFloor     the total number of floors in the building
+   *                     must be greater than 2
+   *                     must be at most scale.getMaxFloors()
+   * @param maxOccupancy the maximum number of people that can fit in a car
+   *                     must be greater than 2
+   *                     must be at most scale.getMaxCapacity()
+   * @param scale        the size limits of the building
+   * @throws IllegalArgumentException if any of the parameters is out of range
+   */
+  public ElevatorFleet(int size, int maxFloor, int maxOccupancy, ScaleMode scale) {
+    if (scale == null) {
+      throw new IllegalArgumentException("scale cannot be null");
+    }
+    if (size < 1) {
+      throw new IllegalArgumentException("size must be greater than 0");
+    }
+    if (maxFloor < 3 || maxFloor > scale.getMaxFloors()) {
+      throw new IllegalArgumentException("maxFloor must be between 3 and "
+          + scale.getMaxFloors());
+    }
+    if (maxOccupancy < 3 || maxOccupancy > scale.getMaxCapacity()) {
+      throw new IllegalArgumentException("maxOccupancy must be between 3 and "
+          + scale.getMaxCapacity());
+    }
+
+    this.size = size;
+    this.maxFloor = maxFloor;
+    this.maxOccupancy = maxOccupancy;
+    this.wordsPerCar = FloorRequestSet.wordsFor(maxFloor);
+    this.floor = new int[size];
+    this.direction = new byte[size];
+    this.doorOpenTimeLeft = new int[size];
+    this.stopWaitTimeLeft = new int[size];
+    this.flags = new byte[size];
+    this.boarding = new int[size * maxFloor];
+    this.alighting = new int[size * maxFloor];
+    this.waitingToBoard = new int[size];
+    this.occupancy = new int[size];
+    this.delivered = new long[size];
+    this.floorRequests = new long[size * wordsPerCar];
+    this.requestSets = new FloorRequestSet[size];
+    this.views = new ElevatorInterface[size];
+    for (int car = 0; car < size; car++) {
+      this.requestSets[car] = new FloorRequestSet(maxFloor, this.floorRequests,
+          car * this.wordsPerCar, false);
+      this.direction[car] = STOPPED;
+      this.flags[car] = DOOR_CLOSED | OUT_OF_SERVICE;
+      this.views[car] = new CarView(car);
+    }
+  }
+
+  /**
+   * Returns the number of cars in the fleet.
+   *
+   * @return the number of cars in the fleet.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns a car of the fleet as an ElevatorInterface.
+   * The view reads and writes the arrays of the fleet directly.
+   *
+   * @param car the index of the car
+   * @return the view of the car.
+   */
+  public ElevatorInterface view(int car) {
+    return this.views[car];
+  }
+
+  /**
+   * Moves every car of the fleet one step.
+   */
+  public void stepAll() {
+    this.step(0, this.size);
+  }
+
+  /**
+   * Moves the cars from (inclusive) to (exclusive) one step.
+   * This is the same state machine as Elevator.step(), run as one loop
+   * over the arrays.
+   *
+   * @param from the first car to step
+   * @param to   the last car to step, exclusive
+   */
+  public void step(int from, int to) {
+    final int top = this.maxFloor - 1;
+    for (int car = from; car < to; car++) {
+      final int flag = this.flags[car];
+      final int current = this.floor[car];
+
+      if ((flag & OUT_OF_SERVICE) != 0) {
+        // stepOutOfService
+        if (current == 0) {
+          if ((flag & DOOR_CLOSED) != 0) {
+            this.flags[car] = (byte) (flag & ~DOOR_CLOSED);
+            this.floorRequests[car * this.wordsPerCar] &= ~1L;
+            this.direction[car] = STOPPED;
+            this.occupancy[car] = 0;
+          }
+        } else if ((flag & DOOR_CLOSED) == 0) {
+          this.stepDoorOpen(car);
+        } else {
+          this.direction[car] = DOWN;
+          this.floor[car] = current - 1;
+        }
+        continue;
+      }
+
+      if ((flag & DOOR_CLOSED) == 0) {
+        this.stepDoorOpen(car);
+        continue;
+      }
+
+      if (this.stopWaitTimeLeft[car] > 0) {
+        // stepTopOrBottom
+        if (--this.stopWaitTimeLeft[car] == 0) {
+          this.flags[car] = (byte) (flag & ~TAKING_REQUESTS);
+          if (current == 0) {
+            this.direction[car] = UP;
+          } else if (current == top) {
+            this.direction[car] = DOWN;
+          }
+        }
+        continue;
+      }
+
+      final int word = car * this.wordsPerCar + (current >>> 6);
+      final long bit = 1L << current;
+      if ((this.floorRequests[word] & bit) != 0) {
+        this.flags[car] = (byte) (flag & ~DOOR_CLOSED);
+        this.doorOpenTimeLeft[car] = DOOR_OPEN_TIME_TOTAL;
+        this.floorRequests[word] &= ~bit;
+        this.exchangePassengers(car, current);
+        if ((flag & LOOK) != 0 && current != 0 && current != top) {
+          // turnAtLastStop
+          final byte dir = this.direction[car];
+          if (dir == UP && this.requestSets[car].nextAbove(current) == -1) {
+            this.direction[car] = DOWN;
+          } else if (dir == DOWN && this.requestSets[car].nextBelow(current) == -1) {
+            this.direction[car] = UP;
+          }
+        }
+        continue;
+      }
+
+      final byte dir = this.direction[car];
+      if ((current == 0 && dir == DOWN) || (current == top && dir == UP)) {
+        this.direction[car] = STOPPED;
+        this.stopWaitTimeLeft[car] = STOP_WAIT_TIME_TOTAL;
+        this.flags[car] = (byte) (flag | TAKING_REQUESTS);
+        continue;
+      }
+
+      if (dir == UP) {
+        this.floor[car] = current + 1;
+      } else if (dir == DOWN) {
+        this.floor[car] = current - 1;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of upcoming steps of a car that only count down
+   * a timer or move the car one floor.
+   *
+   * @param car the index of the car
+   * @return the number of steps before the next event of the car.
+   */
+  public int ticksUntilNextEvent(int car) {
+    final int flag = this.flags[car];
+    final int current = this.floor[car];
+    if ((flag & OUT_OF_SERVICE) != 0) {
+      if (current == 0) {
+        return (flag & DOOR_CLOSED) != 0 ? 0 : Integer.MAX_VALUE;
+      }
+      if ((flag & DOOR_CLOSED) == 0) {
+        return this.doorOpenTimeLeft[car] - 1;
+      }
+      return this.direction[car] == DOWN ? current : 0;
+    }
+    if ((flag & DOOR_CLOSED) == 0) {
+      return this.doorOpenTimeLeft[car] - 1;
+    }
+    if (this.stopWaitTimeLeft[car] > 0) {
+      return this.stopWaitTimeLeft[car] - 1;
+    }
+    FloorRequestSet stops = this.requestSets[car];
+    if (stops.contains(current)) {
+      return 0;
+    }
+    if (this.direction[car] == UP) {
+      int next = stops.nextAbove(current);
+      return (next == -1 ? this.maxFloor - 1 : next) - current;
+    }
+    if (this.direction[car] == DOWN) {
+      int next = stops.nextBelow(current);
+      return current - (next == -1 ? 0 : next);
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Applies a number of quiet steps of a car at once.
+   *
+   * @param car   the index of the car
+   * @param ticks the number of steps, at most ticksUntilNextEvent(car)
+   * @throws IllegalArgumentException if ticks is out of range
+   */
+  public void skipTicks(int car, int ticks) throws IllegalArgumentException {
+    if (ticks < 0 || ticks > this.ticksUntilNextEvent(car)) {
+      throw new IllegalArgumentException("ticks must be between 0 and ticksUntilNextEvent()");
+    }
+    if (ticks == 0) {
+      return;
+    }
+    final int flag = this.flags[car];
+    if ((flag & OUT_OF_SERVICE) != 0) {
+      // on the ground floor with the door open nothing changes any more.
+      if (this.floor[car] == 0) {
+        return;
+      }
+      if ((flag & DOOR_CLOSED) == 0) {
+        this.doorOpenTimeLeft[car] -= ticks;
+      } else {
+        this.floor[car] -= ticks;
+      }
+      return;
+    }
+    if ((flag & DOOR_CLOSED) == 0) {
+      this.doorOpenTimeLeft[car] -= ticks;
+    } else if (this.stopWaitTimeLeft[car] > 0) {
+      this.stopWaitTimeLeft[car] -= ticks;
+    } else if (this.direction[car] == UP) {
+      this.floor[car] += ticks;
+    } else if (this.direction[car] == DOWN) {
+      this.floor[car] -= ticks;
+    }
+  }
+
+  /**
+   * Lets the passengers of a car off at a floor, then lets the waiting ones on.
+   * A passenger that does not fit is left at the floor.
+   *
+   * @param car     the index of the car
+   * @param current the floor the car is at
+   */
+  private void exchangePassengers(int car, int current) {
+    final int index = car * this.maxFloor + current;
+    final int off = Math.min(this.alighting[index], this.occupancy[car]);
+    this.alighting[index] = 0;
+    this.occupancy[car] -= off;
+    this.delivered[car] += off;
+
+    final int on = Math.min(this.boarding[index], this.maxOccupancy - this.occupancy[car]);
+    this.waitingToBoard[car] -= this.boarding[index];
+    this.boarding[index] = 0;
+    this.occupancy[car] += on;
+  }
+
+  /**
+   * Clears the stops and the waiting passengers of a car.
+   *
+   * @param car the index of the car
+   */
+  private void clearStops(int car) {
+    this.requestSets[car].clear();
+    final int from = car * this.maxFloor;
+    Arrays.fill(this.boarding, from, from + this.maxFloor, 0);
+    Arrays.fill(this.alighting, from, from + this.maxFloor, 0);
+    this.waitingToBoard[car] = 0;
+  }
+
+  /**
+   * Adds a passenger to a car that will get on at its start floor.
+   *
+   * @param car        the index of the car
+   * @param startFloor the floor the passenger gets on
+   * @param endFloor   the floor the passenger gets off
+   */
+  private void addPassenger(int car, int startFloor, int endFloor) {
+    this.boarding[car * this.maxFloor + startFloor]++;
+    this.alighting[car * this.maxFloor + endFloor]++;
+    this.waitingToBoard[car]++;
+  }
+
+  /**
+   * Process the door open step for a car.
+   *
+   * @param car the index of the car
+   */
+  private void stepDoorOpen(int car) {
+    if (--this.doorOpenTimeLeft[car] == 0) {
+      this.flags[car] |= DOOR_CLOSED;
+    }
+  }
+
+  /**
+   * A view of one car of the fleet as an ElevatorInterface.
+   */
+  private final class CarView implements ElevatorInterface {
+    private final int car;
+
+    private CarView(int car) {
+      this.car = car;
+    }
+
+    @Override
+    public int getElevatorId() {
+      return this.car;
+    }
+
+    @Override
+    public int getMaxFloor() {
+      return maxFloor;
+    }
+
+    @Override
+    public int getMaxOccupancy() {
+      return maxOccupancy;
+    }
+
+    @Override
+    public int getCurrentFloor() {
+      return floor[this.car];
+    }
+
+    @Override
+    public Direction getDirection() {
+      return DIRECTIONS[direction[this.car]];
+    }
+
+    @Override
+    public boolean isDoorClosed() {
+      return (flags[this.car] & DOOR_CLOSED) != 0;
+    }
+
+    @Override
+    public boolean[] getFloorRequests() {
+      return requestSets[this.car].toBooleanArray();
+    }
+
+    @Override
+    public FloorRequestSet getFloorRequestSet() {
+      return requestSets[this.car];
+    }
+
+    @Override
+    public void start() {
+      clearStops(this.car);
+      flags[this.car] = (byte) ((flags[this.car] & LOOK) | DOOR_CLOSED | TAKING_REQUESTS);
+      occupancy[this.car] = 0;
+      doorOpenTimeLeft[this.car] = 0;
+      stopWaitTimeLeft[this.car] = STOP_WAIT_TIME_TOTAL;
+      direction[this.car] = UP;
+    }
+
+    @Override
+    public void takeOutOfService() {
+      clearStops(this.car);
+      flags[this.car] = (byte) ((flags[this.car] & (DOOR_CLOSED | LOOK)) | OUT_OF_SERVICE);
+      direction[this.car] = DOWN;
+      stopWaitTimeLeft[this.car] = 0;
+    }
+
+    @Override
+    public void step() {
+      ElevatorFleet.this.step(this.car, this.car + 1);
+    }
+
+    @Override
+    public void processRequests(List<Request> requests) throws IllegalStateException {
+      int current = floor[this.car];
+      if (current != 0 && current != maxFloor - 1) {
+        throw new IllegalStateException("Elevator cannot process requests "
+            + "unless it is at the bottom or top floor.");
+      }
+
+      if (requests.isEmpty()) {
+        return;
+      }
+
+      FloorRequestSet stops = requestSets[this.car];
+      clearStops(this.car);
+      for (Request request : requests) {
+        stops.add(request.getStartFloor());
+        stops.add(request.getEndFloor());
+        addPassenger(this.car, request.getStartFloor(), request.getEndFloor());
+      }
+      this.startRun(current);
+    }
+
+    @Override
+    public void processRequests(RequestBuffer requests) throws IllegalStateException {
+      int current = floor[this.car];
+      if (current != 0 && current != maxFloor - 1) {
+        throw new IllegalStateException("Elevator cannot process requests "
+            + "unless it is at the bottom or top floor.");
+      }
+
+      if (requests.isEmpty()) {
+        return;
+      }
+
+      FloorRequestSet stops = requestSets[this.car];
+      clearStops(this.car);
+      for (int i = 0; i < requests.size(); i++) {
+        stops.add(requests.getStartFloor(i));
+        stops.add(requests.getEndFloor(i));
+        addPassenger(this.car, requests.getStartFloor(i), requests.getEndFloor(i));
+      }
+      this.startRun(current);
+    }
+
+    @Override
+    public boolean assignRequest(int startFloor, int endFloor) {
+      if ((flags[this.car] & TAKING_REQUESTS) != 0
+          || !this.canAcceptRequest(startFloor, endFloor)) {
+        return false;
+      }
+      FloorRequestSet stops = requestSets[this.car];
+      if (startFloor != floor[this.car] || (flags[this.car] & DOOR_CLOSED) != 0) {
+        stops.add(startFloor);
+        boarding[this.car * maxFloor + startFloor]++;
+        waitingToBoard[this.car]++;
+      } else {
+        occupancy[this.car]++;
+      }
+      stops.add(endFloor);
+      alighting[this.car * maxFloor + endFloor]++;
+      return true;
+    }
+
+    @Override
+    public boolean canAcceptRequest(int startFloor, int endFloor) {
+      int flag = flags[this.car];
+      if ((flag & OUT_OF_SERVICE) != 0 || startFloor == endFloor
+          || startFloor < 0 || startFloor >= maxFloor
+          || endFloor < 0 || endFloor >= maxFloor) {
+        return false;
+      }
+      byte requested = startFloor < endFloor ? UP : DOWN;
+      int current = floor[this.car];
+      if ((flag & TAKING_REQUESTS) != 0) {
+        return requested == (current == 0 ? UP : DOWN);
+      }
+      if (requested != direction[this.car] || this.getAssignedRequestCount() >= maxOccupancy) {
+        return false;
+      }
+      return requested == UP ? startFloor >= current : startFloor <= current;
+    }
+
+    @Override
+    public int getAssignedRequestCount() {
+      return occupancy[this.car] + waitingToBoard[this.car];
+    }
+
+    @Override
+    public int getOccupancy() {
+      return occupancy[this.car];
+    }
+
+    @Override
+    public int getBoardingCount(int floor) {
+      return boarding[this.car * maxFloor + Objects.checkIndex(floor, maxFloor)];
+    }
+
+    @Override
+    public int getAlightingCount(int floor) {
+      return alighting[this.car * maxFloor + Objects.checkIndex(floor, maxFloor)];
+    }
+
+    @Override
+    public long getDeliveredCount() {
+      return delivered[this.car];
+    }
+
+    private void startRun(int current) {
+      stopWaitTimeLeft[this.car] = 0;
+      if (current == 0) {
+        direction[this.car] = UP;
+      } else {
+        direction[this.car] = DOWN;
+      }
+      flags[this.car] &= ~TAKING_REQUESTS;
+    }
+
+    @Override
+    public void setMotionMode(MotionMode mode) throws IllegalArgumentException {
+      if (mode == null) {
+        throw new IllegalArgumentException("mode cannot be null");
+      }
+      if (mode == MotionMode.look) {
+        flags[this.car] |= LOOK;
+      } else {
+        flags[this.car] &= ~LOOK;
+      }
+    }
+
+    @Override
+    public MotionMode getMotionMode() {
+      return (flags[this.car] & LOOK) != 0 ? MotionMode.look : MotionMode.fullSweep;
+    }
+
+    @Override
+    public boolean isTakingRequests() {
+      return (flags[this.car] & TAKING_REQUESTS) != 0;
+    }
+
+    @Override
+    public int getDoorOpenTimer() {
+      return doorOpenTimeLeft[this.car];
+    }
+
+    @Override
+    public int getDoorOpenTime() {
+      return DOOR_OPEN_TIME_TOTAL;
+    }
+
+    @Override
+    public int getEndWaitTimer() {
+      return stopWaitTimeLeft[this.car];
+    }
+
+    @Override
+    public boolean isOutOfService() {
+      return (flags[this.car] & OUT_OF_SERVICE) != 0;
+    }
+
+    @Override
+    public int getIdlePeriod() {
+      return 2 * (maxFloor + STOP_WAIT_TIME_TOTAL);
+    }
+
+    @Override
+    public int ticksUntilNextEvent() {
+      return ElevatorFleet.this.ticksUntilNextEvent(this.car);
+    }
+
+    @Override
+    public void skipTicks(int ticks) throws IllegalArgumentException {
+      ElevatorFleet.this.skipTicks(this.car, ticks);
+    }
+
+    @Override
+    public ElevatorReport getElevatorStatus() {
+      int flag = flags[this.car];
+      return new ElevatorReport(
+          this.car,
+          floor[this.car],
+          DIRECTIONS[direction[this.car]],
+          (flag & DOOR_CLOSED) != 0,
+          requestSets[this.car],
+          doorOpenTimeLeft[this.car],
+          stopWaitTimeLeft[this.car],
+          (flag & OUT_OF_SERVICE) != 0,
+          (flag & TAKING_REQUESTS) != 0);
+    }
+
+    @Override
+    public String toString() {
+      return this.getElevatorStatus().toString();
+    }
+  }
+}
@@ -1,8 +1,10 @@
 package elevator;
 
 import building.enums.Direction;
+import building.enums.MotionMode;
 import java.util.List;
 import scanerzus.Request;
+import scanerzus.RequestBuffer;
 
 
 /**
@@ -60,10 +62,18 @@ public interface ElevatorInterface {
   /**
    * Return the current stop requests.
    *
-   * @return the current stop requests.
+   * @return a new array with the current stop requests.
    */
   boolean[] getFloorRequests();
 
+  /**
+   * Return the current stop requests as a packed set.
+   * This is the live set of the elevator, it changes as the elevator runs.
+   *
+   * @return the current stop requests.
+   */
+  FloorRequestSet getFloorRequestSet();
+
   /**
    * start elevator.
    * This will start the elevator if the elevator is on the ground floor.
@@ -77,6 +87,25 @@ public interface ElevatorInterface {
    */
   void takeOutOfService();
 
+  /**
+   * Sets how the elevator sweeps the building.
+   * In MotionMode.look the elevator turns round at the last stop ahead of it
+   * instead of running on to the top or bottom floor.  It then runs on to the
+   * other end unless it is given requests on the way.
+   * The default is MotionMode.fullSweep.
+   *
+   * @param mode the motion mode.
+   * @throws IllegalArgumentException if mode is null
+   */
+  void setMotionMode(MotionMode mode) throws IllegalArgumentException;
+
+  /**
+   * Returns how the elevator sweeps the building.
+   *
+   * @return the motion mode.
+   */
+  MotionMode getMotionMode();
+
   /**
    * Moves the elevator by one floor.
    * The elevator is going to move by one floor in the direction it is currently moving.
@@ -89,6 +118,40 @@ public interface ElevatorInterface {
    */
   void step();
 
+  /**
+   * Returns the number of upcoming calls to step() that only count down
+   * a timer or move the elevator one floor.  Those steps can be applied
+   * all at once with skipTicks().  The step after them is an event: the
+   * door opens or closes, the wait at the top or bottom ends, or the
+   * elevator reaches a requested floor or the end of its run.
+   * Integer.MAX_VALUE means the elevator will not change until it is told to.
+   * While the elevator is taking requests the building may still hand it
+   * requests during these steps.
+   *
+   * @return the number of steps before the next event.
+   */
+  int ticksUntilNextEvent();
+
+  /**
+   * Applies a number of steps at once.  The result is the same as calling
+   * step() that many times.
+   *
+   * @param ticks the number of steps, at most ticksUntilNextEvent()
+   * @throws IllegalArgumentException if ticks is negative or greater than
+   *                                  ticksUntilNextEvent()
+   */
+  void skipTicks(int ticks) throws IllegalArgumentException;
+
+  /**
+   * Returns the number of steps an elevator with no requests takes to go
+   * from the bottom to the top and back: the travel in both directions plus
+   * the wait at each end.  An elevator that has no requests and is not
+   * given any repeats its state every getIdlePeriod() steps.
+   *
+   * @return the period of the idle up and down routine.
+   */
+  int getIdlePeriod();
+
   /**
    * processUpRequests.
    * This will tell the elevator to process these upRequests on the next run.
@@ -98,6 +161,85 @@ public interface ElevatorInterface {
    */
   void processRequests(List<Request> requests) throws IllegalArgumentException;
 
+  /**
+   * processRequests for a RequestBuffer.
+   * This does the same as processRequests(List) without any Request objects.
+   * The elevator copies the floors out of the buffer, so the caller can clear
+   * and reuse the buffer straight away.
+   *
+   * @param requests the requests to add to the elevator.
+   */
+  void processRequests(RequestBuffer requests) throws IllegalArgumentException;
+
+  /**
+   * Adds one request to the stops of an elevator that is already on a run.
+   * The stops are merged with the stops the elevator already has.
+   * The request is only accepted if canAcceptRequest() is true for it and
+   * the elevator is not taking requests at the bottom or top; those requests
+   * are given with processRequests().
+   *
+   * @param startFloor the floor the passenger gets on
+   * @param endFloor   the floor the passenger gets off
+   * @return true if the elevator will serve the request, false otherwise.
+   */
+  boolean assignRequest(int startFloor, int endFloor);
+
+  /**
+   * Can the elevator be given this request now.
+   * An elevator taking requests at the bottom can be given requests going up,
+   * at the top requests going down.  An elevator on a run can be given
+   * requests in its direction whose start floor it has not passed yet,
+   * as long as getAssignedRequestCount() is less than getMaxOccupancy().
+   *
+   * @param startFloor the floor the passenger gets on
+   * @param endFloor   the floor the passenger gets off
+   * @return true if the elevator can serve the request, false otherwise.
+   */
+  boolean canAcceptRequest(int startFloor, int endFloor);
+
+  /**
+   * Returns the number of requests the elevator is serving: the passengers
+   * in the elevator plus the passengers waiting for it to stop at their floor.
+   * This goes down as passengers get off.
+   *
+   * @return the number of requests the elevator is serving.
+   */
+  int getAssignedRequestCount();
+
+  /**
+   * Returns the number of passengers in the elevator.
+   * A passenger gets on when the door opens at the start floor of their
+   * request, after the passengers for that floor have got off.
+   *
+   * @return the occupancy of the elevator.
+   */
+  int getOccupancy();
+
+  /**
+   * Returns the number of passengers waiting to get on at a floor.
+   *
+   * @param floor the floor, 0 to getMaxFloor() - 1
+   * @return the number of passengers boarding at the floor.
+   */
+  int getBoardingCount(int floor);
+
+  /**
+   * Returns the number of passengers, in the elevator or waiting for it,
+   * that get off at a floor.
+   *
+   * @param floor the floor, 0 to getMaxFloor() - 1
+   * @return the number of passengers alighting at the floor.
+   */
+  int getAlightingCount(int floor);
+
+  /**
+   * Returns the number of passengers the elevator has taken to their floor
+   * since it was built.
+   *
+   * @return the number of passengers delivered.
+   */
+  long getDeliveredCount();
+
 
   /**
    * isTakingRequests.
@@ -107,6 +249,35 @@ public interface ElevatorInterface {
    */
   boolean isTakingRequests();
 
+  /**
+   * Returns the number of ticks the door stays open, 0 when it is closed.
+   *
+   * @return the door open timer.
+   */
+  int getDoorOpenTimer();
+
+  /**
+   * Returns the number of ticks the door stays open at a stop.  The door
+   * open timer is this on the tick the door opens.
+   *
+   * @return the door open time.
+   */
+  int getDoorOpenTime();
+
+  /**
+   * Returns the number of ticks left to wait at the end of a run.
+   *
+   * @return the end wait timer.
+   */
+  int getEndWaitTimer();
+
+  /**
+   * Is the elevator out of service.
+   *
+   * @return true if the elevator has been taken out of service.
+   */
+  boolean isOutOfService();
+
   /**
    * This method is used to get the elevator status ElevatorReport.
    *
@@ -1,6 +1,8 @@
 package elevator;
 
 import building.enums.Direction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * This class is used to represent the status of the elevators.
@@ -9,7 +11,7 @@ public class ElevatorReport {
   private final int elevatorId;
   private final int currentFloor;
   private final boolean doorClosed;
-  private final boolean[] floorRequests;
+  private final FloorRequestSet floorRequests;
   private final Direction direction;
 
   private final int doorOpenTimer;
@@ -43,6 +45,61 @@ public class ElevatorReport {
                         int endWaitTimer,
                         boolean outOfService,
                         boolean isTakingRequests) {
+    this(FloorRequestSet.of(floorRequests), elevatorId, currentFloor, direction, doorClosed,
+        doorOpenTimer, endWaitTimer, outOfService, isTakingRequests);
+  }
+
+  /**
+   * This constructor is used to create a new ElevatorReport object from
+   * the packed floor requests of an elevator.  The report keeps a read only
+   * copy of the words, so it does not change when the elevator moves on.
+   *
+   * @param elevatorId       The id of the elevator.
+   * @param currentFloor     The current floor of the elevator.
+   * @param direction        The direction of the elevator.
+   * @param doorClosed       The status of the door.
+   * @param floorRequests    The requests for the floors.
+   * @param doorOpenTimer    The timer for the door.
+   * @param endWaitTimer     The timer for the end of the run.
+   * @param outOfService     The status of the elevator.
+   * @param isTakingRequests Is the elevator taking requests.
+   */
+  public ElevatorReport(int elevatorId,
+                        int currentFloor,
+                        Direction direction,
+                        boolean doorClosed,
+                        FloorRequestSet floorRequests,
+                        int doorOpenTimer,
+                        int endWaitTimer,
+                        boolean outOfService,
+                        boolean isTakingRequests) {
+    this(floorRequests.readOnlyCopy(), elevatorId, currentFloor, direction, doorClosed,
+        doorOpenTimer, endWaitTimer, outOfService, isTakingRequests);
+  }
+
+  /**
+   * This constructor takes ownership of a read only set of floor requests
+   * that no one else holds, so the set is kept without another copy.
+   *
+   * @param floorRequests    The requests for the floors, read only and not shared.
+   * @param elevatorId       The id of the elevator.
+   * @param currentFloor     The current floor of the elevator.
+   * @param direction        The direction of the elevator.
+   * @param doorClosed       The status of the door.
+   * @param doorOpenTimer    The timer for the door.
+   * @param endWaitTimer     The timer for the end of the run.
+   * @param outOfService     The status of the elevator.
+   * @param isTakingRequests Is the elevator taking requests.
+   */
+  ElevatorReport(FloorRequestSet floorRequests,
+                 int elevatorId,
+                 int currentFloor,
+                 Direction direction,
+                 boolean doorClosed,
+                 int doorOpenTimer,
+                 int endWaitTimer,
+                 boolean outOfService,
+                 boolean isTakingRequests) {
     this.elevatorId = elevatorId;
     this.currentFloor = currentFloor;
     this.doorClosed = doorClosed;
@@ -87,9 +144,19 @@ public class ElevatorReport {
   /**
    * This method is used to get the requests for the floors.
    *
-   * @return The requests for the floors.
+   * @return a new array with the requests for the floors.
    */
   public boolean[] getFloorRequests() {
+    return floorRequests.toBooleanArray();
+  }
+
+  /**
+   * This method is used to get the packed requests for the floors.
+   * The set is read only.
+   *
+   * @return The requests for the floors.
+   */
+  public FloorRequestSet getFloorRequestSet() {
     return floorRequests;
   }
 
@@ -146,40 +213,112 @@ public class ElevatorReport {
    */
   @Override
   public String toString() {
-    StringBuilder sb = new StringBuilder();
+    return this.appendTo(new StringBuilder()).toString();
+  }
 
+  /**
+   * Appends the string representation of the report to a builder, the same
+   * characters as toString().  Nothing is allocated beyond the growth of the
+   * builder, so a caller that keeps its builder can render every tick.
+   *
+   * @param sb the builder to append to.
+   * @return the builder.
+   */
+  public StringBuilder appendTo(StringBuilder sb) {
+    try {
+      this.render(sb);
+    } catch (IOException e) {
+      // a StringBuilder does not throw
+      throw new UncheckedIOException(e);
+    }
+    return sb;
+  }
+
+  /**
+   * Appends the string representation of the report to any Appendable,
+   * such as a Writer, the same characters as toString().
+   *
+   * @param out the Appendable to append to.
+   * @return the Appendable.
+   * @throws IOException if the Appendable throws it.
+   */
+  public Appendable appendTo(Appendable out) throws IOException {
+    this.render(out);
+    return out;
+  }
+
+  private void render(Appendable out) throws IOException {
     // if the elevator is out of service and on the ground floor
     if (this.outOfService && this.currentFloor == 0) {
-      sb.append(String.format("Out of Service[Floor %d]", this.currentFloor));
-      return sb.toString();
+      out.append("Out of Service[Floor ");
+      appendNumber(out, this.currentFloor);
+      out.append(']');
+      return;
     }
 
     if (this.endWaitTimer > 0) {
-      sb.append(String.format("Waiting[Floor %d, Time %d]", this.currentFloor, this.endWaitTimer));
-      return sb.toString();
+      out.append("Waiting[Floor ");
+      appendNumber(out, this.currentFloor);
+      out.append(", Time ");
+      appendNumber(out, this.endWaitTimer);
+      out.append(']');
+      return;
     }
 
-    sb.append(String.format("[%d|%s|",
-        this.currentFloor,
-        this.direction));
+    out.append('[');
+    appendNumber(out, this.currentFloor);
+    out.append('|').append(this.direction.toString()).append('|');
 
     if (this.doorClosed) {
-      sb.append("C  ]<");
+      out.append("C  ]<");
     } else {
-      sb.append(String.format("O %d]<", this.doorOpenTimer));
+      out.append("O ");
+      appendNumber(out, this.doorOpenTimer);
+      out.append("]<");
     }
 
-    for (int i = 0; i < this.floorRequests.length; i++) {
-      if (this.floorRequests[i]) {
-        sb.append(String.format(" %2d", i));
-      } else {
-        sb.append(" --");
+    // " --" for each floor that is not requested, the floor padded to two places if it is
+    int floor = 0;
+    for (int next = this.floorRequests.nextAbove(-1); next != -1;
+         next = this.floorRequests.nextAbove(next)) {
+      for (; floor < next; floor++) {
+        out.append(" --");
       }
+      out.append(next < 10 ? "  " : " ");
+      appendNumber(out, next);
+      floor = next + 1;
     }
-    sb.append(">");
-
-    return sb.toString();
+    for (; floor < this.floorRequests.getNumberOfFloors(); floor++) {
+      out.append(" --");
+    }
+    out.append('>');
+  }
 
+  /**
+   * Appends a number one digit at a time, without making a string of it.
+   * BuildingReport renders its numbers with this too.
+   *
+   * @param out    where the number is appended
+   * @param number the number
+   * @throws IOException if out cannot be appended to.
+   */
+  public static void appendNumber(Appendable out, int number) throws IOException {
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(number);
+      return;
+    }
+    long value = number;
+    if (value < 0) {
+      out.append('-');
+      value = -value;
+    }
+    long divisor = 1;
+    while (value / divisor >= 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      out.append((char) ('0' + value / divisor % 10));
+    }
   }
 
   /**
@@ -220,12 +359,7 @@ public class ElevatorReport {
     if (this.isTakingRequests != that.isTakingRequests) {
       return false;
     }
-    for (int i = 0; i < this.floorRequests.length; i++) {
-      if (this.floorRequests[i] != that.floorRequests[i]) {
-        return false;
-      }
-    }
-    return true;
+    return this.floorRequests.equals(that.floorRequests);
   }
 
   /**
@@ -242,9 +376,7 @@ public class ElevatorReport {
     result = 31 * result + (this.outOfService ? 1 : 0);
     result = 31 * result + (this.isTakingRequests ? 1 : 0);
     result = 31 * result + this.direction.hashCode();
-    for (boolean floorRequest : this.floorRequests) {
-      result = 31 * result + (floorRequest ? 1 : 0);
-    }
+    result = 31 * result + this.floorRequests.hashCode();
     return result;
   }
 }
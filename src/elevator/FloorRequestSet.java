@@ -0,0 +1,302 @@
+package elevator;
+
+import java.util.Arrays;
+
+/**
+ * The set of floors an elevator has been asked to stop at.
+ * The floors are kept as bits packed into longs, so clearing the set is
+ * done a word at a time, and the next requested floor above or below a
+ * floor is found with numberOfTrailingZeros and numberOfLeadingZeros
+ * instead of scanning floor by floor.  For buildings of up to 64 floors
+ * the whole set is a single word and every query is constant time.
+ */
+public class FloorRequestSet {
+  private final int numberOfFloors;
+  private final long[] words;
+  private final int offset;
+  private final int wordCount;
+  private final boolean readOnly;
+
+  /**
+   * The constructor for an empty set.
+   *
+   * @param numberOfFloors the total number of floors in the building.
+   *                       must be greater than 0
+   * @throws IllegalArgumentException if numberOfFloors is less than 1
+   */
+  public FloorRequestSet(int numberOfFloors) {
+    this(numberOfFloors, new long[wordsFor(numberOfFloors)], 0, false);
+  }
+
+  /**
+   * The constructor for a set that lives in part of a larger array.
+   * ElevatorFleet uses this to give each car a set over its own words.
+   *
+   * @param numberOfFloors the total number of floors in the building.
+   * @param words          the array holding the bits
+   * @param offset         the index of the first word of this set
+   * @param readOnly       true if the set cannot be changed
+   */
+  FloorRequestSet(int numberOfFloors, long[] words, int offset, boolean readOnly) {
+    if (numberOfFloors < 1) {
+      throw new IllegalArgumentException("numberOfFloors must be greater than 0");
+    }
+    this.numberOfFloors = numberOfFloors;
+    this.words = words;
+    this.offset = offset;
+    this.wordCount = wordsFor(numberOfFloors);
+    this.readOnly = readOnly;
+  }
+
+  /**
+   * Returns the number of longs needed to hold a set for a building.
+   *
+   * @param numberOfFloors the total number of floors in the building.
+   * @return the number of words in a set.
+   */
+  public static int wordsFor(int numberOfFloors) {
+    return (numberOfFloors + 63) >>> 6;
+  }
+
+  /**
+   * Creates a read only set holding the given floor requests.
+   *
+   * @param floorRequests true for each floor that is requested
+   * @return a read only set of the requested floors.
+   */
+  public static FloorRequestSet of(boolean[] floorRequests) {
+    long[] words = new long[wordsFor(floorRequests.length)];
+    for (int i = 0; i < floorRequests.length; i++) {
+      if (floorRequests[i]) {
+        words[i >>> 6] |= 1L << i;
+      }
+    }
+    return new FloorRequestSet(floorRequests.length, words, 0, true);
+  }
+
+  /**
+   * Returns the number of floors in the building.
+   *
+   * @return the number of floors in the building.
+   */
+  public int getNumberOfFloors() {
+    return this.numberOfFloors;
+  }
+
+  /**
+   * Returns the number of longs the set is packed into.
+   *
+   * @return the number of words in the set.
+   */
+  public int getWordCount() {
+    return this.wordCount;
+  }
+
+  /**
+   * Returns one word of the set.  Bit b of word w is floor w * 64 + b.
+   *
+   * @param index the index of the word
+   * @return the word.
+   */
+  public long getWord(int index) {
+    return this.words[this.offset + index];
+  }
+
+  /**
+   * Is the floor requested.
+   *
+   * @param floor the floor to check
+   * @return true if the floor is requested.
+   */
+  public boolean contains(int floor) {
+    return (this.words[this.offset + (floor >>> 6)] & (1L << floor)) != 0;
+  }
+
+  /**
+   * Request a floor.
+   *
+   * @param floor the floor to request
+   */
+  public void add(int floor) {
+    this.checkWritable();
+    this.words[this.offset + (floor >>> 6)] |= 1L << floor;
+  }
+
+  /**
+   * Remove the request for a floor.
+   *
+   * @param floor the floor to remove
+   */
+  public void remove(int floor) {
+    this.checkWritable();
+    this.words[this.offset + (floor >>> 6)] &= ~(1L << floor);
+  }
+
+  /**
+   * Remove every request.
+   */
+  public void clear() {
+    this.checkWritable();
+    Arrays.fill(this.words, this.offset, this.offset + this.wordCount, 0L);
+  }
+
+  /**
+   * Is the set empty.
+   *
+   * @return true if no floor is requested.
+   */
+  public boolean isEmpty() {
+    for (int w = 0; w < this.wordCount; w++) {
+      if (this.words[this.offset + w] != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the number of requested floors.
+   *
+   * @return the number of requested floors.
+   */
+  public int size() {
+    int count = 0;
+    for (int w = 0; w < this.wordCount; w++) {
+      count += Long.bitCount(this.words[this.offset + w]);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the lowest requested floor above a floor.
+   *
+   * @param floor the floor to search above, may be -1 to search from the ground floor
+   * @return the lowest requested floor greater than floor, or -1 if there is none.
+   */
+  public int nextAbove(int floor) {
+    int from = floor + 1;
+    if (from >= this.numberOfFloors) {
+      return -1;
+    }
+    int w = from >>> 6;
+    long word = this.words[this.offset + w] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+      }
+      if (++w == this.wordCount) {
+        return -1;
+      }
+      word = this.words[this.offset + w];
+    }
+  }
+
+  /**
+   * Returns the highest requested floor below a floor.
+   *
+   * @param floor the floor to search below, may be the number of floors
+   *              to search from the top floor
+   * @return the highest requested floor less than floor, or -1 if there is none.
+   */
+  public int nextBelow(int floor) {
+    int from = floor - 1;
+    if (from < 0) {
+      return -1;
+    }
+    int w = from >>> 6;
+    long word = this.words[this.offset + w] & (-1L >>> (63 - (from & 63)));
+    while (true) {
+      if (word != 0) {
+        return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+      }
+      if (--w < 0) {
+        return -1;
+      }
+      word = this.words[this.offset + w];
+    }
+  }
+
+  /**
+   * Returns a read only copy of the set.
+   * The copy does not change when this set changes.
+   *
+   * @return a read only copy of the set.
+   */
+  public FloorRequestSet readOnlyCopy() {
+    long[] copy = Arrays.copyOfRange(this.words, this.offset, this.offset + this.wordCount);
+    return new FloorRequestSet(this.numberOfFloors, copy, 0, true);
+  }
+
+  /**
+   * Returns the set as one boolean per floor.
+   *
+   * @return a new array that is true for each requested floor.
+   */
+  public boolean[] toBooleanArray() {
+    boolean[] floorRequests = new boolean[this.numberOfFloors];
+    for (int floor = this.nextAbove(-1); floor != -1; floor = this.nextAbove(floor)) {
+      floorRequests[floor] = true;
+    }
+    return floorRequests;
+  }
+
+  private void checkWritable() {
+    if (this.readOnly) {
+      throw new UnsupportedOperationException("FloorRequestSet is read only");
+    }
+  }
+
+  /**
+   * The equals method for the FloorRequestSet.
+   *
+   * @param o the object to compare to.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FloorRequestSet)) {
+      return false;
+    }
+    FloorRequestSet that = (FloorRequestSet) o;
+    if (this.numberOfFloors != that.numberOfFloors) {
+      return false;
+    }
+    for (int w = 0; w < this.wordCount; w++) {
+      if (this.getWord(w) != that.getWord(w)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The hashcode method for the FloorRequestSet.
+   */
+  @Override
+  public int hashCode() {
+    int result = this.numberOfFloors;
+    for (int w = 0; w < this.wordCount; w++) {
+      result = 31 * result + Long.hashCode(this.getWord(w));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the requested floors in the form "[1, 5, 9]".
+   *
+   * @return a string representation of the set.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int floor = this.nextAbove(-1); floor != -1; floor = this.nextAbove(floor)) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(floor);
+    }
+    return sb.append(']').toString();
+  }
+}
@@ -0,0 +1,202 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a log of passenger arrivals one at a time, so a log larger than the
+ * heap can be replayed.  Each line is a tick, a start floor and an end
+ * floor, separated by commas or spaces; blank lines and lines starting
+ * with # are skipped.  The ticks must not go down.
+ * The bytes are parsed straight from a buffer, so reading an arrival does
+ * not make a String.
+ */
+public class ArrivalReader implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final InputStream in;
+  private final byte[] buffer = new byte[BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private long lineNumber;
+
+  private long tick = -1;
+  private int startFloor;
+  private int endFloor;
+
+  /**
+   * The constructor for a reader of a stream.  The reader closes the stream.
+   *
+   * @param in the arrivals
+   */
+  public ArrivalReader(InputStream in) {
+    this.in = in;
+  }
+
+  /**
+   * Reads the next arrival.
+   *
+   * @return false at the end of the log.
+   * @throws IOException              if the stream cannot be read.
+   * @throws IllegalArgumentException if a line is not an arrival, or its
+   *                                  tick is before the tick of the line before.
+   */
+  public boolean next() throws IOException {
+    while (true) {
+      int c = this.read();
+      if (c == -1) {
+        return false;
+      }
+      lineNumber++;
+      c = this.skipBlanks(c);
+      if (c == '\n' || c == -1) {
+        continue;
+      }
+      if (c == '#') {
+        this.skipLine();
+        continue;
+      }
+      long arrivalTick = this.number(c);
+      int start = this.floor(this.skipSeparator());
+      int end = this.floor(this.skipSeparator());
+      c = this.skipBlanks(this.read());
+      if (c != '\n' && c != -1) {
+        throw this.badLine();
+      }
+      if (arrivalTick < tick) {
+        throw new IllegalArgumentException("Arrival on line " + lineNumber
+            + " is before the arrival on the line before");
+      }
+      tick = arrivalTick;
+      startFloor = start;
+      endFloor = end;
+      return true;
+    }
+  }
+
+  /**
+   * Returns the tick of the last arrival read.
+   *
+   * @return the tick the passenger arrives at.
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Returns the start floor of the last arrival read.
+   *
+   * @return the start floor.
+   */
+  public int getStartFloor() {
+    return startFloor;
+  }
+
+  /**
+   * Returns the end floor of the last arrival read.
+   *
+   * @return the end floor.
+   */
+  public int getEndFloor() {
+    return endFloor;
+  }
+
+  /**
+   * Returns the number of the line of the last arrival read, counting from 1.
+   *
+   * @return the line number.
+   */
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * Reads the digits of a number that starts with c.  A number can be at
+   * most 18 digits, so it cannot overflow.
+   */
+  private long number(int c) throws IOException {
+    if (c < '0' || c > '9') {
+      throw this.badLine();
+    }
+    long value = 0;
+    int digits = 0;
+    while (c >= '0' && c <= '9') {
+      if (++digits > 18) {
+        throw this.badLine();
+      }
+      value = value * 10 + (c - '0');
+      c = this.read();
+    }
+    this.unread(c);
+    return value;
+  }
+
+  /**
+   * Reads a floor starting with the character c, which must fit in an int.
+   */
+  private int floor(int c) throws IOException {
+    long value = this.number(c);
+    if (value > Integer.MAX_VALUE) {
+      throw this.badLine();
+    }
+    return (int) value;
+  }
+
+  /**
+   * Skips the comma or spaces between two numbers and returns the first
+   * character of the next number.
+   */
+  private int skipSeparator() throws IOException {
+    int c = this.skipBlanks(this.read());
+    if (c == ',') {
+      c = this.skipBlanks(this.read());
+    }
+    return c;
+  }
+
+  private int skipBlanks(int c) throws IOException {
+    while (c == ' ' || c == '\t' || c == '\r') {
+      c = this.read();
+    }
+    return c;
+  }
+
+  private void skipLine() throws IOException {
+    int c = this.read();
+    while (c != '\n' && c != -1) {
+      c = this.read();
+    }
+  }
+
+  private IllegalArgumentException badLine() {
+    return new IllegalArgumentException("Line " + lineNumber
+        + " is not a tick, start floor and end floor");
+  }
+
+  private int read() throws IOException {
+    if (position == limit) {
+      limit = in.read(buffer, 0, buffer.length);
+      position = 0;
+      if (limit <= 0) {
+        limit = 0;
+        return -1;
+      }
+    }
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * Puts back the character just read, if it was not the end of the stream.
+   */
+  private void unread(int c) {
+    if (c != -1) {
+      position--;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
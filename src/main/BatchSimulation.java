@@ -0,0 +1,325 @@
+package main;
+
+import building.Building;
+import building.BuildingReport;
+import building.DispatchStrategy;
+import building.TraceRecorder;
+import building.enums.ElevatorEngine;
+import building.enums.RequestStatus;
+import building.enums.ScaleMode;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+import scanerzus.Request;
+
+/**
+ * Runs a building for a number of ticks with no view, for build servers
+ * and scripts.  The building is stepped once per tick and the run reports
+ * the ticks and elevator steps per second of wall-clock time and the peak
+ * heap use, as name=value lines.
+ * Usage: java main.BatchSimulation floors elevators capacity ticks traffic output
+ * [strategy [engine]] where
+ * traffic is none, random:load or random:load:seed, with load the
+ * percentage of ticks on which a passenger arrives, or the path of a log
+ * of arrivals read by ArrivalReader;
+ * output is - to print the report, a path ending in .trace to record the
+ * run with a TraceRecorder and print the report, or any other path to
+ * write the report there;
+ * strategy and engine are as for Replay.
+ * The exit code is 0 when the run finished, 1 when it failed, for example
+ * because the log could not be read, and 2 when the arguments are wrong.
+ */
+public class BatchSimulation {
+  static final int EXIT_OK = 0;
+  static final int EXIT_FAILED = 1;
+  static final int EXIT_USAGE = 2;
+
+  private static final String USAGE = "Usage: java main.BatchSimulation floors elevators"
+      + " capacity ticks none|random:load[:seed]|log -|file|file.trace"
+      + " [terminal|nearest|collective|eta|destination [object|fleet]]";
+
+  /**
+   * Runs the simulation and exits with its exit code.
+   *
+   * @param args floors, elevators, capacity, ticks, traffic, output, and
+   *             optionally the dispatch strategy and elevator engine.
+   */
+  public static void main(String[] args) {
+    System.exit(run(args, System.out, System.err));
+  }
+
+  /**
+   * Runs the simulation.
+   *
+   * @param args the command-line arguments
+   * @param out  where the report goes when the output is -
+   * @param err  where usage and errors go
+   * @return the exit code.
+   */
+  static int run(String[] args, PrintStream out, PrintStream err) {
+    if (args.length < 6 || args.length > 8) {
+      err.println(USAGE);
+      return EXIT_USAGE;
+    }
+    Building building;
+    int floors;
+    long ticks;
+    DispatchStrategy strategy;
+    ElevatorEngine engine;
+    try {
+      floors = Integer.parseInt(args[0]);
+      int elevators = Integer.parseInt(args[1]);
+      int capacity = Integer.parseInt(args[2]);
+      ticks = Long.parseLong(args[3]);
+      if (ticks < 0) {
+        throw new IllegalArgumentException("Ticks cannot be negative");
+      }
+      strategy = Replay.strategy(args.length > 6 ? args[6] : "terminal");
+      engine = engine(args.length > 7 ? args[7] : "object");
+      building = new Building(floors, elevators, capacity, engine, ScaleMode.highScale);
+      building.setDispatchStrategy(strategy);
+    } catch (IllegalArgumentException e) {
+      err.println(e.getMessage());
+      err.println(USAGE);
+      return EXIT_USAGE;
+    }
+
+    Traffic traffic;
+    try {
+      traffic = traffic(args[4], floors);
+    } catch (IllegalArgumentException e) {
+      err.println(e.getMessage());
+      err.println(USAGE);
+      return EXIT_USAGE;
+    } catch (IOException e) {
+      err.println(e.getMessage());
+      return EXIT_FAILED;
+    }
+
+    String output = args[5];
+    boolean toFile = !output.equals("-") && !output.endsWith(".trace");
+    // the report file is opened before the run, so a bad path fails straight away.
+    try (traffic; PrintStream file = toFile ? new PrintStream(output) : null) {
+      TraceRecorder recorder = null;
+      if (output.endsWith(".trace")) {
+        recorder = new TraceRecorder(Paths.get(output), building);
+      }
+      Result result;
+      try {
+        result = simulate(building, traffic, ticks, recorder);
+      } finally {
+        if (recorder != null) {
+          recorder.close();
+        }
+      }
+      report(toFile ? file : out, building, strategy, engine, result);
+    } catch (IOException | IllegalArgumentException e) {
+      err.println(e.getMessage());
+      return EXIT_FAILED;
+    }
+    return EXIT_OK;
+  }
+
+  private static ElevatorEngine engine(String name) {
+    switch (name) {
+      case "object":
+        return ElevatorEngine.object;
+      case "fleet":
+        return ElevatorEngine.fleet;
+      default:
+        throw new IllegalArgumentException("Unknown elevator engine " + name);
+    }
+  }
+
+  /**
+   * Returns the traffic a source names.
+   *
+   * @throws IllegalArgumentException if the source is random with a bad load or seed.
+   * @throws IOException              if the source is a log that cannot be opened.
+   */
+  static Traffic traffic(String source, int floors) throws IOException {
+    if (source.equals("none")) {
+      return new Traffic();
+    }
+    if (source.startsWith("random:")) {
+      String[] parts = source.split(":");
+      if (parts.length < 2 || parts.length > 3) {
+        throw new IllegalArgumentException("Traffic " + source + " is not random:load[:seed]");
+      }
+      int load = Integer.parseInt(parts[1]);
+      if (load < 0 || load > 100) {
+        throw new IllegalArgumentException("Load must be a percentage");
+      }
+      long seed = parts.length > 2 ? Long.parseLong(parts[2]) : 42;
+      return new RandomTraffic(new Random(seed), floors, load);
+    }
+    return new LogTraffic(new ArrivalReader(new FileInputStream(source)));
+  }
+
+  /**
+   * Starts the building and steps it for a number of ticks, adding the
+   * arrivals of each tick before it is stepped.
+   *
+   * @param building a building that has not been started
+   * @param traffic  the arrivals
+   * @param ticks    the number of ticks to run
+   * @param recorder records the run, or null
+   * @return the counts and the time taken.
+   * @throws IOException if the arrivals cannot be read.
+   */
+  static Result simulate(Building building, Traffic traffic, long ticks, TraceRecorder recorder)
+      throws IOException {
+    building.startElevatorSystem();
+    if (recorder != null) {
+      building.setDeltaListener(recorder);
+    }
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      pool.resetPeakUsage();
+    }
+    Result result = new Result();
+    long start = System.nanoTime();
+    for (long tick = 0; tick < ticks; tick++) {
+      traffic.arrive(building, tick);
+      building.step();
+    }
+    result.nanos = System.nanoTime() - start;
+    result.ticks = ticks;
+    result.requests = traffic.requests;
+    result.refused = traffic.refused;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        result.peakHeap += pool.getPeakUsage().getUsed();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Prints the report of a run.  The peak heap is the sum of the peak of
+   * each heap memory pool since the run started, so it can be a little
+   * more than the heap ever held at once.
+   */
+  private static void report(PrintStream out, Building building, DispatchStrategy strategy,
+                             ElevatorEngine engine, Result result) {
+    double seconds = result.nanos / 1e9;
+    BuildingReport status = building.getElevatorSystemStatus();
+    int elevators = status.getNumElevators();
+    out.printf(Locale.ROOT, "floors=%d%n", status.getNumFloors());
+    out.printf(Locale.ROOT, "elevators=%d%n", elevators);
+    out.printf(Locale.ROOT, "capacity=%d%n", status.getElevatorCapacity());
+    out.printf(Locale.ROOT, "strategy=%s%n", strategy);
+    out.printf(Locale.ROOT, "engine=%s%n", engine);
+    out.printf(Locale.ROOT, "ticks=%d%n", result.ticks);
+    out.printf(Locale.ROOT, "requests=%d%n", result.requests);
+    out.printf(Locale.ROOT, "refused=%d%n", result.refused);
+    out.printf(Locale.ROOT, "delivered=%d%n", building.getDeliveredCount());
+    out.printf(Locale.ROOT, "waiting_up=%d%n", status.getUpRequests().size());
+    out.printf(Locale.ROOT, "waiting_down=%d%n", status.getDownRequests().size());
+    out.printf(Locale.ROOT, "seconds=%.3f%n", seconds);
+    out.printf(Locale.ROOT, "ticks_per_second=%.0f%n", result.ticks / seconds);
+    out.printf(Locale.ROOT, "elevator_steps_per_second=%.0f%n",
+        result.ticks * (double) elevators / seconds);
+    out.printf(Locale.ROOT, "peak_heap_bytes=%d%n", result.peakHeap);
+  }
+
+  /**
+   * The arrivals of a run.  This one has none.
+   */
+  static class Traffic implements AutoCloseable {
+    long requests;
+    long refused;
+
+    /**
+     * Adds the requests that arrive on a tick.
+     *
+     * @param building the building
+     * @param tick     the tick, counting from 0
+     * @throws IOException if the arrivals cannot be read.
+     */
+    void arrive(Building building, long tick) throws IOException {
+    }
+
+    final void add(Building building, int startFloor, int endFloor) {
+      if (building.tryAddRequest(startFloor, endFloor) == RequestStatus.accepted) {
+        requests++;
+      } else {
+        refused++;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+  }
+
+  /**
+   * A passenger arrives on load percent of the ticks, travelling as in
+   * StrategyComparison.
+   */
+  private static final class RandomTraffic extends Traffic {
+    private final Random random;
+    private final int floors;
+    private final int load;
+
+    private RandomTraffic(Random random, int floors, int load) {
+      this.random = random;
+      this.floors = floors;
+      this.load = load;
+    }
+
+    @Override
+    void arrive(Building building, long tick) {
+      if (random.nextInt(100) < load) {
+        Request request = StrategyComparison.randomRequest(random, floors);
+        this.add(building, request.getStartFloor(), request.getEndFloor());
+      }
+    }
+  }
+
+  /**
+   * The arrivals of a log, read as the run reaches their ticks.
+   */
+  private static final class LogTraffic extends Traffic {
+    private final ArrivalReader arrivals;
+    private boolean started;
+    private boolean waiting;
+
+    private LogTraffic(ArrivalReader arrivals) {
+      this.arrivals = arrivals;
+    }
+
+    @Override
+    void arrive(Building building, long tick) throws IOException {
+      if (!started) {
+        waiting = arrivals.next();
+        started = true;
+      }
+      while (waiting && arrivals.getTick() <= tick) {
+        this.add(building, arrivals.getStartFloor(), arrivals.getEndFloor());
+        waiting = arrivals.next();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      arrivals.close();
+    }
+  }
+
+  /**
+   * The counts of one run.
+   */
+  static final class Result {
+    long ticks;
+    long requests;
+    long refused;
+    long nanos;
+    long peakHeap;
+  }
+}
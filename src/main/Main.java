@@ -22,6 +22,8 @@ public class Main {
    */
   public static void main(String[] args) {
     Building model = new Building(10, 7, 5);
+    model.setStepTiming(true);
+    model.getMetrics().register("main");
     BuildingViewInterface view = new BuildingView();
     BuildingControllerInterface controller = new BuildingController(view, model);
     controller.startElevatorSystem();
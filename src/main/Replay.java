@@ -0,0 +1,142 @@
+package main;
+
+import building.Building;
+import building.BuildingReport;
+import building.CollectiveDispatch;
+import building.DestinationDispatch;
+import building.DispatchStrategy;
+import building.EtaDispatch;
+import building.NearestCarDispatch;
+import building.TerminalDispatch;
+import building.enums.ElevatorEngine;
+import building.enums.RequestStatus;
+import building.enums.ScaleMode;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Replays a log of passenger arrivals through a building without a view,
+ * as fast as the building can step, and prints the ticks and requests per
+ * second and the requests still waiting at the end.
+ * Each arrival is added at the start of its tick, before the building
+ * steps.  Ticks with no arrivals and no requests waiting are skipped with
+ * advance(), which moves the elevators the same way stepping them would.
+ * The log is read a line at a time, see ArrivalReader.
+ * Usage: java main.Replay log floors elevators capacity [strategy [engine]]
+ * where strategy is terminal, nearest, collective, eta or destination and
+ * engine is object or fleet.
+ */
+public class Replay {
+
+  /**
+   * Runs the replay.
+   *
+   * @param args the log, floors, elevators, capacity, and optionally the
+   *             dispatch strategy and elevator engine.
+   * @throws IOException if the log cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 4) {
+      System.err.println("Usage: java main.Replay log floors elevators capacity"
+          + " [terminal|nearest|collective|eta|destination [object|fleet]]");
+      System.exit(2);
+    }
+    int floors = Integer.parseInt(args[1]);
+    int elevators = Integer.parseInt(args[2]);
+    int capacity = Integer.parseInt(args[3]);
+    DispatchStrategy strategy = strategy(args.length > 4 ? args[4] : "terminal");
+    ElevatorEngine engine = args.length > 5 && args[5].equals("fleet")
+        ? ElevatorEngine.fleet : ElevatorEngine.object;
+
+    Building building = new Building(floors, elevators, capacity, engine, ScaleMode.highScale);
+    building.setDispatchStrategy(strategy);
+    Result result;
+    try (ArrivalReader arrivals = new ArrivalReader(new FileInputStream(args[0]))) {
+      result = run(building, arrivals);
+    }
+    double seconds = result.nanos / 1e9;
+    System.out.printf("%d floors, %d elevators, capacity %d, %s dispatch, %s engine%n",
+        floors, elevators, capacity, strategy, engine);
+    System.out.printf("%d ticks, %d requests (%d refused) in %.3f s%n",
+        result.ticks, result.requests, result.refused, seconds);
+    System.out.printf("%.0f ticks/s, %.0f requests/s%n",
+        result.ticks / seconds, result.requests / seconds);
+    System.out.printf("Waiting at the end: %d up, %d down%n",
+        result.upRequests, result.downRequests);
+  }
+
+  /**
+   * Returns the dispatch strategy with a name.
+   *
+   * @param name terminal, nearest, collective, eta or destination
+   * @return a new strategy.
+   * @throws IllegalArgumentException if there is no strategy with that name.
+   */
+  static DispatchStrategy strategy(String name) {
+    switch (name) {
+      case "terminal":
+        return new TerminalDispatch();
+      case "nearest":
+        return new NearestCarDispatch();
+      case "collective":
+        return new CollectiveDispatch();
+      case "eta":
+        return new EtaDispatch();
+      case "destination":
+        return new DestinationDispatch();
+      default:
+        throw new IllegalArgumentException("Unknown dispatch strategy " + name);
+    }
+  }
+
+  /**
+   * Starts the building and replays every arrival, stepping up to the tick
+   * of the last one.  A request the building refuses, because a floor is
+   * out of range or too many requests are waiting, is counted and dropped.
+   *
+   * @param building a building that has not been started
+   * @param arrivals the arrivals, in tick order
+   * @return the counts and the time taken.
+   * @throws IOException if the arrivals cannot be read.
+   */
+  static Result run(Building building, ArrivalReader arrivals) throws IOException {
+    building.startElevatorSystem();
+    Result result = new Result();
+    long start = System.nanoTime();
+    long first = building.getCurrentTick();
+    while (arrivals.next()) {
+      long tick = first + arrivals.getTick();
+      if (tick > building.getCurrentTick()) {
+        building.advance(tick - building.getCurrentTick());
+      }
+      RequestStatus status = building.tryAddRequest(arrivals.getStartFloor(),
+          arrivals.getEndFloor());
+      if (status == RequestStatus.accepted) {
+        result.requests++;
+      } else {
+        result.refused++;
+      }
+    }
+    if (result.requests + result.refused > 0) {
+      building.step();
+    }
+    result.nanos = System.nanoTime() - start;
+    result.ticks = building.getCurrentTick() - first;
+    BuildingReport report = building.getElevatorSystemStatus();
+    result.upRequests = report.getUpRequests().size();
+    result.downRequests = report.getDownRequests().size();
+    return result;
+  }
+
+  /**
+   * The counts of one replay.
+   */
+  static final class Result {
+    long ticks;
+    long requests;
+    long refused;
+    long nanos;
+    int upRequests;
+    int downRequests;
+  }
+}
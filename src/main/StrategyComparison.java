@@ -0,0 +1,311 @@
+package main;
+
+import building.Building;
+import building.BuildingReport;
+import building.CollectiveDispatch;
+import building.DestinationDispatch;
+import building.DispatchStrategy;
+import building.EtaDispatch;
+import building.NearestCarDispatch;
+import building.TerminalDispatch;
+import building.enums.Direction;
+import building.enums.MotionMode;
+import elevator.ElevatorInterface;
+import elevator.ElevatorReport;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import scanerzus.Request;
+import scanerzus.RequestBuffer;
+
+/**
+ * Runs the same traffic through a building once for each dispatch strategy
+ * and motion mode, and prints the average wait, the 95th percentile wait and
+ * the passengers delivered per hour.  One tick is taken to be one second.
+ * The wait of a passenger is the time from the request being added until
+ * the elevator it was given to opens its doors at the start floor.
+ * The passengers delivered are counted by the elevators themselves.
+ * The round trip is the average time between two departures of an elevator
+ * from the ground floor, and the handling capacity is the number of
+ * passengers the elevators could carry up from the ground floor in an hour
+ * at that round trip: elevators * capacity * 3600 / round trip.  The stops
+ * per trip are the times an elevator opens its doors in a round trip.
+ * Usage: java main.StrategyComparison [floors elevators capacity hours seed load]
+ * where load is the percentage of ticks on which a passenger arrives.
+ */
+public class StrategyComparison {
+  private static final int TICKS_PER_HOUR = 3600;
+
+  /**
+   * Runs the comparison.
+   *
+   * @param args optional floors, elevators, capacity, hours of traffic and random seed.
+   */
+  public static void main(String[] args) {
+    int floors = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    int elevators = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    int hours = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+    int load = args.length > 5 ? Integer.parseInt(args[5]) : 25;
+
+    List<Request[]> traffic = makeTraffic(floors, hours * TICKS_PER_HOUR, seed, load);
+    DispatchStrategy[] strategies = {new TerminalDispatch(), new NearestCarDispatch(),
+        new CollectiveDispatch(), new EtaDispatch(), new DestinationDispatch()};
+
+    System.out.printf("%d floors, %d elevators, capacity %d, %d hours of traffic, load %d%%%n",
+        floors, elevators, capacity, hours, load);
+    System.out.printf("%-12s %-11s %10s %10s %10s %9s %11s %11s %11s%n", "Strategy", "Motion",
+        "Avg wait", "p95 wait", "Delivered", "Per hour", "Round trip", "Stops/trip",
+        "Capacity/h");
+    for (MotionMode mode : MotionMode.values()) {
+      for (DispatchStrategy strategy : strategies) {
+        Result result = run(strategy, mode, traffic, floors, elevators, capacity);
+        System.out.printf("%-12s %-11s %9.1fs %9ds %10d %9.0f %10.1fs %11.1f %11.0f%n",
+            strategy, mode, result.averageWait(), result.percentileWait(95), result.delivered,
+            result.delivered * (double) TICKS_PER_HOUR / result.ticks, result.roundTrip,
+            result.stopsPerTrip, elevators * capacity * TICKS_PER_HOUR / result.roundTrip);
+      }
+    }
+  }
+
+  /**
+   * Makes the requests that arrive on each tick, see randomRequest.
+   *
+   * @param floors the number of floors
+   * @param ticks  the number of ticks of traffic
+   * @param seed   the random seed
+   * @param load   the percentage of ticks on which a passenger arrives
+   * @return the requests of each tick.
+   */
+  static List<Request[]> makeTraffic(int floors, int ticks, long seed, int load) {
+    Random random = new Random(seed);
+    List<Request[]> traffic = new ArrayList<>(ticks);
+    for (int tick = 0; tick < ticks; tick++) {
+      if (random.nextInt(100) >= load) {
+        traffic.add(new Request[0]);
+        continue;
+      }
+      traffic.add(new Request[] {randomRequest(random, floors)});
+    }
+    return traffic;
+  }
+
+  /**
+   * Makes the request of one passenger.  Half of the passengers travel up
+   * from the lobby, a third travel down to it, the rest travel between
+   * upper floors.
+   *
+   * @param random the random numbers to use
+   * @param floors the number of floors
+   * @return the request.
+   */
+  static Request randomRequest(Random random, int floors) {
+    int upper = 1 + random.nextInt(floors - 1);
+    int kind = random.nextInt(6);
+    if (kind < 3) {
+      return new Request(0, upper);
+    } else if (kind < 5) {
+      return new Request(upper, 0);
+    }
+    int other = 1 + random.nextInt(floors - 1);
+    return other == upper ? new Request(upper, 0) : new Request(upper, other);
+  }
+
+  /**
+   * Runs the traffic through a new building with a strategy and motion mode,
+   * then keeps stepping until every passenger has been delivered.
+   */
+  static Result run(DispatchStrategy strategy, MotionMode mode, List<Request[]> traffic,
+                    int floors, int elevators, int capacity) {
+    Building building = new Building(floors, elevators, capacity);
+    Recorder recorder = new Recorder(strategy);
+    building.setDispatchStrategy(recorder);
+    building.setMotionMode(mode);
+    building.startElevatorSystem();
+    RoundTrips roundTrips = new RoundTrips(elevators);
+
+    for (Request[] requests : traffic) {
+      building.addRequests(requests);
+      building.step();
+      recorder.update(building.getCurrentTick());
+      roundTrips.update(building);
+    }
+    long limit = building.getCurrentTick() + 100L * TICKS_PER_HOUR;
+    while ((!recorder.trips.isEmpty() || hasPendingRequests(building))
+        && building.getCurrentTick() < limit) {
+      building.step();
+      recorder.update(building.getCurrentTick());
+      roundTrips.update(building);
+    }
+    return new Result(recorder.waits, building.getDeliveredCount(), building.getCurrentTick(),
+        roundTrips.averageTicks(), roundTrips.averageStops());
+  }
+
+  private static boolean hasPendingRequests(Building building) {
+    BuildingReport report = building.getElevatorSystemStatus();
+    return !report.getUpRequests().isEmpty() || !report.getDownRequests().isEmpty();
+  }
+
+  /**
+   * Passes the assignment on to a strategy and follows each passenger it
+   * assigns until the elevator delivers them.
+   */
+  private static final class Recorder implements DispatchStrategy {
+    private final DispatchStrategy strategy;
+    private final List<Trip> trips = new ArrayList<>();
+    private final List<Long> waits = new ArrayList<>();
+    private long tick;
+
+    private Recorder(DispatchStrategy strategy) {
+      this.strategy = strategy;
+    }
+
+    @Override
+    public void assign(Direction direction, RequestBuffer pending, ElevatorInterface[] cars,
+                       int carCount, int capacity, long currentTick, int[] assignment) {
+      strategy.assign(direction, pending, cars, carCount, capacity, currentTick, assignment);
+      for (int i = 0; i < pending.size(); i++) {
+        if (assignment[i] != -1) {
+          Trip trip = new Trip(cars[assignment[i]], pending.getStartFloor(i),
+              pending.getEndFloor(i), pending.getArrivalTick(i));
+          // a passenger given to an elevator standing open at their floor
+          // gets on now, the door may close before the next update.
+          if (!trip.car.isDoorClosed() && trip.car.getCurrentFloor() == trip.startFloor) {
+            trip.pickedUp = true;
+            waits.add(tick - trip.arrivalTick);
+          }
+          trips.add(trip);
+        }
+      }
+    }
+
+    private void update(long tick) {
+      this.tick = tick;
+      for (int i = trips.size() - 1; i >= 0; i--) {
+        Trip trip = trips.get(i);
+        ElevatorInterface car = trip.car;
+        if (car.isDoorClosed()) {
+          continue;
+        }
+        if (!trip.pickedUp && car.getCurrentFloor() == trip.startFloor) {
+          trip.pickedUp = true;
+          waits.add(tick - trip.arrivalTick);
+        } else if (trip.pickedUp && car.getCurrentFloor() == trip.endFloor) {
+          trips.set(i, trips.get(trips.size() - 1));
+          trips.remove(trips.size() - 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Times each elevator between its departures from the ground floor and
+   * counts the stops it makes in between.
+   * An elevator departs when it stops taking requests at the ground floor.
+   */
+  private static final class RoundTrips {
+    private final boolean[] waiting;
+    private final boolean[] doorOpen;
+    private final long[] lastDeparture;
+    private final int[] stops;
+    private long totalTicks;
+    private long totalStops;
+    private long count;
+
+    private RoundTrips(int elevators) {
+      this.waiting = new boolean[elevators];
+      this.doorOpen = new boolean[elevators];
+      this.lastDeparture = new long[elevators];
+      this.stops = new int[elevators];
+      Arrays.fill(this.lastDeparture, -1);
+    }
+
+    private void update(Building building) {
+      ElevatorReport[] reports = building.getElevatorSystemStatus().getElevatorReports();
+      for (int i = 0; i < reports.length; i++) {
+        boolean open = !reports[i].isDoorClosed();
+        if (open && !doorOpen[i]) {
+          stops[i]++;
+        }
+        doorOpen[i] = open;
+        boolean atGround = reports[i].isTakingRequests() && reports[i].getCurrentFloor() == 0;
+        if (waiting[i] && !atGround) {
+          long tick = building.getCurrentTick();
+          if (lastDeparture[i] != -1) {
+            totalTicks += tick - lastDeparture[i];
+            totalStops += stops[i];
+            count++;
+          }
+          lastDeparture[i] = tick;
+          stops[i] = 0;
+        }
+        waiting[i] = atGround;
+      }
+    }
+
+    private double averageTicks() {
+      return count == 0 ? 0 : (double) totalTicks / count;
+    }
+
+    private double averageStops() {
+      return count == 0 ? 0 : (double) totalStops / count;
+    }
+  }
+
+  private static final class Trip {
+    private final ElevatorInterface car;
+    private final int startFloor;
+    private final int endFloor;
+    private final long arrivalTick;
+    private boolean pickedUp;
+
+    private Trip(ElevatorInterface car, int startFloor, int endFloor, long arrivalTick) {
+      this.car = car;
+      this.startFloor = startFloor;
+      this.endFloor = endFloor;
+      this.arrivalTick = arrivalTick;
+    }
+  }
+
+  /**
+   * The waits and deliveries of one run.
+   */
+  static final class Result {
+    private final long[] waits;
+    private final long delivered;
+    private final long ticks;
+    private final double roundTrip;
+    private final double stopsPerTrip;
+
+    Result(List<Long> waits, long delivered, long ticks, double roundTrip,
+           double stopsPerTrip) {
+      this.waits = new long[waits.size()];
+      for (int i = 0; i < this.waits.length; i++) {
+        this.waits[i] = waits.get(i);
+      }
+      Arrays.sort(this.waits);
+      this.delivered = delivered;
+      this.ticks = ticks;
+      this.roundTrip = roundTrip;
+      this.stopsPerTrip = stopsPerTrip;
+    }
+
+    double averageWait() {
+      long total = 0;
+      for (long wait : waits) {
+        total += wait;
+      }
+      return waits.length == 0 ? 0 : (double) total / waits.length;
+    }
+
+    long percentileWait(int percentile) {
+      if (waits.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile / 100.0 * waits.length) - 1;
+      return waits[Math.max(0, index)];
+    }
+  }
+}
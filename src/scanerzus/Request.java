@@ -55,6 +55,29 @@ public class Request implements RequestInterface {
   public String toString() {
     return startFloor + "->" + endFloor;
   }
+
+  /**
+   * Two requests are equal if they have the same startFloor and endFloor.
+   *
+   * @param o the object to compare to.
+   * @return true if the requests are equal.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Request)) {
+      return false;
+    }
+    Request other = (Request) o;
+    return startFloor == other.startFloor && endFloor == other.endFloor;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * startFloor + endFloor;
+  }
 }
 
 
@@ -0,0 +1,186 @@
+package scanerzus;
+
+import java.util.Arrays;
+
+
+/**
+ * This class holds a batch of requests packed into primitive arrays.
+ * Each entry has a startFloor, an endFloor, the tick it arrived at and an id.
+ * It is meant for high-volume traffic: the buffer is filled, handed to the
+ * elevator system and then cleared and filled again, so once it has grown
+ * to the size of a batch it does not allocate any more.
+ * Like Request, the buffer does no error checking on the floors.
+ */
+public class RequestBuffer {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private int[] startFloors;
+  private int[] endFloors;
+  private long[] arrivalTicks;
+  private long[] ids;
+  private int size;
+
+  /**
+   * The constructor for an empty buffer.
+   */
+  public RequestBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * The constructor for an empty buffer with room for a number of requests.
+   *
+   * @param capacity the number of requests the buffer can hold before it grows.
+   * @throws IllegalArgumentException if capacity is negative
+   */
+  public RequestBuffer(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must not be negative");
+    }
+    this.startFloors = new int[capacity];
+    this.endFloors = new int[capacity];
+    this.arrivalTicks = new long[capacity];
+    this.ids = new long[capacity];
+  }
+
+  /**
+   * Adds a request to the buffer.
+   *
+   * @param startFloor  the start floor.
+   * @param endFloor    the end floor.
+   * @param arrivalTick the tick the request arrived at.
+   * @param id          the id of the request.
+   */
+  public void add(int startFloor, int endFloor, long arrivalTick, long id) {
+    if (size == startFloors.length) {
+      this.grow();
+    }
+    startFloors[size] = startFloor;
+    endFloors[size] = endFloor;
+    arrivalTicks[size] = arrivalTick;
+    ids[size] = id;
+    size++;
+  }
+
+  /**
+   * Adds a request to the buffer with arrival tick 0 and id 0.
+   *
+   * @param startFloor the start floor.
+   * @param endFloor   the end floor.
+   */
+  public void add(int startFloor, int endFloor) {
+    this.add(startFloor, endFloor, 0, 0);
+  }
+
+  /**
+   * Gets the number of requests in the buffer.
+   *
+   * @return the number of requests in the buffer.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Is the buffer empty.
+   *
+   * @return true if there are no requests in the buffer.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes every request from the buffer, keeping its arrays.
+   */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Gets the start floor of a request.
+   *
+   * @param index the index of the request.
+   * @return the start floor of the request.
+   */
+  public int getStartFloor(int index) {
+    this.checkIndex(index);
+    return startFloors[index];
+  }
+
+  /**
+   * Gets the end floor of a request.
+   *
+   * @param index the index of the request.
+   * @return the end floor of the request.
+   */
+  public int getEndFloor(int index) {
+    this.checkIndex(index);
+    return endFloors[index];
+  }
+
+  /**
+   * Gets the tick a request arrived at.
+   *
+   * @param index the index of the request.
+   * @return the arrival tick of the request.
+   */
+  public long getArrivalTick(int index) {
+    this.checkIndex(index);
+    return arrivalTicks[index];
+  }
+
+  /**
+   * Gets the id of a request.
+   *
+   * @param index the index of the request.
+   * @return the id of the request.
+   */
+  public long getId(int index) {
+    this.checkIndex(index);
+    return ids[index];
+  }
+
+  /**
+   * Returns a request of the buffer as a Request object.
+   *
+   * @param index the index of the request.
+   * @return a new Request with the floors of the request.
+   */
+  public Request toRequest(int index) {
+    this.checkIndex(index);
+    return new Request(startFloors[index], endFloors[index]);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  private void grow() {
+    int capacity = Math.max(DEFAULT_CAPACITY, startFloors.length * 2);
+    startFloors = Arrays.copyOf(startFloors, capacity);
+    endFloors = Arrays.copyOf(endFloors, capacity);
+    arrivalTicks = Arrays.copyOf(arrivalTicks, capacity);
+    ids = Arrays.copyOf(ids, capacity);
+  }
+
+  /**
+   * Returns a string representation of the buffer.
+   * This is a string of the form: "[startFloor->endFloor, ...]"
+   *
+   * @return a string representation of the buffer.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(startFloors[i]).append("->").append(endFloors[i]);
+    }
+    return sb.append(']').toString();
+  }
+}
@@ -0,0 +1,127 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import building.enums.ElevatorEngine;
+import building.enums.StepPhase;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the BuildingMetrics class.
+ */
+public class BuildingMetricsTest {
+
+  /**
+   * Test that steps are not timed until timing is turned on.
+   */
+  @Test
+  public void timingIsOffByDefault() {
+    Building building = new Building(10, 3, 5);
+    building.startElevatorSystem();
+    building.step();
+    assertEquals(0, building.getMetrics().getStepCount());
+    building.setStepTiming(true);
+    building.step();
+    building.setStepTiming(false);
+    building.step();
+    assertEquals(1, building.getMetrics().getStepCount());
+  }
+
+  /**
+   * Test that each phase is timed once a step and the phases add up to the step.
+   */
+  @Test
+  public void phasesAddUpToTheStep() {
+    Building building = new Building(20, 6, 5, ElevatorEngine.fleet);
+    building.startElevatorSystem();
+    building.setStepTiming(true);
+    for (int tick = 0; tick < 100; tick++) {
+      building.addRequest(new Request(tick % 20, (tick + 7) % 20));
+      building.step();
+    }
+    BuildingMetrics metrics = building.getMetrics();
+    assertEquals(100, metrics.getStepCount());
+    long phases = 0;
+    for (StepPhase phase : StepPhase.values()) {
+      assertEquals(100, metrics.getTimes(phase).getCount());
+      phases += metrics.getTotalNanos(phase);
+    }
+    assertEquals(metrics.getStepTotalNanos(), phases);
+    assertTrue(metrics.getMoveTotalNanos() > 0);
+    assertTrue(metrics.getStepMaxNanos() >= metrics.getStepP99Nanos());
+    assertTrue(metrics.getStepP99Nanos() >= metrics.getStepP50Nanos());
+
+    // a stopping building moves its elevators but dispatches nothing.
+    building.stopElevatorSystem();
+    building.step();
+    assertEquals(101, metrics.getTimes(StepPhase.move).getCount());
+    assertEquals(100, metrics.getTimes(StepPhase.dispatch).getCount());
+
+    metrics.reset();
+    assertEquals(0, metrics.getStepCount());
+    assertEquals(0, metrics.getStepTotalNanos());
+    assertEquals(0, metrics.getDispatchMaxNanos());
+  }
+
+  /**
+   * Test that the queue depths and elevator states are read from the building.
+   */
+  @Test
+  public void gaugesFollowTheBuilding() {
+    Building building = new Building(10, 4, 5);
+    BuildingMetrics metrics = building.getMetrics();
+    assertEquals(4, metrics.getOutOfServiceCount());
+
+    building.startElevatorSystem();
+    building.addRequest(new Request(1, 5));
+    building.addRequest(new Request(2, 6));
+    building.addRequest(new Request(8, 3));
+    assertEquals(2, metrics.getUpQueueDepth());
+    assertEquals(1, metrics.getDownQueueDepth());
+    for (int tick = 0; tick < 30; tick++) {
+      building.step();
+      assertEquals(4, metrics.getMovingUpCount() + metrics.getMovingDownCount()
+          + metrics.getDoorOpenCount() + metrics.getIdleCount());
+      assertEquals(0, metrics.getOutOfServiceCount());
+    }
+    assertEquals(0, metrics.getUpQueueDepth() + metrics.getDownQueueDepth());
+  }
+
+  /**
+   * Test that the metrics can be read and reset through the platform MBean server.
+   */
+  @Test
+  public void registerWithThePlatformServer() throws JMException {
+    Building building = new Building(10, 2, 5);
+    building.setStepTiming(true);
+    building.startElevatorSystem();
+    building.step();
+    building.step();
+    BuildingMetrics metrics = building.getMetrics();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = metrics.register("metrics test");
+    try {
+      assertEquals("building", name.getDomain());
+      assertEquals(2L, server.getAttribute(name, "StepCount"));
+      assertEquals(0, server.getAttribute(name, "OutOfServiceCount"));
+      try {
+        metrics.register("again");
+        fail("registered twice");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      server.invoke(name, "reset", null, null);
+      assertEquals(0L, server.getAttribute(name, "StepCount"));
+    } finally {
+      metrics.unregister();
+    }
+    assertTrue(!server.isRegistered(name));
+  }
+}
@@ -6,6 +6,8 @@ import static org.junit.Assert.assertTrue;
 import building.enums.Direction;
 import building.enums.ElevatorSystemStatus;
 import elevator.ElevatorReport;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.Arrays;
 import org.junit.Before;
 import org.junit.Test;
@@ -130,4 +132,21 @@ public class BuildingReportTest {
         + "Waiting[Floor 0, Time 1]\n";
     assertEquals(expected, report.toString());
   }
+
+  /**
+   * Tests that appendTo gives the same characters as toString, into a
+   * builder that is reused and into a Writer.
+   */
+  @Test
+  public void testAppendTo() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2; i++) {
+      sb.setLength(0);
+      assertEquals(report.toString(), report.appendTo(sb).toString());
+    }
+    StringWriter writer = new StringWriter();
+    report.appendTo(writer);
+    assertEquals(report.toString(), writer.toString());
+    assertTrue(writer.toString().contains("Up: 1->2\nDown: 3->1\n"));
+  }
 }
@@ -2,14 +2,25 @@ package building;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import building.enums.ElevatorEngine;
 import building.enums.ElevatorSystemStatus;
+import building.enums.MotionMode;
+import building.enums.RequestStatus;
+import building.enums.ScaleMode;
 import elevator.ElevatorReport;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Before;
 import org.junit.Test;
 import scanerzus.Request;
+import scanerzus.RequestBuffer;
 
 /**
  * A JUnit test class for the Building class.
@@ -190,6 +201,309 @@ public class BuildingTest {
     assertEquals(downRequest, building.getElevatorSystemStatus().getDownRequests().get(0));
   }
 
+  /**
+   * Test adding requests from a RequestBuffer.
+   */
+  @Test
+  public void addRequestsFromBuffer() {
+    building.startElevatorSystem();
+    RequestBuffer requests = new RequestBuffer();
+    requests.add(1, 5, 0, 7);
+    requests.add(3, 2, 0, 8);
+    assertTrue(building.addRequests(requests).allAccepted());
+    requests.clear();
+    assertEquals(new Request(1, 5), building.getElevatorSystemStatus().getUpRequests().get(0));
+    assertEquals(new Request(3, 2), building.getElevatorSystemStatus().getDownRequests().get(0));
+  }
+
+  /**
+   * Test that illegal requests in a RequestBuffer are skipped and reported.
+   */
+  @Test
+  public void addRequestsFromBufferWithIllegalRequest() {
+    building.startElevatorSystem();
+    RequestBuffer requests = new RequestBuffer();
+    requests.add(1, 5);
+    requests.add(3, 3);
+    requests.add(2, 0);
+    RequestBatchResult result = building.addRequests(requests);
+    assertEquals(2, result.getAcceptedCount());
+    assertEquals(1, result.getRejectedCount());
+    assertEquals(1, result.getRejectedIndex(0));
+    assertEquals(RequestStatus.sameFloor, result.getRejectedStatus(0));
+    assertEquals(RequestStatus.accepted, result.getStatus(2));
+    assertEquals(1, building.getElevatorSystemStatus().getUpRequests().size());
+    assertEquals(1, building.getElevatorSystemStatus().getDownRequests().size());
+  }
+
+  /**
+   * Test that a batch of Request objects is checked one by one without throwing.
+   */
+  @Test
+  public void addRequestsReportsEachRejectedRequest() {
+    building.startElevatorSystem();
+    Request[] requests = {new Request(1, 2), null, new Request(0, 11), new Request(4, 4),
+        new Request(9, 3)};
+    RequestBatchResult result = building.addRequests(requests);
+    assertEquals(5, result.getSubmittedCount());
+    assertEquals(2, result.getAcceptedCount());
+    assertEquals(RequestStatus.nullRequest, result.getStatus(1));
+    assertEquals(RequestStatus.badFloor, result.getStatus(2));
+    assertEquals(RequestStatus.sameFloor, result.getStatus(3));
+    assertEquals("Accepted 2 of 5, Rejected: 1 Null Request, 2 Bad Floor, 3 Same Floor",
+        result.toString());
+    assertEquals(new Request(9, 3), building.getElevatorSystemStatus().getDownRequests().get(0));
+  }
+
+  /**
+   * Test that a batch given while the system is out of service is rejected as a whole.
+   */
+  @Test
+  public void addRequestsWhenSystemOutOfService() {
+    RequestBatchResult result = building.addRequests(Arrays.asList(new Request(1, 2),
+        new Request(2, 1)));
+    assertEquals(0, result.getAcceptedCount());
+    assertEquals(2, result.getRejectedCount());
+    assertEquals(1, result.getRejectedIndex(1));
+    assertEquals(RequestStatus.notAccepting, result.getStatus(0));
+    assertTrue(building.getElevatorSystemStatus().getUpRequests().isEmpty());
+  }
+
+  /**
+   * Test that requests given as a RequestBuffer are distributed the same
+   * way as Request objects.
+   */
+  @Test
+  public void distributeRequestBufferMatchesRequests() {
+    Building objects = new Building(12, 4, 5);
+    Building buffers = new Building(12, 4, 5);
+    objects.startElevatorSystem();
+    buffers.startElevatorSystem();
+    RequestBuffer requests = new RequestBuffer();
+    Random random = new Random(5);
+    for (int tick = 0; tick < 200; tick++) {
+      requests.clear();
+      int start = random.nextInt(12);
+      int end = random.nextInt(12);
+      if (start != end) {
+        objects.addRequest(new Request(start, end));
+        requests.add(start, end, tick, tick);
+      }
+      buffers.distributeRequests(requests);
+      objects.step();
+      buffers.step();
+      assertEquals(objects.getElevatorSystemStatus().toString(),
+          buffers.getElevatorSystemStatus().toString());
+    }
+  }
+
+  /**
+   * Test that a submitted request is added to the queues on the next step.
+   */
+  @Test
+  public void submitRequestIsAddedOnStep() {
+    building.startElevatorSystem();
+    assertTrue(building.submitRequest(3, 1));
+    assertTrue(building.getElevatorSystemStatus().getDownRequests().isEmpty());
+    building.step();
+    assertEquals(new Request(3, 1), building.getElevatorSystemStatus().getDownRequests().get(0));
+  }
+
+  /**
+   * Test that submitRequest rejects requests while the system is out of service.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void submitRequestWhenSystemOutOfService() {
+    building.submitRequest(1, 2);
+  }
+
+  /**
+   * Test that requests submitted from several threads are all added.
+   */
+  @Test
+  public void submitRequestFromManyThreads() throws InterruptedException {
+    Building tall = new Building(30, 2, 20);
+    tall.startElevatorSystem();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 200; i++) {
+          assertTrue(tall.submitRequest(29, i % 29));
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    tall.step();
+    // both elevators start at the ground floor, so every down request is still waiting.
+    assertEquals(800, tall.getElevatorSystemStatus().getDownRequests().size());
+  }
+
+  /**
+   * Test that a snapshot is published once per tick and does not change
+   * when the building moves on.
+   */
+  @Test
+  public void snapshotIsPublishedEachTick() {
+    building.setSnapshotPublishing(true);
+    building.startElevatorSystem();
+    BuildingReport first = building.getSnapshot();
+    assertEquals(0, first.getVersion());
+    String before = first.toString();
+
+    building.addRequest(new Request(3, 7));
+    assertTrue(building.getSnapshot().getUpRequests().isEmpty());
+    assertEquals(1, building.getElevatorSystemStatus().getUpRequests().size());
+
+    for (int i = 0; i < 12; i++) {
+      building.step();
+      assertEquals(i + 1, building.getSnapshot().getVersion());
+    }
+    assertEquals(before, first.toString());
+    building.advance(100);
+    assertEquals(112, building.getSnapshot().getVersion());
+  }
+
+  /**
+   * Test that reports share the request lists until a queue changes,
+   * and that the lists cannot be changed.
+   */
+  @Test
+  public void reportsShareUnchangedRequestLists() {
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 7));
+    BuildingReport first = building.getElevatorSystemStatus();
+    BuildingReport second = building.getElevatorSystemStatus();
+    assertSame(first.getUpRequests(), second.getUpRequests());
+    building.addRequest(new Request(4, 7));
+    BuildingReport third = building.getElevatorSystemStatus();
+    assertEquals(1, first.getUpRequests().size());
+    assertEquals(2, third.getUpRequests().size());
+    try {
+      third.getUpRequests().add(new Request(1, 2));
+      fail("the request list of a report should not change");
+    } catch (UnsupportedOperationException e) {
+      assertEquals(2, third.getUpRequests().size());
+    }
+  }
+
+  /**
+   * Test that a thread reading snapshots while the building steps
+   * sees the versions in order and every snapshot whole.
+   */
+  @Test
+  public void snapshotReadOnAnotherThread() throws InterruptedException {
+    building.setSnapshotPublishing(true);
+    building.startElevatorSystem();
+    AtomicBoolean running = new AtomicBoolean(true);
+    AtomicReference<String> problem = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      long last = -1;
+      while (running.get()) {
+        BuildingReport snapshot = building.getSnapshot();
+        if (snapshot.getVersion() < last) {
+          problem.set("version went back from " + last + " to " + snapshot.getVersion());
+        }
+        last = snapshot.getVersion();
+        if (!snapshot.toString().equals(snapshot.toString())) {
+          problem.set("snapshot " + last + " changed while it was read");
+        }
+      }
+    });
+    reader.start();
+    Random random = new Random(3);
+    for (int tick = 0; tick < 2000; tick++) {
+      int start = random.nextInt(11);
+      int end = random.nextInt(11);
+      if (start != end) {
+        building.addRequest(new Request(start, end));
+      }
+      building.step();
+    }
+    running.set(false);
+    reader.join();
+    assertNull(problem.get());
+  }
+
+  /**
+   * Test the status tryAddRequest returns for each kind of request.
+   */
+  @Test
+  public void tryAddRequest() {
+    assertEquals(RequestStatus.notAccepting, building.tryAddRequest(1, 2));
+    assertEquals(RequestStatus.badFloor, building.tryAddRequest(1, 11));
+    building.startElevatorSystem();
+    assertEquals(RequestStatus.badFloor, building.tryAddRequest(-1, 2));
+    assertEquals(RequestStatus.sameFloor, building.tryAddRequest(2, 2));
+    assertEquals(RequestStatus.accepted, building.tryAddRequest(2, 1));
+    assertEquals(new Request(2, 1), building.getElevatorSystemStatus().getDownRequests().get(0));
+  }
+
+  /**
+   * Test that requests are refused once the pending limit is reached.
+   */
+  @Test
+  public void tryAddRequestWhenQueueFull() {
+    building.startElevatorSystem();
+    building.setMaxPendingRequests(2);
+    assertEquals(RequestStatus.accepted, building.tryAddRequest(1, 2));
+    assertEquals(RequestStatus.accepted, building.tryAddRequest(2, 1));
+    assertEquals(RequestStatus.queueFull, building.tryAddRequest(3, 4));
+    try {
+      building.addRequest(new Request(3, 4));
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Building has too many pending requests", e.getMessage());
+    }
+    assertEquals(RequestStatus.queueFull,
+        building.addRequests(new Request[] {new Request(3, 4)}).getStatus(0));
+  }
+
+  /**
+   * Test that submitted requests wait in the inbox while the queues are full.
+   */
+  @Test
+  public void submittedRequestsWaitWhileQueueFull() {
+    Building tall = new Building(10, 1, 5);
+    tall.startElevatorSystem();
+    tall.setMaxPendingRequests(3);
+    for (int i = 1; i < 6; i++) {
+      assertTrue(tall.submitRequest(9, i));
+    }
+    tall.step();
+    assertEquals(3, tall.getElevatorSystemStatus().getDownRequests().size());
+  }
+
+  /**
+   * Test that the pending limit must be positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void setMaxPendingRequestsRejectsZero() {
+    building.setMaxPendingRequests(0);
+  }
+
+  /**
+   * Test that the motion mode is set per elevator.
+   */
+  @Test
+  public void setMotionMode() {
+    building.setMotionMode(1, MotionMode.look);
+    assertEquals(MotionMode.fullSweep, building.getMotionMode(0));
+    assertEquals(MotionMode.look, building.getMotionMode(1));
+    building.setMotionMode(MotionMode.look);
+    assertEquals(MotionMode.look, building.getMotionMode(0));
+  }
+
+  /**
+   * Test that the motion mode of an elevator that does not exist cannot be set.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void setMotionModeOfMissingElevator() {
+    building.setMotionMode(8, MotionMode.look);
+  }
+
   /**
    * Test the distributeRequests method throws an exception when ElevatorSystemStatus.outOfService.
    */
@@ -375,4 +689,241 @@ public class BuildingTest {
     assertEquals(ElevatorSystemStatus.running,
         building.getElevatorSystemStatus().getSystemStatus());
   }
+
+  /**
+   * Test that the ids of the elevators in a building are 0 to numberOfElevators - 1.
+   */
+  @Test
+  public void elevatorIdsArePerBuilding() {
+    Building second = new Building(5, 3, 5);
+    for (Building numbered : new Building[] {building, second}) {
+      ElevatorReport[] reports = numbered.getElevatorSystemStatus().getElevatorReports();
+      for (int i = 0; i < reports.length; i++) {
+        assertEquals(i, reports[i].getElevatorId());
+      }
+    }
+    assertEquals(3, second.getElevatorSystemStatus().getElevatorReports().length);
+  }
+
+  /**
+   * Test that setStepParallelism rejects a parallelism less than 1.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void setStepParallelismRejectsZero() {
+    building.setStepParallelism(0);
+  }
+
+  /**
+   * Test that stepping the elevators in parallel gives the same result
+   * as stepping them serially, tick for tick.
+   */
+  @Test
+  public void parallelStepMatchesSerialStep() {
+    Building serial = new Building(20, 300, 8);
+    Building parallel = new Building(20, 300, 8);
+    parallel.setStepParallelism(4);
+    assertEquals(4, parallel.getStepParallelism());
+    serial.startElevatorSystem();
+    parallel.startElevatorSystem();
+
+    Random random = new Random(42);
+    for (int tick = 0; tick < 500; tick++) {
+      if (tick == 400) {
+        serial.stopElevatorSystem();
+        parallel.stopElevatorSystem();
+      }
+      if (tick < 400) {
+        for (int i = 0; i < 10; i++) {
+          int start = random.nextInt(20);
+          int end = random.nextInt(20);
+          if (start != end) {
+            serial.addRequest(new Request(start, end));
+            parallel.addRequest(new Request(start, end));
+          }
+        }
+      }
+      serial.step();
+      parallel.step();
+      assertEquals(serial.getElevatorSystemStatus().toString(),
+          parallel.getElevatorSystemStatus().toString());
+    }
+    parallel.setStepParallelism(1);
+    assertEquals(1, parallel.getStepParallelism());
+  }
+
+  /**
+   * Test the constructor exceptions in high scale mode.
+   * Number of floors must be less than or equal to 256.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void highScaleConstructorThrowsExceptionForMoreThan256Floors() {
+    new Building(257, 5, 4, ElevatorEngine.fleet, ScaleMode.highScale);
+  }
+
+  /**
+   * Test the constructor exceptions in high scale mode.
+   * Elevator capacity must be less than or equal to 80.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void highScaleConstructorThrowsExceptionForMoreThan80Capacity() {
+    new Building(120, 5, 81, ElevatorEngine.object, ScaleMode.highScale);
+  }
+
+  /**
+   * Test that a high scale building serves requests above floor 64.
+   */
+  @Test
+  public void highScaleBuildingServesHighFloors() {
+    Building tower = new Building(256, 60, 40, ElevatorEngine.fleet, ScaleMode.highScale);
+    assertEquals(ScaleMode.highScale, tower.getScaleMode());
+    tower.startElevatorSystem();
+    tower.addRequest(new Request(70, 200));
+    tower.step();
+    ElevatorReport report = tower.getElevatorSystemStatus().getElevatorReports()[0];
+    assertTrue(report.getFloorRequests()[70]);
+    assertTrue(report.getFloorRequests()[200]);
+    assertEquals(200, report.getFloorRequestSet().nextAbove(70));
+    for (int i = 0; i < 300; i++) {
+      tower.step();
+    }
+    report = tower.getElevatorSystemStatus().getElevatorReports()[0];
+    assertTrue(report.getFloorRequestSet().isEmpty());
+  }
+
+  /**
+   * Test that advance rejects a negative number of steps.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void advanceNegativeTicks() {
+    building.advance(-1);
+  }
+
+  /**
+   * Test that advance gives the same result as calling step() that many times,
+   * with requests waiting at the start.
+   */
+  @Test
+  public void advanceMatchesStep() {
+    Building stepped = new Building(12, 4, 5);
+    Building advanced = new Building(12, 4, 5);
+    stepped.startElevatorSystem();
+    advanced.startElevatorSystem();
+    Random random = new Random(5);
+    for (int round = 0; round < 40; round++) {
+      for (int i = 0; i < 3; i++) {
+        int start = random.nextInt(12);
+        int end = random.nextInt(12);
+        if (start != end) {
+          stepped.addRequest(new Request(start, end));
+          advanced.addRequest(new Request(start, end));
+        }
+      }
+      int ticks = random.nextInt(200);
+      for (int i = 0; i < ticks; i++) {
+        stepped.step();
+      }
+      advanced.advance(ticks);
+      assertEquals(stepped.getCurrentTick(), advanced.getCurrentTick());
+      assertEquals(stepped.getElevatorSystemStatus().toString(),
+          advanced.getElevatorSystemStatus().toString());
+    }
+  }
+
+  /**
+   * Test that an idle building can be advanced by a whole day at once,
+   * and ends up where stepping it would.
+   */
+  @Test
+  public void advanceIdleBuildingByADay() {
+    Building stepped = new Building(10, 3, 5);
+    stepped.startElevatorSystem();
+    building = new Building(10, 3, 5);
+    building.startElevatorSystem();
+    long day = 86_400 + 7;
+    for (long i = 0; i < day; i++) {
+      stepped.step();
+    }
+    building.advance(day);
+    assertEquals(day, building.getCurrentTick());
+    assertEquals(stepped.getElevatorSystemStatus().toString(),
+        building.getElevatorSystemStatus().toString());
+  }
+
+  /**
+   * Test that advanceUntilIdle delivers every request.
+   */
+  @Test
+  public void advanceUntilIdle() {
+    building.startElevatorSystem();
+    building.addRequest(new Request(1, 5));
+    building.addRequest(new Request(9, 2));
+    long ticks = building.advanceUntilIdle();
+    assertTrue(ticks > 0);
+    assertEquals(0, building.getElevatorSystemStatus().getUpRequests().size());
+    assertEquals(0, building.getElevatorSystemStatus().getDownRequests().size());
+    for (ElevatorReport report : building.getElevatorSystemStatus().getElevatorReports()) {
+      assertTrue(report.getFloorRequestSet().isEmpty());
+    }
+    assertEquals(0, building.advanceUntilIdle());
+
+    building.stopElevatorSystem();
+    building.advanceUntilIdle();
+    assertEquals(ElevatorSystemStatus.outOfService,
+        building.getElevatorSystemStatus().getSystemStatus());
+  }
+
+  /**
+   * Test that a passenger's wait, ride and journey are recorded in ticks.
+   */
+  @Test
+  public void recordJourneyTimes() {
+    building.startElevatorSystem();
+    building.addRequest(new Request(3, 1));
+    long pickup = -1;
+    long dropOff = -1;
+    while (dropOff < 0) {
+      long tick = building.getCurrentTick();
+      building.step();
+      ElevatorReport car = building.getElevatorSystemStatus().getElevatorReports()[0];
+      if (!car.isDoorClosed() && car.getDoorOpenTimer() == 3) {
+        if (pickup < 0 && car.getCurrentFloor() == 3) {
+          pickup = tick;
+        } else if (pickup >= 0 && car.getCurrentFloor() == 1) {
+          dropOff = tick;
+        }
+      }
+    }
+    assertEquals(1, building.getWaitTimes().getCount());
+    assertEquals(pickup, building.getWaitTimes().getMax());
+    assertEquals(dropOff - pickup, building.getRideTimes().getValueAtPercentile(50));
+    assertEquals(dropOff, building.getJourneyTimes().getValueAtPercentile(100));
+  }
+
+  /**
+   * Test that every delivered passenger has a journey recorded, with every engine.
+   */
+  @Test
+  public void journeysMatchDeliveredRequests() {
+    for (ElevatorEngine engine : ElevatorEngine.values()) {
+      building = new Building(20, 6, 5, engine);
+      building.startElevatorSystem();
+      Random random = new Random(11);
+      for (int tick = 0; tick < 2000; tick++) {
+        int start = random.nextInt(20);
+        int end = random.nextInt(20);
+        if (start != end && tick % 3 == 0) {
+          building.addRequest(new Request(start, end));
+        }
+        building.step();
+      }
+      building.advanceUntilIdle();
+      long delivered = building.getDeliveredCount();
+      assertTrue(delivered > 0);
+      assertEquals(delivered, building.getWaitTimes().getCount());
+      assertEquals(delivered, building.getRideTimes().getCount());
+      assertEquals(delivered, building.getJourneyTimes().getCount());
+      assertTrue(building.getJourneyTimes().getValueAtPercentile(50)
+          >= building.getRideTimes().getValueAtPercentile(50));
+    }
+  }
 }
@@ -0,0 +1,228 @@
+package building;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import building.enums.ElevatorEngine;
+import building.enums.ScaleMode;
+import elevator.ElevatorReport;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the delta records a building sends to a DeltaListener.
+ */
+public class DeltaRecordsTest {
+
+  /**
+   * Keeps a copy of every delta.
+   */
+  private static final class Recorder implements DeltaListener {
+    private final List<Long> ticks = new ArrayList<>();
+    private final List<ByteBuffer> deltas = new ArrayList<>();
+
+    @Override
+    public void onDelta(long tick, ByteBuffer records) {
+      ByteBuffer copy = ByteBuffer.allocate(records.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+      copy.put(records).flip();
+      ticks.add(tick);
+      deltas.add(copy);
+    }
+
+    private ByteBuffer last() {
+      return deltas.get(deltas.size() - 1);
+    }
+  }
+
+  /**
+   * Tests that the first delta has a record for every elevator.
+   */
+  @Test
+  public void firstDeltaDescribesEveryElevator() {
+    Building building = new Building(10, 3, 5);
+    building.startElevatorSystem();
+    Recorder recorder = new Recorder();
+    building.setDeltaListener(recorder);
+
+    assertEquals(1, recorder.deltas.size());
+    assertEquals(0L, (long) recorder.ticks.get(0));
+    ByteBuffer records = recorder.last();
+    assertEquals(3, DeltaRecords.count(records));
+    for (int i = 0; i < 3; i++) {
+      assertEquals(DeltaRecords.CAR, DeltaRecords.type(records, i));
+      assertEquals(i, DeltaRecords.elevator(records, i));
+      assertEquals(0, DeltaRecords.floor(records, i));
+      assertEquals(Direction.UP, DeltaRecords.direction(records, i));
+      assertTrue(DeltaRecords.isDoorClosed(records, i));
+      assertTrue(DeltaRecords.isTakingRequests(records, i));
+    }
+
+    building.step();
+    assertEquals(2, recorder.deltas.size());
+    assertEquals(1L, (long) recorder.ticks.get(1));
+  }
+
+  /**
+   * Tests the records of a request joining and leaving the queue, and of
+   * the queues being cleared.
+   */
+  @Test
+  public void requestRecords() {
+    Building building = new Building(10, 1, 5);
+    building.startElevatorSystem();
+    Recorder recorder = new Recorder();
+    building.setDeltaListener(recorder);
+    building.addRequest(new Request(7, 2));
+    building.addRequest(new Request(1, 4));
+    building.step();
+
+    ByteBuffer records = recorder.last();
+    assertEquals(DeltaRecords.REQUEST_ADDED, DeltaRecords.type(records, 0));
+    assertEquals(Direction.DOWN, DeltaRecords.direction(records, 0));
+    assertEquals(7, DeltaRecords.startFloor(records, 0));
+    assertEquals(2, DeltaRecords.endFloor(records, 0));
+    assertEquals(-1, DeltaRecords.elevator(records, 0));
+    assertEquals(0L, DeltaRecords.requestId(records, 0));
+    assertEquals(DeltaRecords.REQUEST_ADDED, DeltaRecords.type(records, 1));
+    assertEquals(1L, DeltaRecords.requestId(records, 1));
+    // the elevator waits at the ground floor, so it takes the up request.
+    assertEquals(DeltaRecords.REQUEST_REMOVED, DeltaRecords.type(records, 2));
+    assertEquals(Direction.UP, DeltaRecords.direction(records, 2));
+    assertEquals(0, DeltaRecords.elevator(records, 2));
+    assertEquals(1L, DeltaRecords.requestId(records, 2));
+    assertEquals(DeltaRecords.STOPS, DeltaRecords.type(records, 4));
+    assertEquals(0, DeltaRecords.wordIndex(records, 4));
+    assertEquals((1L << 1) | (1L << 4), DeltaRecords.word(records, 4));
+
+    building.stopElevatorSystem();
+    records = recorder.last();
+    assertEquals(DeltaRecords.QUEUE_CLEARED, DeltaRecords.type(records, 0));
+    assertEquals(Direction.UP, DeltaRecords.direction(records, 0));
+    assertEquals(DeltaRecords.QUEUE_CLEARED, DeltaRecords.type(records, 1));
+    assertEquals(Direction.DOWN, DeltaRecords.direction(records, 1));
+  }
+
+  /**
+   * Tests that applying every delta to the state of the first one gives
+   * the reports of the building, tick by tick, and that the queue records
+   * account for every pending request.
+   */
+  @Test
+  public void deltasRebuildTheReports() {
+    for (ElevatorEngine engine : ElevatorEngine.values()) {
+      Building building = new Building(80, 6, 8, engine, ScaleMode.highScale);
+      building.startElevatorSystem();
+      Mirror mirror = new Mirror(6, 80);
+      building.setDeltaListener(mirror);
+      Random random = new Random(7);
+      for (int tick = 0; tick < 600; tick++) {
+        int start = random.nextInt(80);
+        int end = random.nextInt(80);
+        if (start != end && tick < 500) {
+          building.addRequest(new Request(start, end));
+        }
+        building.step();
+        BuildingReport report = building.getElevatorSystemStatus();
+        for (int car = 0; car < 6; car++) {
+          ElevatorReport expected = report.getElevatorReport(car);
+          assertEquals(expected.getCurrentFloor(), mirror.floor[car]);
+          assertEquals(expected.getDirection(), mirror.direction[car]);
+          assertEquals(expected.isDoorClosed(), mirror.doorClosed[car]);
+          assertEquals(expected.getDoorOpenTimer(), mirror.doorOpenTimer[car]);
+          assertEquals(expected.getEndWaitTimer(), mirror.endWaitTimer[car]);
+          assertArrayEquals(expected.getFloorRequests(), mirror.stops[car]);
+        }
+        assertEquals(report.getUpRequests().size() + report.getDownRequests().size(),
+            mirror.pending);
+      }
+    }
+  }
+
+  /**
+   * Tests that both engines send the same bytes.
+   */
+  @Test
+  public void enginesSendTheSameRecords() {
+    Recorder[] recorders = new Recorder[2];
+    for (ElevatorEngine engine : ElevatorEngine.values()) {
+      Building building = new Building(40, 4, 6, engine, ScaleMode.highScale);
+      Recorder recorder = new Recorder();
+      building.setDeltaListener(recorder);
+      building.startElevatorSystem();
+      Random random = new Random(3);
+      for (int tick = 0; tick < 300; tick++) {
+        int start = random.nextInt(40);
+        int end = random.nextInt(40);
+        if (start != end) {
+          building.addRequest(new Request(start, end));
+        }
+        building.step();
+      }
+      building.stopElevatorSystem();
+      building.advanceUntilIdle();
+      recorders[engine.ordinal()] = recorder;
+    }
+    assertEquals(recorders[0].ticks, recorders[1].ticks);
+    assertEquals(recorders[0].deltas, recorders[1].deltas);
+  }
+
+  /**
+   * The state of a building as rebuilt from its deltas.
+   */
+  private static final class Mirror implements DeltaListener {
+    private final int[] floor;
+    private final Direction[] direction;
+    private final boolean[] doorClosed;
+    private final int[] doorOpenTimer;
+    private final int[] endWaitTimer;
+    private final boolean[][] stops;
+    private int pending;
+
+    private Mirror(int elevators, int floors) {
+      floor = new int[elevators];
+      direction = new Direction[elevators];
+      doorClosed = new boolean[elevators];
+      doorOpenTimer = new int[elevators];
+      endWaitTimer = new int[elevators];
+      stops = new boolean[elevators][floors];
+    }
+
+    @Override
+    public void onDelta(long tick, ByteBuffer records) {
+      for (int i = 0; i < DeltaRecords.count(records); i++) {
+        int car = DeltaRecords.elevator(records, i);
+        switch (DeltaRecords.type(records, i)) {
+          case DeltaRecords.CAR:
+            floor[car] = DeltaRecords.floor(records, i);
+            direction[car] = DeltaRecords.direction(records, i);
+            doorClosed[car] = DeltaRecords.isDoorClosed(records, i);
+            doorOpenTimer[car] = DeltaRecords.doorOpenTimer(records, i);
+            endWaitTimer[car] = DeltaRecords.endWaitTimer(records, i);
+            break;
+          case DeltaRecords.STOPS:
+            long word = DeltaRecords.word(records, i);
+            int first = DeltaRecords.wordIndex(records, i) * 64;
+            for (int bit = 0; bit < 64 && first + bit < stops[car].length; bit++) {
+              stops[car][first + bit] = (word & (1L << bit)) != 0;
+            }
+            break;
+          case DeltaRecords.REQUEST_ADDED:
+            pending++;
+            break;
+          case DeltaRecords.REQUEST_REMOVED:
+            pending--;
+            break;
+          default:
+            pending = 0;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package building;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import elevator.Elevator;
+import elevator.ElevatorInterface;
+import elevator.FloorRequestSet;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+import scanerzus.RequestBuffer;
+
+/**
+ * A JUnit test class for the DispatchStrategy implementations.
+ */
+public class DispatchStrategyTest {
+  private ElevatorInterface[] cars;
+  private RequestBuffer pending;
+  private int[] assignment;
+
+  /**
+   * Sets up two elevators waiting at the ground floor and five up requests.
+   */
+  @Before
+  public void setUp() {
+    cars = new ElevatorInterface[] {new Elevator(12, 5, 0), new Elevator(12, 5, 1)};
+    for (ElevatorInterface car : cars) {
+      car.start();
+    }
+    pending = new RequestBuffer();
+    pending.add(0, 5);
+    pending.add(2, 9);
+    pending.add(0, 5);
+    pending.add(2, 9);
+    pending.add(3, 7);
+    assignment = new int[pending.size()];
+    Arrays.fill(assignment, -1);
+  }
+
+  /**
+   * Tests that the terminal strategy fills the first elevator before the next.
+   */
+  @Test
+  public void terminalFillsElevatorsInOrder() {
+    new TerminalDispatch().assign(Direction.UP, pending, cars, 2, 3, 0, assignment);
+    assertArrayEquals(new int[] {0, 0, 0, 1, 1}, assignment);
+  }
+
+  /**
+   * Tests that nearest-car shares requests between elevators at the same floor.
+   */
+  @Test
+  public void nearestCarSharesRequests() {
+    new NearestCarDispatch().assign(Direction.UP, pending, cars, 2, 5, 0, assignment);
+    assertArrayEquals(new int[] {0, 1, 0, 1, 0}, assignment);
+  }
+
+  /**
+   * Tests that collective control groups requests with the same floors.
+   */
+  @Test
+  public void collectiveGroupsSharedStops() {
+    new CollectiveDispatch().assign(Direction.UP, pending, cars, 2, 2, 0, assignment);
+    assertArrayEquals(new int[] {0, 1, 0, 1, -1}, assignment);
+  }
+
+  /**
+   * Tests that the ETA strategy counts the stops already on the way.
+   */
+  @Test
+  public void etaCountsStopsOnTheWay() {
+    new EtaDispatch().assign(Direction.UP, pending, cars, 2, 5, 0, assignment);
+    // 3->7 goes to elevator 0: elevator 1 stops at 2 on the way to 3.
+    assertArrayEquals(new int[] {0, 1, 0, 1, 0}, assignment);
+    FloorRequestSet stops = new FloorRequestSet(12);
+    stops.add(2);
+    stops.add(9);
+    assertEquals(3 + EtaDispatch.STOP_TICKS, EtaDispatch.estimate(0, 3, stops));
+    assertEquals(10 + 2 * EtaDispatch.STOP_TICKS, EtaDispatch.estimate(11, 1, stops));
+  }
+
+  /**
+   * Tests that destination dispatch fills each elevator with the largest
+   * groups of requests going to the same floor.
+   */
+  @Test
+  public void destinationGroupsByEndFloor() {
+    pending.clear();
+    pending.add(0, 7);
+    for (int i = 0; i < 2; i++) {
+      pending.add(0, 3);
+      pending.add(0, 5);
+    }
+    pending.add(0, 3);
+    assignment = new int[] {-1, -1, -1, -1, -1, -1};
+    new DestinationDispatch().assign(Direction.UP, pending, cars, 2, 3, 0, assignment);
+    assertArrayEquals(new int[] {1, 0, 1, 0, 1, 0}, assignment);
+  }
+
+  /**
+   * Tests that destination dispatch gives a request that has waited too long
+   * to the first elevator, whatever its destination.
+   */
+  @Test
+  public void destinationServesOldRequestsFirst() {
+    pending.clear();
+    pending.add(0, 7, 0, 0);
+    for (int i = 0; i < 2; i++) {
+      pending.add(0, 3, 100, 0);
+      pending.add(0, 5, 100, 0);
+    }
+    pending.add(0, 3, 100, 0);
+    assignment = new int[] {-1, -1, -1, -1, -1, -1};
+    DestinationDispatch strategy = new DestinationDispatch(60);
+    assertEquals(60, strategy.getMaxAge());
+    strategy.assign(Direction.UP, pending, cars, 2, 3, 100, assignment);
+    assertArrayEquals(new int[] {0, 0, 1, 0, 1, 1}, assignment);
+  }
+
+  /**
+   * Tests that the maximum age cannot be negative.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void destinationMaxAgeCannotBeNegative() {
+    new DestinationDispatch(-1);
+  }
+
+  /**
+   * Tests that an elevator on a run is only given requests it has not passed,
+   * and that the terminal strategy leaves it alone.
+   */
+  @Test
+  public void elevatorOnRunTakesRequestsAhead() {
+    for (int i = 0; i < 8; i++) {
+      cars[1].step();
+    }
+    assertEquals(3, cars[1].getCurrentFloor());
+    pending.clear();
+    pending.add(0, 5);
+    pending.add(2, 9);
+    pending.add(4, 7);
+    assignment = new int[] {-1, -1, -1};
+    new TerminalDispatch().assign(Direction.UP, pending, cars, 2, 5, 0, assignment);
+    assertArrayEquals(new int[] {0, 0, 0}, assignment);
+
+    for (DispatchStrategy strategy : new DispatchStrategy[] {new NearestCarDispatch(),
+        new CollectiveDispatch(), new EtaDispatch(), new DestinationDispatch()}) {
+      Arrays.fill(assignment, -1);
+      strategy.assign(Direction.UP, pending, cars, 2, 5, 0, assignment);
+      assertEquals(strategy.toString(), 0, assignment[0]);
+      assertEquals(strategy.toString(), 0, assignment[1]);
+    }
+    Arrays.fill(assignment, -1);
+    new NearestCarDispatch().assign(Direction.UP, pending, cars, 2, 5, 0, assignment);
+    assertEquals(1, assignment[2]);
+  }
+
+  /**
+   * Tests that a building hands a request to an elevator on its way up.
+   */
+  @Test
+  public void buildingPicksUpOnTheWay() {
+    Building building = new Building(12, 1, 4);
+    building.setDispatchStrategy(new NearestCarDispatch());
+    building.startElevatorSystem();
+    for (int i = 0; i < 8; i++) {
+      building.step();
+    }
+    building.addRequest(new Request(6, 9));
+    building.addRequest(new Request(2, 0));
+    building.step();
+    BuildingReport report = building.getElevatorSystemStatus();
+    assertTrue(report.getUpRequests().isEmpty());
+    assertEquals(1, report.getDownRequests().size());
+    FloorRequestSet stops = report.getElevatorReports()[0].getFloorRequestSet();
+    assertTrue(stops.contains(6));
+    assertTrue(stops.contains(9));
+  }
+
+  /**
+   * Tests that a building dispatches with any strategy until every request is delivered.
+   */
+  @Test
+  public void everyStrategyDeliversAllRequests() {
+    DispatchStrategy[] strategies = {new TerminalDispatch(), new NearestCarDispatch(),
+        new CollectiveDispatch(), new EtaDispatch(), new DestinationDispatch()};
+    for (DispatchStrategy strategy : strategies) {
+      Building building = new Building(12, 3, 4);
+      building.setDispatchStrategy(strategy);
+      assertEquals(strategy, building.getDispatchStrategy());
+      building.startElevatorSystem();
+      for (int i = 1; i < 12; i++) {
+        building.addRequest(new Request(0, i));
+        building.addRequest(new Request(i, 0));
+      }
+      building.advanceUntilIdle();
+      assertTrue(building.getElevatorSystemStatus().getUpRequests().isEmpty());
+      assertTrue(building.getElevatorSystemStatus().getDownRequests().isEmpty());
+    }
+  }
+
+  /**
+   * Tests that a strategy that overfills an elevator is caught.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void strategyCannotOverfillElevator() {
+    Building building = new Building(12, 1, 4);
+    building.setDispatchStrategy((direction, requests, elevators, count, capacity, tick, chosen) ->
+        Arrays.fill(chosen, 0, requests.size(), 0));
+    building.startElevatorSystem();
+    for (int i = 1; i < 7; i++) {
+      building.addRequest(new Request(0, i));
+    }
+    building.step();
+  }
+
+  /**
+   * Tests that the strategy cannot be null.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void strategyCannotBeNull() {
+    new Building(12, 1, 4).setDispatchStrategy(null);
+  }
+}
@@ -0,0 +1,125 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.ElevatorEngine;
+import building.enums.ElevatorSystemStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the EventDrivenSimulation class.
+ */
+public class EventDrivenSimulationTest {
+
+  /**
+   * Test that a request cannot be scheduled in the past.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void scheduleRequestInThePast() {
+    EventDrivenSimulation simulation = new EventDrivenSimulation(new Building(10, 2, 5));
+    simulation.startElevatorSystem();
+    simulation.runUntil(5);
+    simulation.scheduleRequest(4, new Request(1, 2));
+  }
+
+  /**
+   * Test that an idle building jumps from event to event.
+   */
+  @Test
+  public void idleBuildingJumpsBetweenEvents() {
+    EventDrivenSimulation simulation = new EventDrivenSimulation(new Building(10, 3, 5));
+    simulation.startElevatorSystem();
+    // all the elevators wait 5 steps at the bottom, the last one is the event.
+    assertEquals(4, simulation.nextEventTick());
+    assertEquals(4, simulation.runToNextEvent());
+    assertEquals(5, simulation.runToNextEvent());
+    // then they travel 9 floors to the top without stopping.
+    assertEquals(14, simulation.runToNextEvent());
+    assertEquals(9, simulation.getElevatorSystemStatus().getElevatorReports()[0]
+        .getCurrentFloor());
+  }
+
+  /**
+   * Test that the reports at every event time match a building stepped tick by tick.
+   */
+  @Test
+  public void reportsMatchTickByTickBuilding() {
+    assertReportsMatch(ElevatorEngine.object);
+  }
+
+  /**
+   * Test that the reports match with the fleet engine too.
+   */
+  @Test
+  public void fleetReportsMatchTickByTickBuilding() {
+    assertReportsMatch(ElevatorEngine.fleet);
+  }
+
+  private void assertReportsMatch(ElevatorEngine engine) {
+    Building reference = new Building(20, 12, 6, engine);
+    Building simulated = new Building(20, 12, 6, engine);
+    EventDrivenSimulation simulation = new EventDrivenSimulation(simulated);
+    reference.startElevatorSystem();
+    simulation.startElevatorSystem();
+
+    // sparse arrivals, so that most of the run has no dispatch activity.
+    Random random = new Random(3);
+    List<long[]> arrivals = new ArrayList<>();
+    for (long tick = 0; tick < 3000; tick += 1 + random.nextInt(60)) {
+      int start = random.nextInt(20);
+      int end = random.nextInt(20);
+      if (start != end) {
+        arrivals.add(new long[] {tick, start, end});
+        simulation.scheduleRequest(tick, new Request(start, end));
+      }
+    }
+
+    int next = 0;
+    long tick = 0;
+    int events = 0;
+    while (simulation.getCurrentTick() < 3200) {
+      long eventTick = simulation.runToNextEvent();
+      events++;
+      while (tick < eventTick) {
+        while (next < arrivals.size() && arrivals.get(next)[0] == tick) {
+          long[] arrival = arrivals.get(next++);
+          reference.addRequest(new Request((int) arrival[1], (int) arrival[2]));
+        }
+        reference.step();
+        tick++;
+      }
+      assertEquals(reference.getElevatorSystemStatus().toString(),
+          simulation.getElevatorSystemStatus().toString());
+    }
+    assertTrue(events < 3200);
+    assertTrue(reference.getJourneyTimes().getCount() > 0);
+    assertSameHistogram(reference.getWaitTimes(), simulated.getWaitTimes());
+    assertSameHistogram(reference.getRideTimes(), simulated.getRideTimes());
+    assertSameHistogram(reference.getJourneyTimes(), simulated.getJourneyTimes());
+
+    simulation.stopElevatorSystem();
+    reference.stopElevatorSystem();
+    simulation.runUntil(simulation.getCurrentTick() + 40);
+    for (int i = 0; i < 40; i++) {
+      reference.step();
+    }
+    assertEquals(ElevatorSystemStatus.outOfService,
+        simulation.getElevatorSystemStatus().getSystemStatus());
+    assertEquals(reference.getElevatorSystemStatus().toString(),
+        simulation.getElevatorSystemStatus().toString());
+  }
+
+  private void assertSameHistogram(LatencyHistogram expected, LatencyHistogram actual) {
+    assertEquals(expected.getCount(), actual.getCount());
+    assertEquals(expected.getMax(), actual.getMax());
+    for (double percentile : new double[] {50, 90, 99}) {
+      assertEquals(expected.getValueAtPercentile(percentile),
+          actual.getValueAtPercentile(percentile));
+    }
+  }
+}
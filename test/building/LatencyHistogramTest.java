@@ -0,0 +1,103 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the LatencyHistogram class.
+ */
+public class LatencyHistogramTest {
+
+  /**
+   * Test that an empty histogram reports zeros.
+   */
+  @Test
+  public void emptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getValueAtPercentile(99));
+  }
+
+  /**
+   * Test that a negative value cannot be recorded.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void recordNegativeValue() {
+    new LatencyHistogram().record(-1);
+  }
+
+  /**
+   * Test that a percentile above 100 is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void percentileOutOfRange() {
+    new LatencyHistogram().getValueAtPercentile(100.5);
+  }
+
+  /**
+   * Test that small values are counted exactly.
+   */
+  @Test
+  public void smallValuesAreExact() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int value = 100; value >= 1; value--) {
+      histogram.record(value);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(100, histogram.getMax());
+    assertEquals(1, histogram.getValueAtPercentile(0));
+    assertEquals(50, histogram.getValueAtPercentile(50));
+    assertEquals(90, histogram.getValueAtPercentile(90));
+    assertEquals(99, histogram.getValueAtPercentile(99));
+    assertEquals(100, histogram.getValueAtPercentile(100));
+  }
+
+  /**
+   * Test that large values are reported to within 1/64 of their value.
+   */
+  @Test
+  public void largeValuesWithinOneBucket() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000);
+    histogram.record(1_000_000_000_000L);
+    long median = histogram.getValueAtPercentile(50);
+    assertTrue(median >= 1_000 && median <= 1_000 + 1_000 / 64);
+    assertEquals(1_000_000_000_000L, histogram.getValueAtPercentile(100));
+    assertEquals(1_000_000_000_000L, histogram.getMax());
+  }
+
+  /**
+   * Test that every value falls in a bucket whose highest value is at or
+   * above it, and that the next value up starts the next bucket.
+   */
+  @Test
+  public void bucketsCoverEveryValue() {
+    for (long value : new long[] {0, 1, 127, 128, 129, 255, 256, 1_000, 65_535,
+        Integer.MAX_VALUE, 1L << 40, Long.MAX_VALUE / 3}) {
+      int bucket = LatencyHistogram.bucket(value);
+      long highest = LatencyHistogram.highestInBucket(bucket);
+      assertTrue(highest >= value);
+      assertTrue(highest - value <= value / 64);
+      assertEquals(bucket + 1, LatencyHistogram.bucket(highest + 1));
+    }
+    assertEquals(Long.MAX_VALUE,
+        LatencyHistogram.highestInBucket(LatencyHistogram.bucket(Long.MAX_VALUE)));
+  }
+
+  /**
+   * Test that reset forgets every value.
+   */
+  @Test
+  public void reset() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(42);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    histogram.record(7);
+    assertEquals(7, histogram.getValueAtPercentile(50));
+  }
+}
@@ -0,0 +1,101 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the RequestInbox class.
+ */
+public class RequestInboxTest {
+
+  /**
+   * Tests that requests come out in the order they were offered.
+   */
+  @Test
+  public void firstInFirstOut() {
+    RequestInbox inbox = new RequestInbox(4);
+    assertTrue(inbox.isEmpty());
+    assertEquals(RequestInbox.EMPTY, inbox.poll());
+    for (int round = 0; round < 10; round++) {
+      assertTrue(inbox.offer(round, 255));
+      assertTrue(inbox.offer(0, round));
+      long first = inbox.poll();
+      assertEquals(round, RequestInbox.startFloor(first));
+      assertEquals(255, RequestInbox.endFloor(first));
+      assertEquals(round, RequestInbox.endFloor(inbox.poll()));
+    }
+    assertTrue(inbox.isEmpty());
+  }
+
+  /**
+   * Tests that a full inbox refuses requests until one is polled.
+   */
+  @Test
+  public void offerToFullInbox() {
+    RequestInbox inbox = new RequestInbox(2);
+    assertTrue(inbox.offer(1, 2));
+    assertTrue(inbox.offer(3, 4));
+    assertFalse(inbox.offer(5, 6));
+    assertEquals(1, RequestInbox.startFloor(inbox.poll()));
+    assertTrue(inbox.offer(5, 6));
+  }
+
+  /**
+   * Tests the constructor exception.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void capacityNotPowerOfTwo() {
+    new RequestInbox(6);
+  }
+
+  /**
+   * Tests that requests from many producer threads all arrive, and that the
+   * requests of each producer arrive in the order it offered them.
+   */
+  @Test
+  public void concurrentProducers() throws InterruptedException {
+    int producers = 4;
+    int perProducer = 20_000;
+    RequestInbox inbox = new RequestInbox(256);
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[producers];
+    for (int p = 0; p < producers; p++) {
+      int producer = p;
+      threads[p] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < perProducer; i++) {
+          while (!inbox.offer(producer, i)) {
+            Thread.onSpinWait();
+          }
+        }
+      });
+      threads[p].start();
+    }
+    start.countDown();
+
+    int[] next = new int[producers];
+    int received = 0;
+    while (received < producers * perProducer) {
+      long entry = inbox.poll();
+      if (entry == RequestInbox.EMPTY) {
+        Thread.onSpinWait();
+        continue;
+      }
+      int producer = RequestInbox.startFloor(entry);
+      assertEquals(next[producer]++, RequestInbox.endFloor(entry));
+      received++;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(inbox.isEmpty());
+  }
+}
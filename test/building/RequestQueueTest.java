@@ -0,0 +1,117 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+import scanerzus.RequestBuffer;
+
+/**
+ * A JUnit test class for the RequestQueue class.
+ */
+public class RequestQueueTest {
+  private RequestQueue queue;
+
+  /**
+   * Sets up the test.
+   */
+  @Before
+  public void setUp() {
+    queue = new RequestQueue();
+  }
+
+  /**
+   * Tests that an empty queue has nothing to drain.
+   */
+  @Test
+  public void drainEmptyQueue() {
+    assertTrue(queue.isEmpty());
+    assertEquals(0, queue.drainTo(new RequestBuffer(), 4));
+  }
+
+  /**
+   * Tests that a Request cannot be added without an arrival tick and id.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void addRequestObject() {
+    queue.add(new Request(1, 2));
+  }
+
+  /**
+   * Tests that requests come out in arrival order while the buffer wraps and grows.
+   */
+  @Test
+  public void firstInFirstOutAcrossGrowth() {
+    RequestBuffer drained = new RequestBuffer();
+    int added = 0;
+    for (int round = 0; round < 50; round++) {
+      for (int i = 0; i < 7; i++) {
+        queue.add(round, i, added, added);
+        added++;
+      }
+      assertEquals(5, queue.drainTo(drained, 5));
+    }
+    assertEquals(added - drained.size(), queue.size());
+    for (int i = 0; i < drained.size(); i++) {
+      assertEquals(i, drained.getId(i));
+      assertEquals(i / 7, drained.getStartFloor(i));
+      assertEquals(i % 7, drained.getEndFloor(i));
+    }
+    for (int i = 0; i < queue.size(); i++) {
+      int id = drained.size() + i;
+      assertEquals(id, queue.getArrivalTick(i));
+      assertEquals(new Request(id / 7, id % 7), queue.get(i));
+    }
+  }
+
+  /**
+   * Tests draining up to a maximum number of requests into a buffer.
+   */
+  @Test
+  public void drainTo() {
+    for (int i = 0; i < 10; i++) {
+      queue.add(0, i + 1, 100 + i, i);
+    }
+    RequestBuffer target = new RequestBuffer();
+    assertEquals(4, queue.drainTo(target, 4));
+    assertEquals(4, target.size());
+    assertEquals(1, target.getEndFloor(0));
+    assertEquals(100, target.getArrivalTick(0));
+    assertEquals(3, target.getId(3));
+    assertEquals(6, queue.size());
+    assertEquals(5, queue.getEndFloor(0));
+    assertEquals(104, queue.getArrivalTick(0));
+    assertEquals(6, queue.drainTo(target, 20));
+    assertEquals(10, target.size());
+    assertTrue(queue.isEmpty());
+  }
+
+  /**
+   * Tests that the queue can be iterated like a list and cleared.
+   */
+  @Test
+  public void iterateAndClear() {
+    queue.add(1, 2, 0, 0);
+    queue.add(3, 4, 0, 1);
+    StringBuilder sb = new StringBuilder();
+    for (Request request : queue) {
+      sb.append(request).append(' ');
+    }
+    assertEquals("1->2 3->4 ", sb.toString());
+    queue.clear();
+    assertEquals(0, queue.size());
+    queue.add(5, 6, 7, 2);
+    assertEquals(5, queue.get(0).getStartFloor());
+  }
+
+  /**
+   * Tests that get rejects an index past the end.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getPastEnd() {
+    queue.add(1, 2, 0, 0);
+    queue.get(1);
+  }
+}
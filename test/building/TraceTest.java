@@ -0,0 +1,305 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import building.enums.ElevatorEngine;
+import building.enums.ScaleMode;
+import elevator.ElevatorReport;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import scanerzus.Request;
+import scanerzus.RequestBuffer;
+
+/**
+ * A JUnit test class for TraceRecorder and TraceReader.
+ */
+public class TraceTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * The reports of the recorded building at the end of each tick.
+   */
+  private final List<BuildingReport> reports = new ArrayList<>();
+
+  /**
+   * Runs a building for 400 ticks with a recorder listening, keeping the
+   * report of every tick.
+   */
+  private TraceRecorder record(Path file, int keyframeInterval) throws IOException {
+    Building building = new Building(70, 5, 8, ElevatorEngine.fleet, ScaleMode.highScale);
+    building.startElevatorSystem();
+    TraceRecorder recorder = new TraceRecorder(file, building, keyframeInterval);
+    building.setDeltaListener(recorder);
+    reports.add(building.getElevatorSystemStatus());
+    Random random = new Random(11);
+    for (int tick = 0; tick < 400; tick++) {
+      for (int i = 0; i < 2; i++) {
+        int start = random.nextInt(70);
+        int end = random.nextInt(70);
+        if (start != end) {
+          building.addRequest(new Request(start, end));
+        }
+      }
+      building.step();
+      reports.add(building.getElevatorSystemStatus());
+    }
+    return recorder;
+  }
+
+  private void assertAtTick(TraceReader reader, long tick) {
+    BuildingReport expected = reports.get((int) tick);
+    assertEquals(tick, reader.getTick());
+    for (int car = 0; car < expected.getNumElevators(); car++) {
+      assertEquals("elevator " + car + " at tick " + tick,
+          expected.getElevatorReport(car), reader.getElevatorReport(car));
+    }
+    assertEquals(expected.getUpRequests().size(), reader.getUpRequestCount());
+    assertEquals(expected.getDownRequests().size(), reader.getDownRequestCount());
+  }
+
+  /**
+   * Tests that seeking to any tick gives the state of the building then.
+   */
+  @Test
+  public void seekToAnyTick() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("run.trace");
+    this.record(file, 32).close();
+
+    try (TraceReader reader = new TraceReader(file)) {
+      assertEquals(70, reader.getNumFloors());
+      assertEquals(5, reader.getNumElevators());
+      assertEquals(400, reader.getLastTick());
+      assertEquals(13, reader.getKeyframeCount());
+      for (long tick : new long[] {400, 0, 31, 32, 33, 250, 1, 399, 64}) {
+        reader.seek(tick);
+        this.assertAtTick(reader, tick);
+      }
+      reader.seek(250);
+      for (long tick = 251; tick <= 400; tick++) {
+        assertTrue(reader.next());
+        this.assertAtTick(reader, tick);
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Tests that keyframes keep requests added from a buffer, which all have
+   * id 0, until each of them is taken by the elevator.
+   */
+  @Test
+  public void keyframesKeepRequestsWithTheSameId() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("buffer.trace");
+    Building building = new Building(20, 1, 4);
+    building.startElevatorSystem();
+    TraceRecorder recorder = new TraceRecorder(file, building, 4);
+    building.setDeltaListener(recorder);
+    reports.add(building.getElevatorSystemStatus());
+    RequestBuffer buffer = new RequestBuffer();
+    for (int k = 0; k < 8; k++) {
+      buffer.add(0, 9 + k);
+    }
+    building.addRequests(buffer);
+    for (int tick = 0; tick < 60; tick++) {
+      building.step();
+      reports.add(building.getElevatorSystemStatus());
+    }
+    recorder.close();
+
+    try (TraceReader reader = new TraceReader(file)) {
+      for (long tick = 0; tick <= 60; tick++) {
+        reader.seek(tick);
+        this.assertAtTick(reader, tick);
+      }
+    }
+    assertEquals(4, reports.get(4).getUpRequests().size());
+  }
+
+  /**
+   * Tests that requests waiting when the recorder is attached are in the
+   * first delta, so the reader sees them added before they are taken.
+   */
+  @Test
+  public void attachToBuildingWithRequestsWaiting() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("busy.trace");
+    Building building = new Building(20, 1, 4);
+    building.startElevatorSystem();
+    building.addRequest(new Request(2, 9));
+    building.addRequest(new Request(3, 9));
+    building.addRequest(new Request(4, 9));
+    building.addRequest(new Request(8, 1));
+    TraceRecorder recorder = new TraceRecorder(file, building, 4);
+    building.setDeltaListener(recorder);
+    reports.add(building.getElevatorSystemStatus());
+    for (int tick = 0; tick < 40; tick++) {
+      building.step();
+      reports.add(building.getElevatorSystemStatus());
+    }
+    recorder.close();
+
+    try (TraceReader reader = new TraceReader(file)) {
+      reader.seek(0);
+      assertEquals(3, reader.getUpRequestCount());
+      assertEquals(1, reader.getDownRequestCount());
+      for (long tick = 0; tick <= 40; tick++) {
+        reader.seek(tick);
+        this.assertAtTick(reader, tick);
+      }
+    }
+  }
+
+  /**
+   * Tests that reading the trace from the start gives every delta the
+   * building sent.
+   */
+  @Test
+  public void readDeltasInOrder() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("run.trace");
+    List<ByteBuffer> sent = new ArrayList<>();
+    Building building = new Building(20, 3, 5);
+    building.startElevatorSystem();
+    TraceRecorder recorder = new TraceRecorder(file, building, 8);
+    building.setDeltaListener((tick, records) -> {
+      sent.add(ByteBuffer.allocate(records.remaining()).put(records.duplicate()).flip());
+      recorder.onDelta(tick, records);
+    });
+    for (int tick = 0; tick < 50; tick++) {
+      building.addRequest(new Request(tick % 19 + 1, 0));
+      building.step();
+    }
+    building.stopElevatorSystem();
+    recorder.close();
+
+    try (TraceReader reader = new TraceReader(file)) {
+      for (ByteBuffer delta : sent) {
+        assertTrue(reader.next());
+        assertEquals(delta, reader.getDelta());
+      }
+      assertFalse(reader.next());
+    }
+  }
+
+  /**
+   * Tests that a trace that was not closed is read by walking its frames.
+   */
+  @Test
+  public void readTraceThatWasNotClosed() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("crashed.trace");
+    TraceRecorder recorder = this.record(file, 100);
+    try (TraceReader reader = new TraceReader(file)) {
+      assertEquals(5, reader.getKeyframeCount());
+      assertEquals(400, reader.getLastTick());
+      reader.seek(345);
+      this.assertAtTick(reader, 345);
+    } finally {
+      recorder.close();
+    }
+  }
+
+  /**
+   * Tests that a last frame whose records were never written is left out
+   * of a trace that was not closed.
+   */
+  @Test
+  public void leaveOutFrameThatWasNotWritten() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("torn.trace");
+    TraceRecorder recorder = this.record(file, 100);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      ByteBuffer record = ByteBuffer.allocate(DeltaRecords.RECORD_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      long offset = TraceRecorder.HEADER_SIZE;
+      while (true) {
+        record.clear();
+        channel.read(record, offset);
+        if (record.get(0) != TraceRecorder.FRAME) {
+          break;
+        }
+        offset += (1L + record.getInt(4)) * DeltaRecords.RECORD_SIZE;
+      }
+      // a frame of two records, cut off before the records were written.
+      record.clear();
+      record.put(0, TraceRecorder.FRAME).put(1, TraceRecorder.DELTA_FRAME).putInt(4, 2)
+          .putLong(8, 401);
+      channel.write(record, offset);
+    }
+    try (TraceReader reader = new TraceReader(file)) {
+      assertEquals(400, reader.getLastTick());
+      reader.seek(401);
+      this.assertAtTick(reader, 400);
+      assertFalse(reader.next());
+    } finally {
+      recorder.close();
+    }
+  }
+
+  /**
+   * Tests that a seek into ticks advance() skipped lands on the last tick
+   * the building published before them.
+   */
+  @Test
+  public void seekIntoAdvanceGap() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("advanced.trace");
+    Building stepped = new Building(10, 2, 5);
+    stepped.startElevatorSystem();
+    stepped.addRequest(new Request(1, 7));
+    reports.add(stepped.getElevatorSystemStatus());
+    for (int tick = 0; tick < 41; tick++) {
+      stepped.step();
+      reports.add(stepped.getElevatorSystemStatus());
+    }
+
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.addRequest(new Request(1, 7));
+    TraceRecorder recorder = new TraceRecorder(file, building, 8);
+    building.setDeltaListener(recorder);
+    building.step();
+    building.advance(40);
+    recorder.close();
+
+    int landedBefore = 0;
+    try (TraceReader reader = new TraceReader(file)) {
+      assertEquals(41, reader.getLastTick());
+      for (long tick = 0; tick <= 41; tick++) {
+        reader.seek(tick);
+        assertTrue(reader.getTick() <= tick);
+        if (reader.getTick() < tick) {
+          landedBefore++;
+        }
+        this.assertAtTick(reader, reader.getTick());
+      }
+    }
+    assertTrue(landedBefore > 0);
+  }
+
+  /**
+   * Tests that a file that is not a trace is refused.
+   */
+  @Test
+  public void refuseOtherFiles() throws IOException {
+    Path file = folder.newFile("other.txt").toPath();
+    Files.writeString(file, "this is not a trace, it is a text file with some words");
+    try {
+      new TraceReader(file).close();
+      fail("a text file should not open as a trace");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Not a trace file", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package elevator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.DispatchStrategy;
+import building.EtaDispatch;
+import building.TerminalDispatch;
+import building.enums.Direction;
+import building.enums.ElevatorEngine;
+import building.enums.MotionMode;
+import building.enums.ScaleMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the ElevatorFleet class.
+ */
+public class ElevatorFleetTest {
+  private ElevatorFleet fleet;
+
+  /**
+   * Set up the test.
+   */
+  @Before
+  public void setUp() {
+    fleet = new ElevatorFleet(3, 10, 5);
+  }
+
+  /**
+   * Test the constructor exceptions.
+   * The fleet must have at least one car.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void fleetConstructorThrowsExceptionForNoCars() {
+    new ElevatorFleet(0, 10, 5);
+  }
+
+  /**
+   * Test the constructor exceptions.
+   * Number of floors must be less than or equal to 30.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void fleetConstructorThrowsExceptionForMoreThan30Floors() {
+    new ElevatorFleet(3, 31, 5);
+  }
+
+  /**
+   * Test that the cars start out of service at the ground floor.
+   */
+  @Test
+  public void fleetStartsOutOfService() {
+    assertEquals(3, fleet.size());
+    for (int i = 0; i < fleet.size(); i++) {
+      ElevatorInterface car = fleet.view(i);
+      assertEquals(i, car.getElevatorId());
+      assertEquals(0, car.getCurrentFloor());
+      assertEquals(Direction.STOPPED, car.getDirection());
+      assertTrue(car.getElevatorStatus().isOutOfService());
+      assertFalse(car.isTakingRequests());
+    }
+  }
+
+  /**
+   * Test that a car of the fleet processes requests like an Elevator.
+   */
+  @Test
+  public void fleetCarProcessesRequests() {
+    ElevatorInterface car = fleet.view(1);
+    car.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 2));
+    requests.add(new Request(5, 9));
+    car.processRequests(requests);
+    boolean[] expected = {true, false, true, false, false, true, false, false, false, true};
+    assertArrayEquals(expected, car.getFloorRequests());
+    assertEquals(Direction.UP, car.getDirection());
+    assertFalse(car.isTakingRequests());
+    assertArrayEquals(new boolean[10], fleet.view(0).getFloorRequests());
+  }
+
+  /**
+   * Test that processRequests throws an exception in the middle of a run.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void fleetCarThrowsExceptionWhenProcessCalledMidRun() {
+    ElevatorInterface car = fleet.view(0);
+    car.start();
+    for (int i = 0; i < 7; i++) {
+      car.step();
+    }
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(5, 9));
+    car.processRequests(requests);
+  }
+
+  /**
+   * Test that the fleet produces the same reports as Elevator objects,
+   * step for step, including taking the cars out of service.
+   */
+  @Test
+  public void fleetMatchesElevators() {
+    assertFleetMatchesElevators(12, ScaleMode.standard);
+  }
+
+  /**
+   * Test that a high scale fleet with several request words per car
+   * produces the same reports as Elevator objects.
+   */
+  @Test
+  public void highScaleFleetMatchesElevators() {
+    assertFleetMatchesElevators(150, ScaleMode.highScale);
+  }
+
+  private void assertFleetMatchesElevators(int floors, ScaleMode scale) {
+    int size = 6;
+    int top = floors - 1;
+    ElevatorFleet fleet = new ElevatorFleet(size, floors, 5, scale);
+    Elevator[] elevators = new Elevator[size];
+    for (int i = 0; i < size; i++) {
+      elevators[i] = new Elevator(floors, 5, i, scale);
+      if (i % 2 == 1) {
+        elevators[i].setMotionMode(MotionMode.look);
+        fleet.view(i).setMotionMode(MotionMode.look);
+      }
+      elevators[i].start();
+      fleet.view(i).start();
+      assertEquals(elevators[i].getMotionMode(), fleet.view(i).getMotionMode());
+    }
+
+    Random random = new Random(7);
+    int ticks = 40 * floors;
+    for (int tick = 0; tick < ticks; tick++) {
+      for (int i = 0; i < size; i++) {
+        int floor = elevators[i].getCurrentFloor();
+        if (elevators[i].isTakingRequests() && (floor == 0 || floor == top)) {
+          List<Request> requests = new ArrayList<>();
+          for (int r = 0; r < 3; r++) {
+            int other = 1 + random.nextInt(top - 1);
+            requests.add(floor == 0 ? new Request(other, top) : new Request(other, 0));
+          }
+          elevators[i].processRequests(requests);
+          fleet.view(i).processRequests(requests);
+        } else if (random.nextInt(4) == 0) {
+          int start = random.nextInt(floors);
+          int end = random.nextInt(floors);
+          assertEquals(elevators[i].canAcceptRequest(start, end),
+              fleet.view(i).canAcceptRequest(start, end));
+          assertEquals(elevators[i].assignRequest(start, end),
+              fleet.view(i).assignRequest(start, end));
+        }
+        if (tick == ticks - 100 * (i + 1)) {
+          elevators[i].takeOutOfService();
+          fleet.view(i).takeOutOfService();
+        }
+      }
+      fleet.stepAll();
+      for (int i = 0; i < size; i++) {
+        elevators[i].step();
+        assertEquals(elevators[i].getElevatorStatus(), fleet.view(i).getElevatorStatus());
+        assertEquals(elevators[i].getAssignedRequestCount(),
+            fleet.view(i).getAssignedRequestCount());
+        assertEquals(elevators[i].getOccupancy(), fleet.view(i).getOccupancy());
+        assertEquals(elevators[i].getDeliveredCount(), fleet.view(i).getDeliveredCount());
+      }
+    }
+  }
+
+  /**
+   * Test that a building using the fleet engine gives the same reports
+   * as a building using Elevator objects.
+   */
+  @Test
+  public void fleetBuildingMatchesObjectBuilding() {
+    assertFleetBuildingMatchesObjectBuilding(new TerminalDispatch(), MotionMode.fullSweep);
+  }
+
+  /**
+   * Test that the fleet engine also matches when elevators pick up
+   * requests on their way and turn round at their last stop.
+   */
+  @Test
+  public void fleetBuildingMatchesObjectBuildingEnRoute() {
+    assertFleetBuildingMatchesObjectBuilding(new EtaDispatch(), MotionMode.look);
+  }
+
+  private void assertFleetBuildingMatchesObjectBuilding(DispatchStrategy strategy,
+                                                        MotionMode mode) {
+    Building objects = new Building(15, 20, 6);
+    Building fleets = new Building(15, 20, 6, ElevatorEngine.fleet);
+    assertEquals(ElevatorEngine.object, objects.getElevatorEngine());
+    assertEquals(ElevatorEngine.fleet, fleets.getElevatorEngine());
+    objects.setDispatchStrategy(strategy);
+    fleets.setDispatchStrategy(strategy);
+    objects.setMotionMode(mode);
+    fleets.setMotionMode(mode);
+    objects.startElevatorSystem();
+    fleets.startElevatorSystem();
+
+    Random random = new Random(11);
+    for (int tick = 0; tick < 300; tick++) {
+      if (tick == 250) {
+        objects.stopElevatorSystem();
+        fleets.stopElevatorSystem();
+      }
+      if (tick < 250) {
+        int start = random.nextInt(15);
+        int end = random.nextInt(15);
+        if (start != end) {
+          objects.addRequest(new Request(start, end));
+          fleets.addRequest(new Request(start, end));
+        }
+      }
+      objects.step();
+      fleets.step();
+      assertEquals(objects.getElevatorSystemStatus().toString(),
+          fleets.getElevatorSystemStatus().toString());
+      assertEquals(objects.getDeliveredCount(), fleets.getDeliveredCount());
+    }
+  }
+}
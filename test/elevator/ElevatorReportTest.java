@@ -4,9 +4,12 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import building.enums.Direction;
+import java.io.IOException;
+import java.io.StringWriter;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -263,4 +266,47 @@ public class ElevatorReportTest {
   public void testSameObjectEqual() {
     assertEquals(report, report);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void appendToReusesTheBuilder() {
+    StringBuilder sb = new StringBuilder("Elevator 1: ");
+    assertSame(sb, report.appendTo(sb));
+    assertEquals("Elevator 1: [1|-|C  ]< --  1  2>", sb.toString());
+    sb.setLength(0);
+    assertEquals(report.toString(), report.appendTo(sb).toString());
+  }
+
+  @Test
+  public void appendToMatchesTheOldFormat() throws IOException {
+    boolean[] floors = new boolean[120];
+    floors[0] = true;
+    floors[9] = true;
+    floors[10] = true;
+    floors[119] = true;
+    ElevatorReport open = new ElevatorReport(3, 110, Direction.DOWN, false, floors,
+        12, 0, false, false);
+    StringBuilder expected = new StringBuilder(String.format("[%d|%s|O %d]<", 110,
+        Direction.DOWN, 12));
+    for (int i = 0; i < floors.length; i++) {
+      expected.append(floors[i] ? String.format(" %2d", i) : " --");
+    }
+    expected.append(">");
+    assertEquals(expected.toString(), open.toString());
+
+    StringWriter writer = new StringWriter();
+    open.appendTo(writer);
+    assertEquals(expected.toString(), writer.toString());
+
+    ElevatorReport waiting = new ElevatorReport(3, 0, Direction.UP, true, floors,
+        0, 105, false, true);
+    writer = new StringWriter();
+    waiting.appendTo(writer);
+    assertEquals("Waiting[Floor 0, Time 105]", writer.toString());
+
+    ElevatorReport outOfService = new ElevatorReport(3, 0, Direction.STOPPED, true,
+        new boolean[3], 0, 0, true, false);
+    writer = new StringWriter();
+    outOfService.appendTo(writer);
+    assertEquals("Out of Service[Floor 0]", writer.toString());
+  }
+}
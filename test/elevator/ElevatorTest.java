@@ -1,10 +1,12 @@
 package elevator;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import building.enums.Direction;
+import building.enums.MotionMode;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.Before;
@@ -737,6 +739,182 @@ public class ElevatorTest {
     elevatorTenFloors10Capacity.processRequests(upTenRequests);
   }
 
+  /**
+   * Test that an elevator on a run takes requests whose start floor
+   * is still ahead of it and going its way.
+   */
+  @Test
+  public void elevatorAssignRequestMidRun() {
+    System.out.println("Testing: elevatorAssignRequestMidRun");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    assertTrue(elevator.canAcceptRequest(2, 5));
+    assertFalse(elevator.canAcceptRequest(5, 2));
+    // requests at the bottom are given with processRequests
+    assertFalse(elevator.assignRequest(2, 5));
+
+    for (int i = 0; i < 10; i++) {
+      elevator.step();
+    }
+    assertEquals(5, elevator.getCurrentFloor());
+    assertEquals(Direction.UP, elevator.getDirection());
+
+    assertFalse(elevator.assignRequest(3, 8));
+    assertFalse(elevator.assignRequest(7, 4));
+    assertTrue(elevator.assignRequest(5, 8));
+    assertTrue(elevator.assignRequest(6, 9));
+    assertEquals(2, elevator.getAssignedRequestCount());
+    boolean[] expected = {false, false, false, false, false, true, true, false, true, true};
+    assertArrayEquals(expected, elevator.getFloorRequests());
+
+    // the door opens at 5 before the elevator moves on
+    elevator.step();
+    assertFalse(elevator.isDoorClosed());
+    assertEquals(5, elevator.getCurrentFloor());
+
+    while (!elevator.getFloorRequestSet().isEmpty()) {
+      elevator.step();
+    }
+    assertEquals(9, elevator.getCurrentFloor());
+    assertEquals(0, elevator.getAssignedRequestCount());
+  }
+
+  /**
+   * Test that an elevator on a run stops taking requests when it is full.
+   */
+  @Test
+  public void elevatorAssignRequestWhenFull() {
+    System.out.println("Testing: elevatorAssignRequestWhenFull");
+    Elevator elevator = new Elevator(10, 3);
+    elevator.start();
+    for (int i = 0; i < 6; i++) {
+      elevator.step();
+    }
+    assertEquals(1, elevator.getCurrentFloor());
+    for (int i = 0; i < 3; i++) {
+      assertTrue(elevator.assignRequest(2 + i, 8));
+    }
+    assertFalse(elevator.canAcceptRequest(6, 8));
+    assertFalse(elevator.assignRequest(6, 8));
+    assertEquals(3, elevator.getAssignedRequestCount());
+
+    elevator.takeOutOfService();
+    assertEquals(0, elevator.getAssignedRequestCount());
+    assertFalse(elevator.canAcceptRequest(0, 1));
+  }
+
+  /**
+   * Test that passengers get on at their start floor and off at their end floor.
+   */
+  @Test
+  public void elevatorCountsPassengers() {
+    System.out.println("Testing: elevatorCountsPassengers");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 3));
+    requests.add(new Request(0, 5));
+    requests.add(new Request(2, 5));
+    elevator.processRequests(requests);
+    assertEquals(2, elevator.getBoardingCount(0));
+    assertEquals(1, elevator.getBoardingCount(2));
+    assertEquals(2, elevator.getAlightingCount(5));
+    assertEquals(0, elevator.getOccupancy());
+    assertEquals(3, elevator.getAssignedRequestCount());
+
+    // the door opens at the ground floor
+    elevator.step();
+    assertEquals(2, elevator.getOccupancy());
+    assertEquals(0, elevator.getBoardingCount(0));
+
+    int[] occupancyAt = new int[10];
+    while (!elevator.getFloorRequestSet().isEmpty() || !elevator.isDoorClosed()) {
+      elevator.step();
+      if (!elevator.isDoorClosed()) {
+        occupancyAt[elevator.getCurrentFloor()] = elevator.getOccupancy();
+      }
+    }
+    assertEquals(3, occupancyAt[2]);
+    assertEquals(2, occupancyAt[3]);
+    assertEquals(0, occupancyAt[5]);
+    assertEquals(3, elevator.getDeliveredCount());
+    assertEquals(0, elevator.getAssignedRequestCount());
+  }
+
+  /**
+   * Test that a full elevator on a run does not take more pickups
+   * until passengers get off.
+   */
+  @Test
+  public void elevatorFullSkipsPickups() {
+    System.out.println("Testing: elevatorFullSkipsPickups");
+    Elevator elevator = new Elevator(10, 3);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 3));
+    requests.add(new Request(0, 8));
+    requests.add(new Request(0, 8));
+    elevator.processRequests(requests);
+    for (int i = 0; i < 6; i++) {
+      elevator.step();
+    }
+    assertEquals(2, elevator.getCurrentFloor());
+    assertEquals(3, elevator.getOccupancy());
+    assertFalse(elevator.canAcceptRequest(4, 6));
+    assertFalse(elevator.assignRequest(4, 6));
+
+    // one passenger gets off at 3
+    for (int i = 0; i < 2; i++) {
+      elevator.step();
+    }
+    assertEquals(3, elevator.getCurrentFloor());
+    assertEquals(2, elevator.getOccupancy());
+    assertTrue(elevator.assignRequest(4, 6));
+    assertEquals(1, elevator.getBoardingCount(4));
+  }
+
+  /**
+   * Test that in look mode the elevator turns round at its last stop
+   * and goes back to the ground floor instead of running to the top.
+   */
+  @Test
+  public void elevatorLookTurnsAtLastStop() {
+    System.out.println("Testing: elevatorLookTurnsAtLastStop");
+    Elevator look = new Elevator(10, 5);
+    Elevator sweep = new Elevator(10, 5);
+    look.setMotionMode(MotionMode.look);
+    assertEquals(MotionMode.look, look.getMotionMode());
+    assertEquals(MotionMode.fullSweep, sweep.getMotionMode());
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 3));
+    for (Elevator elevator : new Elevator[] {look, sweep}) {
+      elevator.start();
+      elevator.processRequests(requests);
+      for (int i = 0; i < 8; i++) {
+        elevator.step();
+      }
+      assertEquals(3, elevator.getCurrentFloor());
+      assertFalse(elevator.isDoorClosed());
+    }
+    assertEquals(Direction.DOWN, look.getDirection());
+    assertEquals(Direction.UP, sweep.getDirection());
+
+    for (int i = 0; i < 7; i++) {
+      look.step();
+    }
+    assertEquals(0, look.getCurrentFloor());
+    assertTrue(look.isTakingRequests());
+  }
+
+  /**
+   * Test that the motion mode cannot be null.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorMotionModeCannotBeNull() {
+    System.out.println("Testing: elevatorMotionModeCannotBeNull");
+    new Elevator(10, 5).setMotionMode(null);
+  }
+
   /**
    * test toString method.
    * The elevator should be waiting for 5 steps
@@ -1048,4 +1226,55 @@ public class ElevatorTest {
 
   }
 
-}
\ No newline at end of file
+
+  /**
+   * Test that skipTicks gives the same result as stepping over a quiet stretch.
+   */
+  @Test
+  public void skipTicksMatchesStep() {
+    System.out.println("Testing: skipTicksMatchesStep");
+    Elevator stepped = new Elevator(10, 5, 0);
+    Elevator skipped = new Elevator(10, 5, 0);
+    stepped.start();
+    skipped.start();
+    stepped.processRequests(upTenRequestsNotTop);
+    skipped.processRequests(upTenRequestsNotTop);
+    for (int i = 0; i < 60; i++) {
+      int quiet = skipped.ticksUntilNextEvent();
+      assertTrue(quiet >= 0);
+      skipped.skipTicks(quiet);
+      skipped.step();
+      for (int j = 0; j <= quiet; j++) {
+        stepped.step();
+      }
+      assertEquals(stepped.getElevatorStatus(), skipped.getElevatorStatus());
+    }
+  }
+
+  /**
+   * Test that the wait at the bottom is a quiet stretch.
+   */
+  @Test
+  public void ticksUntilNextEventWhileWaiting() {
+    System.out.println("Testing: ticksUntilNextEventWhileWaiting");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    assertEquals(4, elevator.ticksUntilNextEvent());
+    elevator.skipTicks(4);
+    assertTrue(elevator.isTakingRequests());
+    elevator.step();
+    assertFalse(elevator.isTakingRequests());
+    assertEquals(9, elevator.ticksUntilNextEvent());
+  }
+
+  /**
+   * Test that skipTicks cannot skip past an event.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void skipTicksPastEvent() {
+    System.out.println("Testing: skipTicksPastEvent");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.skipTicks(5);
+  }
+}
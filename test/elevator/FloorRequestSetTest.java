@@ -0,0 +1,122 @@
+package elevator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the FloorRequestSet class.
+ */
+public class FloorRequestSetTest {
+  private FloorRequestSet set;
+
+  /**
+   * Set up the test.
+   */
+  @Before
+  public void setUp() {
+    set = new FloorRequestSet(200);
+  }
+
+  /**
+   * Test that a new set is empty.
+   */
+  @Test
+  public void newSetIsEmpty() {
+    assertTrue(set.isEmpty());
+    assertEquals(0, set.size());
+    assertEquals(4, set.getWordCount());
+    assertEquals(-1, set.nextAbove(-1));
+    assertEquals(-1, set.nextBelow(200));
+  }
+
+  /**
+   * Test adding and removing floors.
+   */
+  @Test
+  public void addAndRemove() {
+    set.add(0);
+    set.add(63);
+    set.add(64);
+    set.add(199);
+    assertTrue(set.contains(63));
+    assertTrue(set.contains(64));
+    assertFalse(set.contains(65));
+    assertEquals(4, set.size());
+    set.remove(63);
+    assertFalse(set.contains(63));
+    assertEquals(3, set.size());
+    set.clear();
+    assertTrue(set.isEmpty());
+  }
+
+  /**
+   * Test the next requested floor above a floor, across word boundaries.
+   */
+  @Test
+  public void nextAbove() {
+    set.add(5);
+    set.add(70);
+    set.add(190);
+    assertEquals(5, set.nextAbove(-1));
+    assertEquals(70, set.nextAbove(5));
+    assertEquals(70, set.nextAbove(63));
+    assertEquals(190, set.nextAbove(70));
+    assertEquals(-1, set.nextAbove(190));
+    assertEquals(-1, set.nextAbove(199));
+  }
+
+  /**
+   * Test the next requested floor below a floor, across word boundaries.
+   */
+  @Test
+  public void nextBelow() {
+    set.add(5);
+    set.add(70);
+    set.add(190);
+    assertEquals(190, set.nextBelow(200));
+    assertEquals(70, set.nextBelow(190));
+    assertEquals(5, set.nextBelow(64));
+    assertEquals(5, set.nextBelow(6));
+    assertEquals(-1, set.nextBelow(5));
+    assertEquals(-1, set.nextBelow(0));
+  }
+
+  /**
+   * Test converting to and from boolean arrays.
+   */
+  @Test
+  public void booleanArrays() {
+    boolean[] floorRequests = {false, true, false, true};
+    FloorRequestSet copy = FloorRequestSet.of(floorRequests);
+    assertArrayEquals(floorRequests, copy.toBooleanArray());
+    assertEquals("[1, 3]", copy.toString());
+  }
+
+  /**
+   * Test that a read only copy does not change with the original.
+   */
+  @Test
+  public void readOnlyCopy() {
+    set.add(10);
+    FloorRequestSet copy = set.readOnlyCopy();
+    assertEquals(set, copy);
+    assertEquals(set.hashCode(), copy.hashCode());
+    set.add(11);
+    assertNotEquals(set, copy);
+    assertFalse(copy.contains(11));
+  }
+
+  /**
+   * Test that a read only set cannot be changed.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void readOnlyCopyCannotBeChanged() {
+    set.readOnlyCopy().add(1);
+  }
+}
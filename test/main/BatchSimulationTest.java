@@ -0,0 +1,100 @@
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.TraceReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * A JUnit test class for BatchSimulation.
+ */
+public class BatchSimulationTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String... args) {
+    return BatchSimulation.run(args, new PrintStream(out, true), new PrintStream(err, true));
+  }
+
+  private String output() {
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Tests that wrong arguments exit with 2 and print the usage.
+   */
+  @Test
+  public void wrongArgumentsExitWithTwo() {
+    assertEquals(2, this.run("20", "4", "10"));
+    assertEquals(2, this.run("twenty", "4", "10", "100", "none", "-"));
+    assertEquals(2, this.run("300", "4", "10", "100", "none", "-"));
+    assertEquals(2, this.run("20", "4", "10", "100", "random:150", "-"));
+    assertEquals(2, this.run("20", "4", "10", "100", "random:", "-"));
+    assertEquals(2, this.run("20", "4", "10", "100", "none", "-", "fastest"));
+    assertEquals(2, this.run("20", "4", "10", "100", "none", "-", "eta", "turbo"));
+    assertTrue(err.toString(StandardCharsets.UTF_8).contains("Usage: java main.BatchSimulation"));
+    assertEquals("", this.output());
+  }
+
+  /**
+   * Tests that a run with random traffic reports its counts.
+   */
+  @Test
+  public void reportRandomTraffic() {
+    assertEquals(0, this.run("20", "4", "10", "2000", "random:30:7", "-", "nearest", "fleet"));
+    String report = this.output();
+    assertTrue(report.contains("floors=20"));
+    assertTrue(report.contains("ticks=2000"));
+    assertTrue(report.contains("engine=Fleet"));
+    assertTrue(report.contains("elevator_steps_per_second="));
+    assertTrue(report.contains("peak_heap_bytes="));
+    assertFalse(report.contains("requests=0"));
+  }
+
+  /**
+   * Tests that a log that cannot be read exits with 1, and that a log is
+   * replayed into a report file and a trace file.
+   */
+  @Test
+  public void replayLogToFiles() throws IOException {
+    String missing = folder.getRoot().toPath().resolve("missing.log").toString();
+    assertEquals(1, this.run("20", "4", "10", "100", missing, "-"));
+
+    Path bad = folder.newFile("bad.log").toPath();
+    Files.writeString(bad, "0,1,5\n3,one,2\n");
+    assertEquals(1, this.run("20", "4", "10", "100", bad.toString(), "-"));
+
+    // a report that cannot be written fails before the run, which would take ages.
+    String unwritable = folder.getRoot().toPath().resolve("no/such/dir/report.txt").toString();
+    assertEquals(1, this.run("20", "4", "10", "1000000000000", "none", unwritable));
+
+    Path log = folder.newFile("day.log").toPath();
+    Files.writeString(log, "0,1,5\n3,7,2\n3,0,4\n40,9,0\n500,2,3\n");
+    Path report = folder.getRoot().toPath().resolve("report.txt");
+    assertEquals(0, this.run("20", "4", "10", "100", log.toString(), report.toString()));
+    String text = Files.readString(report);
+    assertTrue(text.contains("requests=4"));
+    assertTrue(text.contains("delivered=4"));
+    assertEquals("", this.output());
+
+    Path trace = folder.getRoot().toPath().resolve("day.trace");
+    assertEquals(0, this.run("20", "4", "10", "100", log.toString(), trace.toString()));
+    assertTrue(this.output().contains("requests=4"));
+    try (TraceReader reader = new TraceReader(trace)) {
+      assertEquals(100, reader.getLastTick());
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package main;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import building.Building;
+import building.enums.ElevatorEngine;
+import building.enums.ScaleMode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for ArrivalReader and Replay.
+ */
+public class ReplayTest {
+
+  private static ArrivalReader reader(String log) {
+    return new ArrivalReader(new ByteArrayInputStream(log.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  /**
+   * Tests that commas, spaces, blank lines and comments are read.
+   */
+  @Test
+  public void readArrivals() throws IOException {
+    ArrivalReader arrivals = reader("# tick, start, end\n0,1,5\n\n 3 7 2\r\n3, 0 ,4\n12,9,0");
+    assertTrue(arrivals.next());
+    assertEquals(0, arrivals.getTick());
+    assertEquals(1, arrivals.getStartFloor());
+    assertEquals(5, arrivals.getEndFloor());
+    assertTrue(arrivals.next());
+    assertEquals(3, arrivals.getTick());
+    assertEquals(7, arrivals.getStartFloor());
+    assertEquals(2, arrivals.getEndFloor());
+    assertEquals(4, arrivals.getLineNumber());
+    assertTrue(arrivals.next());
+    assertEquals(0, arrivals.getStartFloor());
+    assertTrue(arrivals.next());
+    assertEquals(12, arrivals.getTick());
+    assertEquals(0, arrivals.getEndFloor());
+    assertFalse(arrivals.next());
+  }
+
+  /**
+   * Tests that a bad line is reported with its number.
+   */
+  @Test
+  public void refuseBadLines() throws IOException {
+    ArrivalReader arrivals = reader("1,2,3\n2,x,4\n");
+    assertTrue(arrivals.next());
+    try {
+      arrivals.next();
+      fail("a floor that is not a number should be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Line 2 is not a tick, start floor and end floor", e.getMessage());
+    }
+
+    arrivals = reader("1,2,3\n2,4294967301,3\n");
+    assertTrue(arrivals.next());
+    try {
+      arrivals.next();
+      fail("a floor too large for an int should be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Line 2 is not a tick, start floor and end floor", e.getMessage());
+    }
+
+    // a 0xFF byte is a bad line, not the end of the log.
+    arrivals = new ArrivalReader(new ByteArrayInputStream(
+        "1 0 5\n\u00ff\n2 0 6\n3 0 7\n".getBytes(StandardCharsets.ISO_8859_1)));
+    assertTrue(arrivals.next());
+    try {
+      arrivals.next();
+      fail("a line of a 0xFF byte should be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Line 2 is not a tick, start floor and end floor", e.getMessage());
+    }
+
+    arrivals = reader("5,2,3\n4,1,2\n");
+    assertTrue(arrivals.next());
+    try {
+      arrivals.next();
+      fail("a tick before the tick of the line before should be refused");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Arrival on line 2 is before the arrival on the line before",
+          e.getMessage());
+    }
+  }
+
+  /**
+   * Tests that a replay leaves the building as adding the same requests
+   * tick by tick does, and counts the refused ones.
+   */
+  @Test
+  public void replayMatchesStepping() throws IOException {
+    StringBuilder log = new StringBuilder();
+    Random random = new Random(5);
+    for (int tick = 0; tick < 3000; tick += random.nextInt(40)) {
+      log.append(tick).append(',').append(random.nextInt(42)).append(',')
+          .append(random.nextInt(40)).append('\n');
+    }
+
+    Building replayed = new Building(40, 4, 8, ElevatorEngine.object, ScaleMode.highScale);
+    Replay.Result result = Replay.run(replayed, reader(log.toString()));
+
+    Building stepped = new Building(40, 4, 8, ElevatorEngine.object, ScaleMode.highScale);
+    stepped.startElevatorSystem();
+    ArrivalReader arrivals = reader(log.toString());
+    long refused = 0;
+    long requests = 0;
+    while (arrivals.next()) {
+      while (stepped.getCurrentTick() < arrivals.getTick()) {
+        stepped.step();
+      }
+      try {
+        stepped.addRequest(new Request(arrivals.getStartFloor(),
+            arrivals.getEndFloor()));
+        requests++;
+      } catch (IllegalArgumentException e) {
+        refused++;
+      }
+    }
+    stepped.step();
+
+    assertTrue(refused > 0);
+    assertEquals(requests, result.requests);
+    assertEquals(refused, result.refused);
+    assertEquals(stepped.getCurrentTick(), result.ticks);
+    assertEquals(stepped.getElevatorSystemStatus().toString(),
+        replayed.getElevatorSystemStatus().toString());
+  }
+}
@@ -0,0 +1,63 @@
+package scanerzus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the RequestBuffer class.
+ */
+public class RequestBufferTest {
+
+  /**
+   * Test that the buffer grows and keeps every field of its requests.
+   */
+  @Test
+  public void addPastCapacity() {
+    RequestBuffer buffer = new RequestBuffer(0);
+    for (int i = 0; i < 40; i++) {
+      buffer.add(i, i + 1, 1000L + i, 5000L + i);
+    }
+    assertEquals(40, buffer.size());
+    assertEquals(39, buffer.getStartFloor(39));
+    assertEquals(40, buffer.getEndFloor(39));
+    assertEquals(1039L, buffer.getArrivalTick(39));
+    assertEquals(5039L, buffer.getId(39));
+    assertEquals(new Request(3, 4), buffer.toRequest(3));
+  }
+
+  /**
+   * Test that a cleared buffer is empty and can be filled again.
+   */
+  @Test
+  public void clearAndReuse() {
+    RequestBuffer buffer = new RequestBuffer();
+    buffer.add(1, 2);
+    buffer.add(3, 0);
+    assertEquals("[1->2, 3->0]", buffer.toString());
+    buffer.clear();
+    assertTrue(buffer.isEmpty());
+    buffer.add(4, 5);
+    assertEquals("[4->5]", buffer.toString());
+  }
+
+  /**
+   * Test that a request past the end of the buffer cannot be read.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void getPastEnd() {
+    RequestBuffer buffer = new RequestBuffer();
+    buffer.add(1, 2);
+    buffer.clear();
+    buffer.getStartFloor(0);
+  }
+
+  /**
+   * Test the constructor exception.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeCapacity() {
+    new RequestBuffer(-1);
+  }
+}